@@ -1,8 +1,11 @@
 package org.codetracker;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -20,8 +23,11 @@ import org.codetracker.element.BaseCodeElement;
 import org.codetracker.element.Block;
 import org.codetracker.element.Class;
 import org.codetracker.element.Comment;
+import org.codetracker.element.ElementIndex;
 import org.codetracker.element.Import;
 import org.codetracker.element.Method;
+import org.codetracker.util.LazyFileContents;
+import org.codetracker.util.ParallelUMLModelBuilder;
 import org.refactoringminer.api.RefactoringMinerTimedOutException;
 import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
 
@@ -303,34 +309,28 @@ public abstract class AbstractTracker {
 	}
 
 	protected static Pair<UMLModel, UMLModel> getUMLModelPair(final CommitModel commitModel, final String rightSideFileName, final Predicate<String> rightSideFileNamePredicate, final boolean filterLeftSide) throws Exception {
+		return getUMLModelPair(commitModel, rightSideFileName, rightSideFileNamePredicate, filterLeftSide, null);
+	}
+
+	/**
+	 * @param parallelUMLModelBuilder parses the files of the commit, when they are not filtered, on its pool; they are
+	 * parsed by the calling thread if null
+	 */
+	protected static Pair<UMLModel, UMLModel> getUMLModelPair(final CommitModel commitModel, final String rightSideFileName, final Predicate<String> rightSideFileNamePredicate, final boolean filterLeftSide, final ParallelUMLModelBuilder parallelUMLModelBuilder) throws Exception {
 	    if (rightSideFileName == null)
 	        throw new IllegalArgumentException("File name could not be null.");
 	
 	    if (filterLeftSide) {
-	        String leftSideFileName = rightSideFileName;
-	        if (commitModel.moveSourceFolderRefactorings != null) {
-	            boolean found = false;
-	            for (MoveSourceFolderRefactoring moveSourceFolderRefactoring : commitModel.moveSourceFolderRefactorings) {
-	                if (found)
-	                    break;
-	                for (Map.Entry<String, String> identicalPath : moveSourceFolderRefactoring.getIdenticalFilePaths().entrySet()) {
-	                    if (identicalPath.getValue().equals(rightSideFileName)) {
-	                        leftSideFileName = identicalPath.getKey();
-	                        found = true;
-	                        break;
-	                    }
-	                }
-	            }
-	        }
-	
-	        final String leftSideFileNameFinal = leftSideFileName;
-	        UMLModel leftSideUMLModel = GitHistoryRefactoringMinerImpl.createModel(commitModel.fileContentsBeforeOriginal.entrySet().stream().filter(map -> map.getKey().equals(leftSideFileNameFinal)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)), commitModel.repositoryDirectoriesBefore);
-	        UMLModel rightSideUMLModel = GitHistoryRefactoringMinerImpl.createModel(commitModel.fileContentsCurrentOriginal.entrySet().stream().filter(map -> map.getKey().equals(rightSideFileName)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)), commitModel.repositoryDirectoriesCurrent);
+	        String leftSideFileName = commitModel.getIdenticalFilePathBefore(rightSideFileName);
+	        if (leftSideFileName == null)
+	            leftSideFileName = rightSideFileName;
+	        UMLModel leftSideUMLModel = commitModel.createModelBefore(leftSideFileName);
+	        UMLModel rightSideUMLModel = commitModel.createModelCurrent(rightSideFileName);
 	        optimizeUMLModelPair(leftSideUMLModel, rightSideUMLModel, rightSideFileName, commitModel.renamedFilesHint);
 	        return Pair.of(leftSideUMLModel, rightSideUMLModel);
 	    } else {
-	        UMLModel leftSideUMLModel = GitHistoryRefactoringMinerImpl.createModel(commitModel.fileContentsBeforeTrimmed, commitModel.repositoryDirectoriesBefore);
-	        UMLModel rightSideUMLModel = GitHistoryRefactoringMinerImpl.createModel(commitModel.fileContentsCurrentTrimmed, commitModel.repositoryDirectoriesCurrent);
+	        UMLModel leftSideUMLModel = createModel(commitModel.fileContentsBeforeTrimmed, commitModel.repositoryDirectoriesBefore, parallelUMLModelBuilder);
+	        UMLModel rightSideUMLModel = createModel(commitModel.fileContentsCurrentTrimmed, commitModel.repositoryDirectoriesCurrent, parallelUMLModelBuilder);
 	        optimizeUMLModelPair(leftSideUMLModel, rightSideUMLModel, rightSideFileName, commitModel.renamedFilesHint);
 	        //remove from rightSideModel the classes not matching the rightSideFileNamePredicate
 	        Set<UMLClass> rightClassesToBeRemoved = new HashSet<>();
@@ -346,6 +346,14 @@ public abstract class AbstractTracker {
 	}
 
 	protected static Pair<UMLModel, UMLModel> getUMLModelPair(final CommitModel commitModel, Class rightClass, final Predicate<String> rightSideFileNamePredicate, final boolean filterLeftSide) throws Exception {
+		return getUMLModelPair(commitModel, rightClass, rightSideFileNamePredicate, filterLeftSide, null);
+	}
+
+	/**
+	 * @param parallelUMLModelBuilder parses the files of the commit, when they are not filtered, on its pool; they are
+	 * parsed by the calling thread if null
+	 */
+	protected static Pair<UMLModel, UMLModel> getUMLModelPair(final CommitModel commitModel, Class rightClass, final Predicate<String> rightSideFileNamePredicate, final boolean filterLeftSide, final ParallelUMLModelBuilder parallelUMLModelBuilder) throws Exception {
 		final String rightSideFileName = rightClass.getFilePath();
 		if (rightSideFileName == null)
 	        throw new IllegalArgumentException("File name could not be null.");
@@ -378,15 +386,14 @@ public abstract class AbstractTracker {
 	            }
 	        }
 	
-	        final String leftSideFileNameFinal = leftSideFileName;
-	        UMLModel leftSideUMLModel = GitHistoryRefactoringMinerImpl.createModel(commitModel.fileContentsBeforeOriginal.entrySet().stream().filter(map -> map.getKey().equals(leftSideFileNameFinal)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)), commitModel.repositoryDirectoriesBefore);
-	        UMLModel rightSideUMLModel = GitHistoryRefactoringMinerImpl.createModel(commitModel.fileContentsCurrentOriginal.entrySet().stream().filter(map -> map.getKey().equals(rightSideFileName)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)), commitModel.repositoryDirectoriesCurrent);
+	        UMLModel leftSideUMLModel = commitModel.createModelBefore(leftSideFileName);
+	        UMLModel rightSideUMLModel = commitModel.createModelCurrent(rightSideFileName);
 	        optimizeUMLModelPair(leftSideUMLModel, rightSideUMLModel, rightSideFileName, commitModel.renamedFilesHint);
 	        return Pair.of(leftSideUMLModel, rightSideUMLModel);
 	    } else {
 	    	//remove even the trimmed files, if they are in Move Source Folder refactoring
-	    	Map<String, String> fileContentsBeforeTrimmed = new HashMap<>(commitModel.fileContentsBeforeTrimmed);
-	    	Map<String, String> fileContentsCurrentTrimmed = new HashMap<>(commitModel.fileContentsCurrentTrimmed);
+	    	Map<String, String> fileContentsBeforeTrimmed = LazyFileContents.copyOf(commitModel.fileContentsBeforeTrimmed);
+	    	Map<String, String> fileContentsCurrentTrimmed = LazyFileContents.copyOf(commitModel.fileContentsCurrentTrimmed);
 	    	for(String key : commitModel.fileContentsBeforeTrimmed.keySet()) {
 		    	for(MoveSourceFolderRefactoring ref : commitModel.moveSourceFolderRefactorings) {
 		    		if(key.startsWith(ref.getPattern().getBefore())) {
@@ -405,8 +412,8 @@ public abstract class AbstractTracker {
 	    			}
 	    		}
 	    	}
-	        UMLModel leftSideUMLModel = GitHistoryRefactoringMinerImpl.createModel(fileContentsBeforeTrimmed, commitModel.repositoryDirectoriesBefore);
-	        UMLModel rightSideUMLModel = GitHistoryRefactoringMinerImpl.createModel(fileContentsCurrentTrimmed, commitModel.repositoryDirectoriesCurrent);
+	        UMLModel leftSideUMLModel = createModel(fileContentsBeforeTrimmed, commitModel.repositoryDirectoriesBefore, parallelUMLModelBuilder);
+	        UMLModel rightSideUMLModel = createModel(fileContentsCurrentTrimmed, commitModel.repositoryDirectoriesCurrent, parallelUMLModelBuilder);
 	        optimizeUMLModelPair(leftSideUMLModel, rightSideUMLModel, rightSideFileName, commitModel.renamedFilesHint);
 	        //remove from rightSideModel the classes not matching the rightSideFileNamePredicate
 	        Set<UMLClass> rightClassesToBeRemoved = new HashSet<>();
@@ -771,10 +778,10 @@ public abstract class AbstractTracker {
 
 	protected static BaseCodeElement getCodeElement(UMLModel umlModel, Version version, BaseCodeElement current) {
 		if (current instanceof Attribute) {
-			return getAttribute(umlModel, version, current::equalIdentifierIgnoringVersion);
+			return getAttributeWithIdentifier(umlModel, version, (Attribute) current);
 		}
 		else if (current instanceof Method) {
-			return getMethod(umlModel, version, current::equalIdentifierIgnoringVersion);
+			return getMethodWithIdentifier(umlModel, version, (Method) current);
 		}
 		else if (current instanceof Block) {
 			return getBlock(umlModel, version, current::equalIdentifierIgnoringVersion);
@@ -789,7 +796,7 @@ public abstract class AbstractTracker {
 			return getAnnotation(umlModel, version, current::equalIdentifierIgnoringVersion);
 		}
 		else if (current instanceof Class) {
-			return getClass(umlModel, version, current::equalIdentifierIgnoringVersion);
+			return getClassWithIdentifier(umlModel, version, (Class) current);
 		}
 		return current;
 	}
@@ -998,6 +1005,26 @@ public abstract class AbstractTracker {
         return null;
     }
 
+	protected static Method getMethodWithIdentifier(UMLModel umlModel, Version version, Method method) {
+	    return umlModel != null ? ElementIndex.of(umlModel).getMethod(version, method) : null;
+	}
+
+	protected static Method getMethodWithIdentifierIgnoringDocumentAndBody(UMLModel umlModel, Version version, Method method) {
+	    return umlModel != null ? ElementIndex.of(umlModel).getMethodIgnoringDocumentationAndBody(version, method) : null;
+	}
+
+	protected static Method getMethodWithIdentifierIgnoringAnnotation(UMLModel umlModel, Version version, Method method) {
+	    return umlModel != null ? ElementIndex.of(umlModel).getMethodIgnoringAnnotation(version, method) : null;
+	}
+
+	protected static Class getClassWithIdentifier(UMLModel umlModel, Version version, Class clazz) {
+	    return umlModel != null ? ElementIndex.of(umlModel).getClass(version, clazz) : null;
+	}
+
+	protected static Attribute getAttributeWithIdentifier(UMLModel umlModel, Version version, Attribute attribute) {
+	    return umlModel != null ? ElementIndex.of(umlModel).getAttribute(version, attribute) : null;
+	}
+
 	public static List<UMLClassBaseDiff> getAllClassesDiff(UMLModelDiff modelDiff) {
 	    List<UMLClassBaseDiff> allClassesDiff = new ArrayList<>();
 	    allClassesDiff.addAll(modelDiff.getCommonClassDiffList());
@@ -1007,6 +1034,17 @@ public abstract class AbstractTracker {
 	    return allClassesDiff;
 	}
 
+	private static UMLModel createModel(Map<String, String> fileContents, Set<String> repositoryDirectories, ParallelUMLModelBuilder parallelUMLModelBuilder) throws Exception {
+		if (parallelUMLModelBuilder != null)
+			return parallelUMLModelBuilder.createModel(fileContents, repositoryDirectories);
+		return GitHistoryRefactoringMinerImpl.createModel(fileContents, repositoryDirectories);
+	}
+
+	/**
+	 * The files of a commit and of its parent commit. When built from a repository, the original file contents of each
+	 * side are a single immutable {@link LazyFileContents} store, and the trimmed ones, without the files identical on
+	 * both sides, are views of it holding only their file paths.
+	 */
 	public static class CommitModel {
 		public final String parentCommitId;
 	    public final Set<String> repositoryDirectoriesBefore;
@@ -1023,6 +1061,11 @@ public abstract class AbstractTracker {
 	    public final long commitTime;
 	    public final long authoredTime;
 	    public final String commitAuthorName;
+
+	    /**
+	     * The files at the parent commit moved unchanged by the Move Source Folder refactorings, by their path at the commit
+	     */
+	    private final Map<String, String> identicalFilePathsBefore = new HashMap<>();
 	
 	    public CommitModel(String parentCommitId, Set<String> repositoryDirectoriesBefore, Map<String, String> fileContentsBeforeOriginal, Map<String, String> fileContentsBeforeTrimmed, 
 	    		Set<String> repositoryDirectoriesCurrent, Map<String, String> fileContentsCurrentOriginal, Map<String, String> fileContentsCurrentTrimmed, 
@@ -1040,6 +1083,87 @@ public abstract class AbstractTracker {
 	        this.commitTime = commitTime;
 	        this.authoredTime = authoredTime;
 	        this.commitAuthorName = commitAuthorName;
+	        if (moveSourceFolderRefactorings != null) {
+	            for (MoveSourceFolderRefactoring moveSourceFolderRefactoring : moveSourceFolderRefactorings) {
+	                for (Map.Entry<String, String> identicalPath : moveSourceFolderRefactoring.getIdenticalFilePaths().entrySet()) {
+	                    identicalFilePathsBefore.putIfAbsent(identicalPath.getValue(), identicalPath.getKey());
+	                }
+	            }
+	        }
+	    }
+
+	    /**
+	     * @return the file at the parent commit moved unchanged to {@code filePath} by a Move Source Folder refactoring,
+	     * or null if there is none
+	     */
+	    public String getIdenticalFilePathBefore(String filePath) {
+	        return identicalFilePathsBefore.get(filePath);
+	    }
+
+	    /**
+	     * @return the contents of the file at the parent commit, as a map holding at most this file
+	     */
+	    public Map<String, String> getFileContentsBefore(String filePath) {
+	        return getFileContents(fileContentsBeforeOriginal, Collections.singleton(filePath));
+	    }
+
+	    /**
+	     * @return the contents of the file at the commit, as a map holding at most this file
+	     */
+	    public Map<String, String> getFileContentsCurrent(String filePath) {
+	        return getFileContents(fileContentsCurrentOriginal, Collections.singleton(filePath));
+	    }
+
+	    /**
+	     * @return the contents of the files at the parent commit, as a map holding at most these files
+	     */
+	    public Map<String, String> getFileContentsBefore(Collection<String> filePaths) {
+	        return getFileContents(fileContentsBeforeOriginal, filePaths);
+	    }
+
+	    /**
+	     * @return the contents of the files at the commit, as a map holding at most these files
+	     */
+	    public Map<String, String> getFileContentsCurrent(Collection<String> filePaths) {
+	        return getFileContents(fileContentsCurrentOriginal, filePaths);
+	    }
+
+	    /**
+	     * @return the model of the file at the parent commit, empty if the commit did not change it
+	     */
+	    public UMLModel createModelBefore(String filePath) throws Exception {
+	        return GitHistoryRefactoringMinerImpl.createModel(getFileContentsBefore(filePath), repositoryDirectoriesBefore);
+	    }
+
+	    /**
+	     * @return the model of the file at the commit, empty if the commit did not change it
+	     */
+	    public UMLModel createModelCurrent(String filePath) throws Exception {
+	        return GitHistoryRefactoringMinerImpl.createModel(getFileContentsCurrent(filePath), repositoryDirectoriesCurrent);
+	    }
+
+	    /**
+	     * @return the model of the files at the parent commit, ignoring those the commit did not change
+	     */
+	    public UMLModel createModelBefore(Collection<String> filePaths) throws Exception {
+	        return GitHistoryRefactoringMinerImpl.createModel(getFileContentsBefore(filePaths), repositoryDirectoriesBefore);
+	    }
+
+	    /**
+	     * @return the model of the files at the commit, ignoring those the commit did not change
+	     */
+	    public UMLModel createModelCurrent(Collection<String> filePaths) throws Exception {
+	        return GitHistoryRefactoringMinerImpl.createModel(getFileContentsCurrent(filePaths), repositoryDirectoriesCurrent);
+	    }
+
+	    private static Map<String, String> getFileContents(Map<String, String> fileContents, Collection<String> filePaths) {
+	        Map<String, String> selectedFileContents = new LinkedHashMap<>();
+	        for (String filePath : filePaths) {
+	            String contents = fileContents.get(filePath);
+	            if (contents != null)
+	                selectedFileContents.put(filePath, contents);
+	        }
+	        return selectedFileContents;
 	    }
 	}
 
@@ -16,7 +16,7 @@ import org.codetracker.element.Annotation;
 import org.codetracker.element.Attribute;
 import org.codetracker.element.Class;
 import org.codetracker.element.Method;
-import org.eclipse.jgit.api.Git;
+import org.codetracker.util.FileHistoryWalker;
 import org.eclipse.jgit.lib.Repository;
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringType;
@@ -48,9 +48,16 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
 		this.changeHistory = new AnnotationTrackerChangeHistory(methodName, methodDeclarationLineNumber, annotationType, annotationStartLineNumber, annotationEndLineNumber);
 	}
 
+	public AnnotationTrackerImpl(TrackingSession session, String startCommitId, String filePath,
+            String methodName, int methodDeclarationLineNumber,
+            CodeElementType annotationType, int annotationStartLineNumber, int annotationEndLineNumber) {
+		super(session, startCommitId, filePath);
+		this.changeHistory = new AnnotationTrackerChangeHistory(methodName, methodDeclarationLineNumber, annotationType, annotationStartLineNumber, annotationEndLineNumber);
+	}
+
     public History.HistoryInfo<Annotation> blame() throws Exception {
         HistoryImpl.HistoryReportImpl historyReport = new HistoryImpl.HistoryReportImpl();
-        try (Git git = new Git(repository)) {
+        try (FileHistoryWalker historyWalker = newFileHistoryWalker()) {
             Version startVersion = gitRepository.getVersion(startCommitId);
             UMLModel umlModel = getUMLModel(startCommitId, Collections.singleton(filePath));
             Method startMethod = getMethod(umlModel, startVersion, changeHistory::isStartMethod);
@@ -85,7 +92,7 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
                 }
                 if (commits == null || !currentAnnotation.getFilePath().equals(lastFileName)) {
                     lastFileName = currentAnnotation.getFilePath();
-                    commits = getCommits(repository, currentAnnotation.getVersion().getId(), currentAnnotation.getFilePath(), git);
+                    commits = prefetching(historyWalker.getCommits(currentAnnotation.getVersion().getId(), currentAnnotation.getFilePath()), currentAnnotation.getFilePath());
                     historyReport.gitLogCommandCallsPlusPlus();
                     analysedCommits.clear();
                 }
@@ -103,7 +110,7 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
                     	if (currentAnnotation.getOperation().get() instanceof UMLOperation || currentAnnotation.getOperation().get() instanceof UMLInitializer) {
 		                    Method currentMethod = Method.of(currentAnnotation.getOperation().get(), currentVersion);
 		                    UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentMethod.getFilePath()));
-		                    Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+		                    Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
 		                    if (rightMethod == null) {
 		                        continue;
 		                    }
@@ -124,9 +131,9 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
 		                        changeHistory.add(leftAnnotation);
 		                        break;
 		                    }
-		                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(currentMethod.getFilePath()));
+		                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, currentMethod.getFilePath(), rightModel);
 		                    //NO CHANGE
-		                    Method leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+		                    Method leftMethod = getMethodWithIdentifier(leftModel, parentVersion, rightMethod);
 		                    if (leftMethod != null) {
 		                    	Pair<VariableDeclarationContainer, VariableDeclarationContainer> pair = Pair.of(leftMethod.getUmlOperation(), rightMethod.getUmlOperation());
 								changeHistory.checkBodyOfMatched(currentVersion, parentVersion, equalAnnotation, pair);
@@ -134,7 +141,7 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
 		                        continue;
 		                    }
 		                    //CHANGE BODY OR DOCUMENT
-		                    leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndDocumentAndBody);
+		                    leftMethod = getMethodWithIdentifierIgnoringDocumentAndBody(leftModel, parentVersion, rightMethod);
 		                    //check if there is another method in leftModel with identical bodyHashCode to the rightMethod
 		                    boolean otherExactMatchFound = false;
 		                    if (leftMethod != null) {
@@ -167,7 +174,7 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
 		                            break;
 		                        }
 		                    }
-		                    UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
+		                    UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, currentMethod.getFilePath(), leftModel, rightModel);
 		                    {
 		                        //Local Refactoring
 		                        List<Refactoring> refactorings = umlModelDiffLocal.getRefactorings();
@@ -246,8 +253,8 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
 		                        }
 		                        {
 		                            Set<String> fileNames = getRightSideFileNames(currentMethod, commitModel, umlModelDiffLocal);
-		                            Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, currentMethod.getFilePath(), fileNames::contains, false);
-		                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+		                            boolean refactoringsStored = addStoredOriginalFilePaths(commitId, commitModel, currentMethod.getFilePath(), fileNames, rightMethod);
+		                            UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentMethod.getFilePath(), fileNames);
 		
 		                            Set<Refactoring> moveRenameClassRefactorings = umlModelDiffAll.getMoveRenameClassRefactorings();
 		                            UMLClassBaseDiff classDiff = umlModelDiffAll.getUMLClassDiff(rightMethodClassName);
@@ -272,6 +279,8 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
 		                                }
 		                            }
 		                            List<Refactoring> refactorings = umlModelDiffAll.getRefactorings();
+		                            if (!refactoringsStored)
+		                                storeRefactorings(commitId, commitModel, currentMethod.getFilePath(), fileNames, refactorings, currentVersion);
 		                            boolean flag = false;
 		                            for (Refactoring refactoring : refactorings) {
 		                                if (RefactoringType.MOVE_AND_RENAME_OPERATION.equals(refactoring.getRefactoringType()) || RefactoringType.MOVE_OPERATION.equals(refactoring.getRefactoringType())) {
@@ -284,8 +293,7 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
 		                                }
 		                            }
 		                            if (flag) {
-		                                umlModelPairAll = getUMLModelPair(commitModel, currentMethod.getFilePath(), fileNames::contains, false);
-		                                umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+		                                umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentMethod.getFilePath(), fileNames);
 		                                refactorings = umlModelDiffAll.getRefactorings();
 		                            }
 		
@@ -328,7 +336,7 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
                     		// container is an Attribute
                     		Attribute currentAttribute = Attribute.of((UMLAttribute) currentAnnotation.getOperation().get(), currentVersion);
 		                    UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentAttribute.getFilePath()));
-		                    Attribute rightAttribute = getAttribute(rightModel, currentVersion, currentAttribute::equalIdentifierIgnoringVersion);
+		                    Attribute rightAttribute = getAttributeWithIdentifier(rightModel, currentVersion, currentAttribute);
 		                    if (rightAttribute == null) {
 		                        continue;
 		                    }
@@ -349,9 +357,9 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
 		                        changeHistory.add(leftAnnotation);
 		                        break;
 		                    }
-		                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(currentAttribute.getFilePath()));
+		                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, currentAttribute.getFilePath(), rightModel);
 		                    //NO CHANGE
-		                    Attribute leftAttribute = getAttribute(leftModel, parentVersion, rightAttribute::equalIdentifierIgnoringVersion);
+		                    Attribute leftAttribute = getAttributeWithIdentifier(leftModel, parentVersion, rightAttribute);
 		                    if (leftAttribute != null) {
 		                    	Pair<VariableDeclarationContainer, VariableDeclarationContainer> pair = Pair.of(leftAttribute.getUmlAttribute(), rightAttribute.getUmlAttribute());
 								changeHistory.checkBodyOfMatched(currentVersion, parentVersion, equalAnnotation, pair);
@@ -359,7 +367,7 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
 		                        continue;
 		                    }
 		                    
-		                    UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
+		                    UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, currentAttribute.getFilePath(), leftModel, rightModel);
 		                    {
 		                        //Local Refactoring
 		                        List<Refactoring> refactorings = umlModelDiffLocal.getRefactorings();
@@ -442,8 +450,8 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
 		                        }
 		                        {
 		                        	Set<String> fileNames = getRightSideFileNames(currentAttribute.getFilePath(), currentAttribute.getUmlAttribute().getLocationInfo().getSourceFolder(), currentAttribute.getUmlAttribute().getClassName(), Collections.emptySet(), commitModel, umlModelDiffLocal);
-		                            Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, currentAttribute.getFilePath(), fileNames::contains, false);
-		                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+		                            boolean refactoringsStored = addStoredOriginalFilePaths(commitId, commitModel, currentAttribute.getFilePath(), fileNames, rightAttribute);
+		                            UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentAttribute.getFilePath(), fileNames);
 		
 		                            Set<Refactoring> moveRenameClassRefactorings = umlModelDiffAll.getMoveRenameClassRefactorings();
 		                            UMLClassBaseDiff classDiff = umlModelDiffAll.getUMLClassDiff(rightAttributeClassName);
@@ -463,6 +471,8 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
 		                                }
 		                            }
 		                            List<Refactoring> refactorings = umlModelDiffAll.getRefactorings();
+		                            if (!refactoringsStored)
+		                                storeRefactorings(commitId, commitModel, currentAttribute.getFilePath(), fileNames, refactorings, currentVersion);
 		                            boolean flag = false;
 		                            for (Refactoring refactoring : refactorings) {
 		                                if (RefactoringType.MOVE_ATTRIBUTE.equals(refactoring.getRefactoringType())) {
@@ -483,8 +493,7 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
 		                                }
 		                            }
 		                            if (flag) {
-		                                umlModelPairAll = getUMLModelPair(commitModel, currentAttribute.getFilePath(), fileNames::contains, false);
-		                                umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+		                                umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentAttribute.getFilePath(), fileNames);
 		                                refactorings = umlModelDiffAll.getRefactorings();
 		                            }
 		
@@ -520,7 +529,7 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
                     else if (currentAnnotation.getClazz().isPresent()) {
                     	Class currentClass = Class.of(currentAnnotation.getClazz().get(), currentVersion);
                     	UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentClass.getFilePath()));
-                    	Class rightClass = getClass(rightModel, currentVersion, currentClass::equalIdentifierIgnoringVersion);
+                    	Class rightClass = getClassWithIdentifier(rightModel, currentVersion, currentClass);
 	                    if (rightClass == null) {
 	                        continue;
 	                    }
@@ -539,16 +548,16 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
 	                        changeHistory.add(leftAnnotation);
 	                        break;
 	                    }
-	                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(currentClass.getFilePath()));
+	                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, currentClass.getFilePath(), rightModel);
 	                    //NO CHANGE
-	                    Class leftClass = getClass(leftModel, parentVersion, rightClass::equalIdentifierIgnoringVersion);
+	                    Class leftClass = getClassWithIdentifier(leftModel, parentVersion, rightClass);
 	                    if (leftClass != null) {
 	                        historyReport.step2PlusPlus();
 	                        UMLClassBaseDiff lightweightClassDiff = lightweightClassDiff(leftClass.getUmlClass(), rightClass.getUmlClass());
 	                        changeHistory.checkBodyOfMatchedClasses(currentVersion, parentVersion, rightAnnotation::equalIdentifierIgnoringVersion, lightweightClassDiff);
 	                        continue;
 	                    }
-	                    UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
+	                    UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, currentClass.getFilePath(), leftModel, rightModel);
 	                    {
 	                        //Local Refactoring
 	                    	UMLAbstractClassDiff classDiff = getUMLClassDiff(umlModelDiffLocal, rightClassSourceFolder, rightClassName);
@@ -606,8 +615,7 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
 	                        }
 	                        {
 	                            //Set<String> fileNames = getRightSideFileNames(currentClass.getFilePath(), currentClass.getUmlClass().getName(), Collections.emptySet(), commitModel, umlModelDiffLocal);
-	                        	Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, rightClass.getFilePath(), s -> true, false);
-	                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+	                        	UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, rightClass.getFilePath(), null);
 	
 	                            Set<Refactoring> moveRenameClassRefactorings = umlModelDiffAll.getMoveRenameClassRefactorings();
 	                            UMLClassBaseDiff classDiff = umlModelDiffAll.getUMLClassDiff(rightClass.getUmlClass().getName());
@@ -641,6 +649,8 @@ public class AnnotationTrackerImpl extends BaseTracker implements AnnotationTrac
                     }
                 }
             }
+        } finally {
+            releaseModels();
         }
         return null;
     }
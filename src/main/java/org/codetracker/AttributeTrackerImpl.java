@@ -9,7 +9,7 @@ import org.codetracker.api.History;
 import org.codetracker.api.Version;
 import org.codetracker.api.History.HistoryInfo;
 import org.codetracker.element.Attribute;
-import org.eclipse.jgit.api.Git;
+import org.codetracker.util.FileHistoryWalker;
 import org.eclipse.jgit.lib.Repository;
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringType;
@@ -24,10 +24,15 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
         this.changeHistory = new AttributeTrackerChangeHistory(attributeName, attributeDeclarationLineNumber);
     }
 
+    public AttributeTrackerImpl(TrackingSession session, String startCommitId, String filePath, String attributeName, int attributeDeclarationLineNumber) {
+        super(session, startCommitId, filePath);
+        this.changeHistory = new AttributeTrackerChangeHistory(attributeName, attributeDeclarationLineNumber);
+    }
+
     @Override
     public History<Attribute> track() throws Exception {
         HistoryImpl.HistoryReportImpl historyReport = new HistoryImpl.HistoryReportImpl();
-        try (Git git = new Git(repository)) {
+        try (FileHistoryWalker historyWalker = newFileHistoryWalker()) {
             Version startVersion = gitRepository.getVersion(startCommitId);
             UMLModel umlModel = getUMLModel(startCommitId, Collections.singleton(filePath));
             Attribute start = getAttribute(umlModel, startVersion, changeHistory::isStartAttribute);
@@ -50,7 +55,7 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
                 }
                 if (commits == null || !currentAttribute.getFilePath().equals(lastFileName)) {
                     lastFileName = currentAttribute.getFilePath();
-                    commits = getCommits(repository, currentAttribute.getVersion().getId(), lastFileName, git);
+                    commits = prefetching(historyWalker.getCommits(currentAttribute.getVersion().getId(), lastFileName), lastFileName);
                     if (commitMap.containsKey(currentAttribute.getVersion().getId()) && commitMap.get(currentAttribute.getVersion().getId()).equals(commits)) {
                     	break;
                     }
@@ -72,7 +77,7 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
 
 
                     UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentAttribute.getFilePath()));
-                    Attribute rightAttribute = getAttribute(rightModel, currentVersion, currentAttribute::equalIdentifierIgnoringVersion);
+                    Attribute rightAttribute = getAttributeWithIdentifier(rightModel, currentVersion, currentAttribute);
                     if (rightAttribute == null) {
                         continue;
                     }
@@ -84,10 +89,10 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
                         changeHistory.add(leftAttribute);
                         break;
                     }
-                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(rightAttribute.getFilePath()));
+                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, rightAttribute.getFilePath(), rightModel);
 
                     //NO CHANGE
-                    Attribute leftAttribute = getAttribute(leftModel, parentVersion, rightAttribute::equalIdentifierIgnoringVersion);
+                    Attribute leftAttribute = getAttributeWithIdentifier(leftModel, parentVersion, rightAttribute);
                     if (leftAttribute != null) {
                         historyReport.step2PlusPlus();
                         //check if initializer changed
@@ -97,7 +102,7 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
 
                     String extractedClassFilePath = null;
                     //Local Refactoring
-                    UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
+                    UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, rightAttribute.getFilePath(), leftModel, rightModel);
                     {
                         List<Refactoring> refactorings = umlModelDiffLocal.getRefactorings();
                         Set<Attribute> attributeContainerChanged = changeHistory.isAttributeContainerChanged(umlModelDiffLocal, refactorings, currentVersion, parentVersion, rightAttribute::equalIdentifierIgnoringVersion, getClassMoveDiffList(umlModelDiffLocal));
@@ -167,8 +172,7 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
                             if (extractedClassFilePath != null) {
                                 fileNames.add(extractedClassFilePath);
                             }
-                            Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, currentAttribute.getFilePath(), fileNames::contains, false);
-                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                            UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentAttribute.getFilePath(), fileNames);
 
                             List<Refactoring> refactorings = umlModelDiffAll.getRefactorings();
 
@@ -184,8 +188,7 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
                                 }
                             }
                             if (moveAttributeRefactorings == 1) {
-                                umlModelPairAll = getUMLModelPair(commitModel, currentAttribute.getFilePath(), fileNames::contains, false);
-                                umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                                umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentAttribute.getFilePath(), fileNames);
                                 refactorings = umlModelDiffAll.getRefactorings();
                             }
 
@@ -219,12 +222,14 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
                 }
             }
             return new HistoryImpl<>(changeHistory.get().getCompleteGraph(), historyReport);
+        } finally {
+            releaseModels();
         }
     }
 
     public HistoryInfo<Attribute> blame() throws Exception {
         HistoryImpl.HistoryReportImpl historyReport = new HistoryImpl.HistoryReportImpl();
-        try (Git git = new Git(repository)) {
+        try (FileHistoryWalker historyWalker = newFileHistoryWalker()) {
             Version startVersion = gitRepository.getVersion(startCommitId);
             UMLModel umlModel = getUMLModel(startCommitId, Collections.singleton(filePath));
             Attribute start = getAttribute(umlModel, startVersion, changeHistory::isStartAttribute);
@@ -249,7 +254,7 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
                 }
                 if (commits == null || !currentAttribute.getFilePath().equals(lastFileName)) {
                     lastFileName = currentAttribute.getFilePath();
-                    commits = getCommits(repository, currentAttribute.getVersion().getId(), lastFileName, git);
+                    commits = prefetching(historyWalker.getCommits(currentAttribute.getVersion().getId(), lastFileName), lastFileName);
                     if (commitMap.containsKey(currentAttribute.getVersion().getId()) && commitMap.get(currentAttribute.getVersion().getId()).equals(commits)) {
                     	break;
                     }
@@ -271,7 +276,7 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
 
 
                     UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentAttribute.getFilePath()));
-                    Attribute rightAttribute = getAttribute(rightModel, currentVersion, currentAttribute::equalIdentifierIgnoringVersion);
+                    Attribute rightAttribute = getAttributeWithIdentifier(rightModel, currentVersion, currentAttribute);
                     if (rightAttribute == null) {
                         continue;
                     }
@@ -283,10 +288,10 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
                         changeHistory.add(leftAttribute);
                         break;
                     }
-                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(rightAttribute.getFilePath()));
+                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, rightAttribute.getFilePath(), rightModel);
 
                     //NO CHANGE
-                    Attribute leftAttribute = getAttribute(leftModel, parentVersion, rightAttribute::equalIdentifierIgnoringVersion);
+                    Attribute leftAttribute = getAttributeWithIdentifier(leftModel, parentVersion, rightAttribute);
                     if (leftAttribute != null) {
                         historyReport.step2PlusPlus();
                         changeHistory.checkInitializerChange(rightAttribute, leftAttribute);
@@ -295,7 +300,7 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
 
                     String extractedClassFilePath = null;
                     //Local Refactoring
-                    UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
+                    UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, rightAttribute.getFilePath(), leftModel, rightModel);
                     {
                         List<Refactoring> refactorings = umlModelDiffLocal.getRefactorings();
                         Set<Attribute> attributeContainerChanged = changeHistory.isAttributeContainerChanged(umlModelDiffLocal, refactorings, currentVersion, parentVersion, rightAttribute::equalIdentifierIgnoringVersion, getClassMoveDiffList(umlModelDiffLocal));
@@ -365,8 +370,7 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
                             if (extractedClassFilePath != null) {
                                 fileNames.add(extractedClassFilePath);
                             }
-                            Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, currentAttribute.getFilePath(), fileNames::contains, false);
-                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                            UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentAttribute.getFilePath(), fileNames);
 
                             List<Refactoring> refactorings = umlModelDiffAll.getRefactorings();
 
@@ -382,8 +386,7 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
                                 }
                             }
                             if (moveAttributeRefactorings == 1) {
-                                umlModelPairAll = getUMLModelPair(commitModel, currentAttribute.getFilePath(), fileNames::contains, false);
-                                umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                                umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentAttribute.getFilePath(), fileNames);
                                 refactorings = umlModelDiffAll.getRefactorings();
                             }
 
@@ -416,6 +419,8 @@ public class AttributeTrackerImpl extends BaseTracker implements AttributeTracke
                     }
                 }
             }
+        } finally {
+            releaseModels();
         }
         return null;
     }
@@ -94,7 +94,7 @@ public class AttributeTrackerWithLocalFiles extends BaseTrackerWithLocalFiles im
             	UMLModel rightModel = GitHistoryRefactoringMinerImpl.createModel(lightCommitModel.fileContentsCurrentOriginal, lightCommitModel.repositoryDirectoriesCurrent);
             	rightModel.setPartial(true);
 
-                Attribute rightAttribute = getAttribute(rightModel, currentVersion, currentAttribute::equalIdentifierIgnoringVersion);
+                Attribute rightAttribute = getAttributeWithIdentifier(rightModel, currentVersion, currentAttribute);
                 if (rightAttribute == null) {
                     continue;
                 }
@@ -107,7 +107,7 @@ public class AttributeTrackerWithLocalFiles extends BaseTrackerWithLocalFiles im
                     break;
                 }
                 //NO CHANGE
-                Attribute leftAttribute = getAttribute(leftModel, parentVersion, rightAttribute::equalIdentifierIgnoringVersion);
+                Attribute leftAttribute = getAttributeWithIdentifier(leftModel, parentVersion, rightAttribute);
                 if (leftAttribute != null) {
                     historyReport.step2PlusPlus();
                     //check if initializer changed
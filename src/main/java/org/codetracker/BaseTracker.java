@@ -3,57 +3,255 @@ package org.codetracker;
 import gr.uom.java.xmi.*;
 import gr.uom.java.xmi.diff.*;
 
+import org.apache.commons.lang3.tuple.Pair;
+import org.codetracker.api.Version;
+import org.codetracker.element.Attribute;
+import org.codetracker.element.BaseCodeElement;
+import org.codetracker.element.Method;
+import org.codetracker.util.FileHistoryWalker;
 import org.codetracker.util.GitRepository;
-import org.codetracker.util.IRepository;
-import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.api.LogCommand;
-import org.eclipse.jgit.api.errors.GitAPIException;
+import org.codetracker.util.LazyFileContents;
+import org.codetracker.util.ParallelUMLModelBuilder;
+import org.codetracker.util.RefactoringStore;
+import org.codetracker.util.SkeletonModel;
+import org.codetracker.util.UMLModelCache;
+import org.codetracker.util.UMLModelDiffCache;
+import org.codetracker.util.UMLModelPrefetcher;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
-import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringMinerTimedOutException;
 import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
 import org.refactoringminer.util.GitServiceImpl;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
+/**
+ * The base of the trackers reading the history from a git repository.
+ * <p>
+ * A tracker is used by one thread at a time: its git service, skeletons and prefetched models are its own. The caches
+ * and stores it is given can be shared with trackers running on other threads, see {@link TrackingSession}: the models
+ * and diffs it takes from the caches are its own until {@link #releaseModels()} puts them back.
+ */
 public abstract class BaseTracker extends AbstractTracker {
     protected final GitServiceImpl gitService = new GitServiceImpl();
     protected final Repository repository;
-    protected final IRepository gitRepository;
+    protected final GitRepository gitRepository;
+    protected final UMLModelCache umlModelCache;
+    protected final UMLModelPrefetcher umlModelPrefetcher;
+    protected final UMLModelDiffCache umlModelDiffCache;
+    protected final RefactoringStore refactoringStore;
+    protected final ParallelUMLModelBuilder parallelUMLModelBuilder;
+    private Map<String, Future<UMLModel>> prefetchedModels = new HashMap<>();
+    private Map<ObjectId, SkeletonModel> skeletonModels = new LinkedHashMap<ObjectId, SkeletonModel>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ObjectId, SkeletonModel> eldest) {
+            return size() > MAXIMUM_SKELETON_MODELS;
+        }
+    };
+    private static final int MAXIMUM_SKELETON_MODELS = 32;
+    private Map<String, TakenModel> takenModels = new LinkedHashMap<String, TakenModel>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TakenModel> eldest) {
+            if (size() <= MAXIMUM_TAKEN_MODELS)
+                return false;
+            TakenModel takenModel = eldest.getValue();
+            umlModelCache.put(takenModel.filePath, takenModel.blobId, takenModel.umlModel, takenModel.weight);
+            return true;
+        }
+    };
+    private static final int MAXIMUM_TAKEN_MODELS = 64;
+    private Map<UMLModelDiffCache.Key, TakenDiff> takenDiffs = new LinkedHashMap<UMLModelDiffCache.Key, TakenDiff>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UMLModelDiffCache.Key, TakenDiff> eldest) {
+            if (size() <= MAXIMUM_TAKEN_DIFFS)
+                return false;
+            TakenDiff takenDiff = eldest.getValue();
+            umlModelDiffCache.put(eldest.getKey(), takenDiff.leftModel, takenDiff.rightModel, takenDiff.umlModelDiff);
+            return true;
+        }
+    };
+    private static final int MAXIMUM_TAKEN_DIFFS = 16;
+    private final TrackingSession session;
+    private final boolean sharedSession;
+    private FileHistoryWalker sharedFileHistoryWalker;
+
+    /**
+     * Creates a tracker with caches of its own, walking the history with a walker of its own.
+     */
     public BaseTracker(Repository repository, String startCommitId, String filePath) {
+        this(TrackingSession.builder(repository).build(), startCommitId, filePath, false);
+    }
+
+    /**
+     * Creates a tracker using the caches, stores and pools of the session, and walking the history with the walker
+     * the session keeps for the thread running it, so that the trackers of the session reuse the commits already
+     * visited by the previous ones.
+     */
+    public BaseTracker(TrackingSession session, String startCommitId, String filePath) {
+        this(session, startCommitId, filePath, true);
+    }
+
+    private BaseTracker(TrackingSession session, String startCommitId, String filePath, boolean sharedSession) {
         super(startCommitId, filePath);
-		this.repository = repository;
-        this.gitRepository = new GitRepository(repository);
+        this.session = session;
+        this.sharedSession = sharedSession;
+        this.repository = session.getRepository();
+        this.gitRepository = new GitRepository(repository, session.getCommitGraphIndex(), session.getCommitMetadataCache());
+        this.umlModelCache = session.getUMLModelCache();
+        this.umlModelPrefetcher = session.getUMLModelPrefetcher();
+        this.umlModelDiffCache = session.getUMLModelDiffCache();
+        this.refactoringStore = session.getRefactoringStore();
+        this.parallelUMLModelBuilder = session.getParallelUMLModelBuilder();
     }
 
-    protected static List<String> getCommits(Repository repository, String startCommitId, String filePath, Git git) throws IOException, GitAPIException {
-        if (startCommitId.equals("0")) {
-        	return Collections.emptyList();
-        }
-    	LogCommand logCommandFile = git.log().add(repository.resolve(startCommitId)).addPath(filePath).setRevFilter(RevFilter.ALL);
-        Iterable<RevCommit> fileRevisions = logCommandFile.call();
-        List<String> list = StreamSupport.stream(fileRevisions.spliterator(), false).map(revCommit -> revCommit.getId().getName()).collect(Collectors.toList()); 
-        /*
-        if(jsonFile.exists()) {
-        	final ObjectMapper mapper = new ObjectMapper();
-			GitLog gitLog = mapper.readValue(jsonFile, GitLog.class);
-			Map<String, List<String>> map = gitLog.getCommitLogMap();
-			map.put(startCommitId, list);
-			jsonFile.delete();
-			mapper.writeValue(jsonFile, gitLog);
-        }
-        else {
-        	Map<String, List<String>> map = new LinkedHashMap<>();
-        	map.put(startCommitId, list);
-        	final ObjectMapper mapper = new ObjectMapper();
-    		mapper.writeValue(jsonFile, new GitLog(map));
+    protected TrackingSession getSession() {
+        return session;
+    }
+
+    /**
+     * Makes the tracker walk the history with the given walker, reusing the commits it already visited, instead of
+     * creating its own walker for each run.
+     */
+    void setSharedFileHistoryWalker(FileHistoryWalker sharedFileHistoryWalker) {
+        this.sharedFileHistoryWalker = sharedFileHistoryWalker;
+    }
+
+    /**
+     * Makes the tracker consume the models prefetched, the skeletons parsed, and the models and diffs taken from the
+     * caches, by the given tracker, which walks the same commits of the same file on the same thread. The lead
+     * tracker puts them back.
+     */
+    void shareModelsWith(BaseTracker lead) {
+        this.prefetchedModels = lead.prefetchedModels;
+        this.skeletonModels = lead.skeletonModels;
+        this.takenModels = lead.takenModels;
+        this.takenDiffs = lead.takenDiffs;
+    }
+
+    protected FileHistoryWalker newFileHistoryWalker() {
+        FileHistoryWalker sharedFileHistoryWalker = this.sharedFileHistoryWalker;
+        if (sharedFileHistoryWalker == null && sharedSession)
+            sharedFileHistoryWalker = session.getFileHistoryWalker();
+        if (sharedFileHistoryWalker != null)
+            return FileHistoryWalker.view(sharedFileHistoryWalker);
+        return new FileHistoryWalker(repository, gitRepository.getCommitGraphIndex());
+    }
+
+    /**
+     * Wraps the commits a tracking loop is going to iterate, so that the models of the next commits, and of their
+     * parents, are parsed in advance when a {@link UMLModelPrefetcher} is configured.
+     * The models still being prefetched for the previous list, e.g., before the tracked element moved to another
+     * file, are cancelled.
+     */
+    protected List<String> prefetching(List<String> commits, String filePath) {
+        return prefetching(commits, filePath, commitId -> false);
+    }
+
+    /**
+     * Like {@link #prefetching(List, String)}, but the models of the commits for which {@code unchanged} holds, e.g.,
+     * the commits the skeletons tell did not change the tracked element, see
+     * {@link #isUnchangedInSkeletons(Method, String, String)}, are not prefetched, since they are not going to be
+     * built.
+     */
+    protected List<String> prefetching(List<String> commits, String filePath, Predicate<String> unchanged) {
+        cancelPrefetch();
+        if (umlModelPrefetcher == null)
+            return commits;
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return commits.get(index);
+            }
+
+            @Override
+            public int size() {
+                return commits.size();
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                Iterator<String> current = commits.iterator();
+                Iterator<String> ahead = commits.iterator();
+                return new Iterator<String>() {
+                    private int index;
+                    private int scheduled;
+
+                    @Override
+                    public boolean hasNext() {
+                        return current.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        String commitId = current.next();
+                        index++;
+                        while (scheduled < index + umlModelPrefetcher.getDepth() && ahead.hasNext()) {
+                            String upcoming = ahead.next();
+                            scheduled++;
+                            if (unchanged.test(upcoming))
+                                continue;
+                            prefetch(upcoming, filePath);
+                            String parentCommitId = gitRepository.getParentId(upcoming);
+                            if (!"0".equals(parentCommitId))
+                                prefetch(parentCommitId, filePath);
+                        }
+                        return commitId;
+                    }
+                };
+            }
+        };
+    }
+
+    private void prefetch(String commitId, String filePath) {
+        ObjectId blobId = gitRepository.getBlobId(commitId, filePath);
+        if (blobId == null)
+            return;
+        String key = filePath + ":" + blobId.getName();
+        if (prefetchedModels.containsKey(key) || takenModels.containsKey(key) || umlModelCache.contains(filePath, blobId))
+            return;
+        // the model is cached by the tracker consuming it, on its own thread
+        prefetchedModels.put(key, umlModelPrefetcher.submit(() -> getUMLModel(repository, commitId, Collections.singleton(filePath))));
+    }
+
+    private UMLModel getPrefetchedModel(String filePath, ObjectId blobId) throws InterruptedException {
+        Future<UMLModel> future = prefetchedModels.remove(filePath + ":" + blobId.getName());
+        if (future == null)
+            return null;
+        try {
+            return future.get();
+        } catch (CancellationException | ExecutionException e) {
+            return null;
         }
-        */
-        return list;
+    }
+
+    private void cancelPrefetch() {
+        for (Future<UMLModel> future : prefetchedModels.values())
+            future.cancel(true);
+        prefetchedModels.clear();
+    }
+
+    /**
+     * Cancels the models still being prefetched, and puts the models and diffs taken from the caches back, for the
+     * other trackers to use. Called once the tracker is done.
+     */
+    protected void releaseModels() {
+        cancelPrefetch();
+        for (Map.Entry<UMLModelDiffCache.Key, TakenDiff> entry : takenDiffs.entrySet())
+            umlModelDiffCache.put(entry.getKey(), entry.getValue().leftModel, entry.getValue().rightModel, entry.getValue().umlModelDiff);
+        takenDiffs.clear();
+        for (TakenModel takenModel : takenModels.values())
+            umlModelCache.put(takenModel.filePath, takenModel.blobId, takenModel.umlModel, takenModel.weight);
+        takenModels.clear();
     }
 
     public static UMLModel getUMLModel(Repository repository, String commitId, Set<String> fileNames) throws Exception {
@@ -75,7 +273,173 @@ public abstract class BaseTracker extends AbstractTracker {
     }
 
     protected UMLModel getUMLModel(String commitId, Set<String> fileNames) throws Exception {
-        return getUMLModel(repository, commitId, fileNames);
+        if (fileNames == null || fileNames.size() != 1)
+            return getUMLModel(repository, commitId, fileNames);
+        String filePath = fileNames.iterator().next();
+        ObjectId blobId = gitRepository.getBlobId(commitId, filePath);
+        if (blobId == null)
+            return getUMLModel(repository, commitId, fileNames);
+        String key = filePath + ":" + blobId.getName();
+        TakenModel takenModel = takenModels.get(key);
+        if (takenModel != null)
+            return takenModel.umlModel;
+        UMLModel umlModel = umlModelCache.take(filePath, blobId);
+        if (umlModel == null) {
+            umlModel = getPrefetchedModel(filePath, blobId);
+            if (umlModel == null)
+                umlModel = getUMLModel(repository, commitId, fileNames);
+        }
+        try (ObjectReader reader = repository.newObjectReader()) {
+            takenModels.put(key, new TakenModel(filePath, blobId, umlModel, reader.getObjectSize(blobId, Constants.OBJ_BLOB)));
+        }
+        return umlModel;
+    }
+
+    /**
+     * Returns the skeleton of the file at the commit, parsed once for each of the recent blobs, or null if the file
+     * does not exist at the commit.
+     */
+    protected SkeletonModel getSkeletonModel(String commitId, String filePath) throws IOException {
+        ObjectId blobId = gitRepository.getBlobId(commitId, filePath);
+        if (blobId == null)
+            return null;
+        SkeletonModel skeletonModel = skeletonModels.get(blobId);
+        if (skeletonModel == null) {
+            skeletonModel = SkeletonModel.parse(new String(repository.open(blobId, Constants.OBJ_BLOB).getBytes()));
+            skeletonModels.put(blobId, skeletonModel);
+        }
+        return skeletonModel;
+    }
+
+    /**
+     * Tells from the skeletons of the file at the commit and at its parent commit, without building their models,
+     * whether the method declared by {@code operation}, in the file at the commit {@code version}, is in both of them
+     * and did not change. When false, the models have to be built to know.
+     */
+    protected boolean isUnchangedInSkeletons(UMLOperation operation, String version, String commitId, String parentCommitId, String filePath) throws IOException {
+        SkeletonModel skeletonModel = getSkeletonModel(version, filePath);
+        if (skeletonModel == null)
+            return false;
+        String key = skeletonModel.getKey(operation.getLocationInfo().getStartOffset());
+        if (key == null || !key.contains(operation.getName()))
+            return false;
+        SkeletonModel rightSkeletonModel = getSkeletonModel(commitId, filePath);
+        if (rightSkeletonModel == null || !rightSkeletonModel.contains(key))
+            return false;
+        SkeletonModel leftSkeletonModel = getSkeletonModel(parentCommitId, filePath);
+        return leftSkeletonModel != null && leftSkeletonModel.contains(key);
+    }
+
+    /**
+     * Like {@link #isUnchangedInSkeletons(UMLOperation, String, String, String, String)} for the method, as it is in
+     * the file at its version, and the commit, false when the skeletons cannot be read.
+     */
+    protected boolean isUnchangedInSkeletons(Method method, String commitId, String filePath) {
+        String parentCommitId = gitRepository.getParentId(commitId);
+        if ("0".equals(parentCommitId) || !(method.getUmlOperation() instanceof UMLOperation))
+            return false;
+        try {
+            return isUnchangedInSkeletons((UMLOperation) method.getUmlOperation(), method.getVersion().getId(), commitId, parentCommitId, filePath);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the model of the file at the parent commit. When the file has the same blob id at both commits the model
+     * of the child commit is returned as is, without looking up the parent commit or parsing the file again.
+     */
+    protected UMLModel getParentUMLModel(String parentCommitId, String commitId, String filePath, UMLModel rightModel) throws Exception {
+        ObjectId blobId = gitRepository.getBlobId(commitId, filePath);
+        if (rightModel != null && blobId != null && blobId.equals(gitRepository.getBlobId(parentCommitId, filePath)))
+            return rightModel;
+        return getUMLModel(parentCommitId, Collections.singleton(filePath));
+    }
+
+    /**
+     * Returns the diff between the models of the file at the parent commit and at the commit, computed once for all
+     * the trackers sharing the {@link UMLModelDiffCache} and these models.
+     */
+    protected UMLModelDiff getUMLModelDiff(String parentCommitId, String commitId, String filePath, UMLModel leftModel, UMLModel rightModel) throws RefactoringMinerTimedOutException {
+        return getUMLModelDiff(UMLModelDiffCache.Key.local(parentCommitId, commitId, filePath), leftModel, rightModel, () -> leftModel.diff(rightModel));
+    }
+
+    private <E extends Exception> UMLModelDiff getUMLModelDiff(UMLModelDiffCache.Key key, UMLModel leftModel, UMLModel rightModel, Differ<E> differ) throws E {
+        TakenDiff takenDiff = takenDiffs.get(key);
+        if (takenDiff != null && takenDiff.leftModel == leftModel && takenDiff.rightModel == rightModel)
+            return takenDiff.umlModelDiff;
+        UMLModelDiff umlModelDiff = umlModelDiffCache.take(key, leftModel, rightModel);
+        if (umlModelDiff == null)
+            umlModelDiff = differ.diff();
+        if (umlModelDiff != null)
+            takenDiffs.put(key, new TakenDiff(leftModel, rightModel, umlModelDiff));
+        return umlModelDiff;
+    }
+
+    /**
+     * Returns the diff between the models of all the files changed by the commit, keeping in the model of the commit
+     * the classes of {@code rightSideFileNames} only, or all of them if null. The model pair is not even built when
+     * the diff is cached, and is parsed on the pool of the {@link ParallelUMLModelBuilder} if one is configured.
+     */
+    protected UMLModelDiff getUMLModelDiffAll(String commitId, CommitModel commitModel, String rightSideFileName, Set<String> rightSideFileNames) throws Exception {
+        UMLModelDiffCache.Key key = UMLModelDiffCache.Key.all(commitModel.parentCommitId, commitId, rightSideFileName, rightSideFileNames);
+        // the model pair is built for the diff only, so the diff is bound to no model of the cache
+        return getUMLModelDiff(key, null, null, () -> {
+            Predicate<String> rightSideFileNamePredicate = rightSideFileNames != null ? rightSideFileNames::contains : fileName -> true;
+            Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, rightSideFileName, rightSideFileNamePredicate, false, parallelUMLModelBuilder);
+            return umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+        });
+    }
+
+    /**
+     * Adds to {@code rightSideFileNames} the files {@code element} was moved from in the commit, when the refactorings
+     * of the commit are stored for these files, so that the commit is diffed once with all the files it needs.
+     *
+     * @return true if the refactorings of the commit are stored for these files
+     */
+    protected boolean addStoredOriginalFilePaths(String commitId, CommitModel commitModel, String rightSideFileName, Set<String> rightSideFileNames, BaseCodeElement element) throws IOException {
+        if (refactoringStore == null)
+            return false;
+        List<RefactoringStore.Record> records = refactoringStore.load(commitModel.parentCommitId, commitId, rightSideFileName, rightSideFileNames);
+        if (records == null)
+            return false;
+        rightSideFileNames.addAll(RefactoringStore.originalFilePaths(records, element.getIdentifierIgnoringVersion()));
+        return true;
+    }
+
+    protected void storeRefactorings(String commitId, CommitModel commitModel, String rightSideFileName, Set<String> rightSideFileNames, List<Refactoring> refactorings, Version currentVersion) throws IOException {
+        if (refactoringStore == null)
+            return;
+        List<RefactoringStore.Record> records = new ArrayList<>(refactorings.size());
+        for (Refactoring refactoring : refactorings) {
+            String movedElement = null;
+            String originalFilePath = null;
+            switch (refactoring.getRefactoringType()) {
+                case MOVE_OPERATION:
+                case MOVE_AND_RENAME_OPERATION: {
+                    MoveOperationRefactoring moveOperationRefactoring = (MoveOperationRefactoring) refactoring;
+                    movedElement = Method.of(moveOperationRefactoring.getMovedOperation(), currentVersion).getIdentifierIgnoringVersion();
+                    originalFilePath = moveOperationRefactoring.getOriginalOperation().getLocationInfo().getFilePath();
+                    break;
+                }
+                case MOVE_ATTRIBUTE: {
+                    MoveAttributeRefactoring moveAttributeRefactoring = (MoveAttributeRefactoring) refactoring;
+                    movedElement = Attribute.of(moveAttributeRefactoring.getMovedAttribute(), currentVersion).getIdentifierIgnoringVersion();
+                    originalFilePath = moveAttributeRefactoring.getOriginalAttribute().getLocationInfo().getFilePath();
+                    break;
+                }
+                case MOVE_RENAME_ATTRIBUTE: {
+                    MoveAndRenameAttributeRefactoring moveAttributeRefactoring = (MoveAndRenameAttributeRefactoring) refactoring;
+                    movedElement = Attribute.of(moveAttributeRefactoring.getMovedAttribute(), currentVersion).getIdentifierIgnoringVersion();
+                    originalFilePath = moveAttributeRefactoring.getOriginalAttribute().getLocationInfo().getFilePath();
+                    break;
+                }
+                default:
+                    break;
+            }
+            records.add(new RefactoringStore.Record(refactoring.getRefactoringType().name(), refactoring.toString(), movedElement, originalFilePath));
+        }
+        refactoringStore.save(commitModel.parentCommitId, commitId, rightSideFileName, rightSideFileNames, records);
     }
 
     public void populateFileSets(String commitId, Set<String> filePathsBefore, Set<String> filePathsCurrent, Map<String, String> renamedFilesHint) throws Exception {
@@ -124,32 +488,98 @@ public abstract class BaseTracker extends AbstractTracker {
             gitService.fileTreeDiff(repository, currentCommit, filePathsBefore2, filePathsCurrent2, renamedFilesHint);
         }
 
+        // the file contents are read from their blobs when first needed, and can be reclaimed by the garbage collector
         Set<String> repositoryDirectoriesBefore = new LinkedHashSet<String>();
-        Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
+        LazyFileContents fileContentsBefore = LazyFileContents.of(repository, parentCommit1, filePathsBefore1, repositoryDirectoriesBefore);
 
         Set<String> repositoryDirectoriesCurrent = new LinkedHashSet<String>();
-        Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
-
-        if (parentCommit1 != null) {
-            GitHistoryRefactoringMinerImpl.populateFileContents(repository, parentCommit1, filePathsBefore1, fileContentsBefore, repositoryDirectoriesBefore);
-        }
-        if (parentCommit2 != null) {
-            GitHistoryRefactoringMinerImpl.populateFileContents(repository, parentCommit2, filePathsBefore2, fileContentsBefore, repositoryDirectoriesBefore);
-        }
         Set<String> filePathsCurrent = new HashSet<>();
         filePathsCurrent.addAll(filePathsCurrent1);
         filePathsCurrent.addAll(filePathsCurrent2);
-        GitHistoryRefactoringMinerImpl.populateFileContents(repository, currentCommit, filePathsCurrent, fileContentsCurrent, repositoryDirectoriesCurrent);
+        LazyFileContents fileContentsCurrent = LazyFileContents.of(repository, currentCommit, filePathsCurrent, repositoryDirectoriesCurrent);
 
-        Map<String, String> fileContentsBeforeTrimmed = new HashMap<>(fileContentsBefore);
-        Map<String, String> fileContentsCurrentTrimmed = new HashMap<>(fileContentsCurrent);
-        List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = GitHistoryRefactoringMinerImpl.processIdenticalFiles(fileContentsBeforeTrimmed, fileContentsCurrentTrimmed, renamedFilesHint, false);
+        LazyFileContents fileContentsBeforeTrimmed = fileContentsBefore.copy();
+        LazyFileContents fileContentsCurrentTrimmed = fileContentsCurrent.copy();
+        List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBeforeTrimmed, fileContentsCurrentTrimmed, renamedFilesHint);
         long commitTime = currentCommit.getCommitTime();
         long authoredTime = currentCommit.getAuthorIdent().getWhen().getTime() / 1000L;
         String commitAuthorName = currentCommit.getAuthorIdent().getName();
         return new CommitModel(parentCommit1.getId().getName(), repositoryDirectoriesBefore, fileContentsBefore, fileContentsBeforeTrimmed, repositoryDirectoriesCurrent, fileContentsCurrent, fileContentsCurrentTrimmed, renamedFilesHint, moveSourceFolderRefactorings,
         		commitTime, authoredTime, commitAuthorName);
     }
+
+    /**
+     * Trims the files identical in the parent commit and the commit like
+     * {@code GitHistoryRefactoringMinerImpl.processIdenticalFiles}, comparing the files by blob id. Only the files
+     * compared with a file of another blob are read, since the miner still tells whether they differ by comments only;
+     * the other files are passed to the miner as the names of their blobs, which are equal if and only if their
+     * contents are.
+     */
+    private static List<MoveSourceFolderRefactoring> processIdenticalFiles(LazyFileContents fileContentsBefore, LazyFileContents fileContentsCurrent, Map<String, String> renamedFilesHint) {
+        Set<String> filePathsToReadBefore = new HashSet<>();
+        Set<String> filePathsToReadCurrent = new HashSet<>();
+        // a file compared with a file read is read too, so that contents are never compared with blob names
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (String filePathBefore : fileContentsBefore.keySet()) {
+                for (String filePathCurrent : Arrays.asList(renamedFilesHint.get(filePathBefore), filePathBefore)) {
+                    if (filePathCurrent == null || !fileContentsCurrent.containsKey(filePathCurrent))
+                        continue;
+                    if (filePathsToReadBefore.contains(filePathBefore) || filePathsToReadCurrent.contains(filePathCurrent)
+                            || !fileContentsBefore.getBlobId(filePathBefore).equals(fileContentsCurrent.getBlobId(filePathCurrent))) {
+                        changed |= filePathsToReadBefore.add(filePathBefore);
+                        changed |= filePathsToReadCurrent.add(filePathCurrent);
+                    }
+                }
+            }
+        }
+        Map<String, String> blobsOrContentsBefore = blobsOrContents(fileContentsBefore, filePathsToReadBefore);
+        Map<String, String> blobsOrContentsCurrent = blobsOrContents(fileContentsCurrent, filePathsToReadCurrent);
+        List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = GitHistoryRefactoringMinerImpl.processIdenticalFiles(blobsOrContentsBefore, blobsOrContentsCurrent, renamedFilesHint, false);
+        fileContentsBefore.keySet().retainAll(blobsOrContentsBefore.keySet());
+        fileContentsCurrent.keySet().retainAll(blobsOrContentsCurrent.keySet());
+        return moveSourceFolderRefactorings;
+    }
+
+    private static Map<String, String> blobsOrContents(LazyFileContents fileContents, Set<String> filePathsToRead) {
+        Map<String, String> blobsOrContents = new LinkedHashMap<>();
+        for (String filePath : fileContents.keySet())
+            blobsOrContents.put(filePath, filePathsToRead.contains(filePath) ? fileContents.get(filePath) : fileContents.getBlobId(filePath).getName());
+        return blobsOrContents;
+    }
+
+    @FunctionalInterface
+    private interface Differ<E extends Exception> {
+        UMLModelDiff diff() throws E;
+    }
+
+    private static final class TakenModel {
+        private final String filePath;
+        private final ObjectId blobId;
+        private final UMLModel umlModel;
+        private final long weight;
+
+        private TakenModel(String filePath, ObjectId blobId, UMLModel umlModel, long weight) {
+            this.filePath = filePath;
+            this.blobId = blobId.copy();
+            this.umlModel = umlModel;
+            this.weight = weight;
+        }
+    }
+
+    private static final class TakenDiff {
+        private final UMLModel leftModel;
+        private final UMLModel rightModel;
+        private final UMLModelDiff umlModelDiff;
+
+        private TakenDiff(UMLModel leftModel, UMLModel rightModel, UMLModelDiff umlModelDiff) {
+            this.leftModel = leftModel;
+            this.rightModel = rightModel;
+            this.umlModelDiff = umlModelDiff;
+        }
+    }
+
     /*
     private static final String REPOS = System.getProperty("user.dir") + "/oracle/commits";
     protected void populateWithGitHubAPIAndSaveFiles(Repository repository, String commitId) throws IOException, InterruptedException {
@@ -0,0 +1,118 @@
+package org.codetracker;
+
+import org.codetracker.api.BatchMethodTracker;
+import org.codetracker.api.History;
+import org.codetracker.element.Method;
+import org.codetracker.util.FileHistoryWalker;
+import org.eclipse.jgit.lib.Repository;
+
+import java.util.*;
+
+/**
+ * Tracks the selected methods in a single walk over the commits modifying the file: each commit is analysed for all
+ * the methods still in the file before going on to the next one, so that the models of the file at the commit and at
+ * its parent are parsed, or prefetched, once and reused by all of them while still cached. A method leaves the walk
+ * when it is added, or moves to another file, and its {@link MethodTrackerImpl} then goes on by itself from there.
+ */
+public class BatchMethodTrackerImpl implements BatchMethodTracker {
+    private final TrackingSession session;
+    private final boolean sharedSession;
+    private final String startCommitId;
+    private final String filePath;
+    private final List<MethodSelector> methods;
+
+    public BatchMethodTrackerImpl(Repository repository, String startCommitId, String filePath, List<MethodSelector> methods) {
+        this(TrackingSession.builder(repository).build(), startCommitId, filePath, methods, false);
+    }
+
+    /**
+     * Creates a batch using the caches, stores and pools of the session, and walking the history with the walker the
+     * session keeps for the thread running it.
+     */
+    public BatchMethodTrackerImpl(TrackingSession session, String startCommitId, String filePath, List<MethodSelector> methods) {
+        this(session, startCommitId, filePath, methods, true);
+    }
+
+    private BatchMethodTrackerImpl(TrackingSession session, String startCommitId, String filePath, List<MethodSelector> methods, boolean sharedSession) {
+        this.session = session;
+        this.sharedSession = sharedSession;
+        this.startCommitId = startCommitId;
+        this.filePath = filePath;
+        this.methods = methods;
+    }
+
+    private FileHistoryWalker newFileHistoryWalker() {
+        if (sharedSession)
+            return FileHistoryWalker.view(session.getFileHistoryWalker());
+        return new FileHistoryWalker(session.getRepository(), session.getCommitGraphIndex());
+    }
+
+    @Override
+    public Map<MethodSelector, History<Method>> track() throws Exception {
+        Map<MethodSelector, History<Method>> histories = new LinkedHashMap<>();
+        if (methods.isEmpty())
+            return histories;
+        List<MethodTrackerImpl> trackers = new ArrayList<>();
+        List<Method> starts = new ArrayList<>();
+        List<HistoryImpl.HistoryReportImpl> historyReports = new ArrayList<>();
+        try (FileHistoryWalker historyWalker = newFileHistoryWalker()) {
+            for (MethodSelector method : methods) {
+                MethodTrackerImpl methodTracker = new MethodTrackerImpl(session, startCommitId, filePath,
+                        method.getMethodName(), method.getMethodDeclarationLineNumber());
+                methodTracker.setSharedFileHistoryWalker(historyWalker);
+                if (!trackers.isEmpty())
+                    methodTracker.shareModelsWith(trackers.get(0));
+                trackers.add(methodTracker);
+                starts.add(methodTracker.startTracking());
+                historyReports.add(new HistoryImpl.HistoryReportImpl());
+            }
+            MethodTrackerImpl lead = trackers.get(0);
+            try {
+                List<String> commits = historyWalker.getCommits(startCommitId, filePath);
+                Map<Integer, Method> currentMethods = new LinkedHashMap<>();
+                Map<Integer, Set<String>> analysedCommitsOnLeave = new HashMap<>();
+                for (int i = 0; i < trackers.size(); i++) {
+                    currentMethods.put(i, trackers.get(i).pollQueued());
+                    historyReports.get(i).gitLogCommandCallsPlusPlus();
+                }
+                Set<String> analysedCommits = new HashSet<>();
+                // the commits the skeletons tell did not change any of the methods are not prefetched
+                List<String> prefetchingCommits = lead.prefetching(commits, filePath, commitId -> {
+                    for (Method currentMethod : currentMethods.values()) {
+                        if (!lead.isUnchangedInSkeletons(currentMethod, commitId, filePath))
+                            return false;
+                    }
+                    return !currentMethods.isEmpty();
+                });
+                for (String commitId : prefetchingCommits) {
+                    if (currentMethods.isEmpty())
+                        break;
+                    analysedCommits.add(commitId);
+                    for (Iterator<Map.Entry<Integer, Method>> it = currentMethods.entrySet().iterator(); it.hasNext(); ) {
+                        Map.Entry<Integer, Method> entry = it.next();
+                        int i = entry.getKey();
+                        Method currentMethod = trackers.get(i).analyseCommit(commitId, entry.getValue(), filePath, historyReports.get(i));
+                        if (currentMethod == null) {
+                            it.remove();
+                            analysedCommitsOnLeave.put(i, new HashSet<>(analysedCommits));
+                        }
+                        else {
+                            entry.setValue(currentMethod);
+                        }
+                    }
+                }
+                for (Integer i : currentMethods.keySet())
+                    analysedCommitsOnLeave.put(i, new HashSet<>(analysedCommits));
+                for (int i = 0; i < trackers.size(); i++) {
+                    MethodTrackerImpl methodTracker = trackers.get(i);
+                    methodTracker.trackQueued(historyWalker, historyReports.get(i), commits, filePath, analysedCommitsOnLeave.get(i));
+                    histories.put(methods.get(i), methodTracker.finishTracking(historyWalker, starts.get(i), historyReports.get(i)));
+                }
+            }
+            finally {
+                lead.releaseModels();
+            }
+        }
+        return histories;
+    }
+}
@@ -11,7 +11,7 @@ import org.codetracker.api.History;
 import org.codetracker.api.Version;
 import org.codetracker.element.Block;
 import org.codetracker.element.Method;
-import org.eclipse.jgit.api.Git;
+import org.codetracker.util.FileHistoryWalker;
 import org.eclipse.jgit.lib.Repository;
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringType;
@@ -31,10 +31,18 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
         this.blameLineNumber = blameLineNumber;
     }
 
+    public BlockTrackerImpl(TrackingSession session, String startCommitId, String filePath,
+                            String methodName, int methodDeclarationLineNumber,
+                            CodeElementType blockType, int blockStartLineNumber, int blockEndLineNumber, int blameLineNumber) {
+        super(session, startCommitId, filePath);
+        this.changeHistory = new BlockTrackerChangeHistory(methodName, methodDeclarationLineNumber, blockType, blockStartLineNumber, blockEndLineNumber);
+        this.blameLineNumber = blameLineNumber;
+    }
+
     @Override
     public History<Block> track() throws Exception {
         HistoryImpl.HistoryReportImpl historyReport = new HistoryImpl.HistoryReportImpl();
-        try (Git git = new Git(repository)) {
+        try (FileHistoryWalker historyWalker = newFileHistoryWalker()) {
             Version startVersion = gitRepository.getVersion(startCommitId);
             UMLModel umlModel = getUMLModel(startCommitId, Collections.singleton(filePath));
             Method startMethod = getMethod(umlModel, startVersion, changeHistory::isStartMethod);
@@ -59,7 +67,7 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                 }
                 if (commits == null || !currentBlock.getFilePath().equals(lastFileName)) {
                     lastFileName = currentBlock.getFilePath();
-                    commits = getCommits(repository, currentBlock.getVersion().getId(), currentBlock.getFilePath(), git);
+                    commits = prefetching(historyWalker.getCommits(currentBlock.getVersion().getId(), currentBlock.getFilePath()), currentBlock.getFilePath());
                     historyReport.gitLogCommandCallsPlusPlus();
                     analysedCommits.clear();
                 }
@@ -75,7 +83,7 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                     Version parentVersion = gitRepository.getVersion(parentCommitId);
                     Method currentMethod = Method.of(currentBlock.getOperation(), currentVersion);
                     UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentMethod.getFilePath()));
-                    Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+                    Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
                     if (rightMethod == null) {
                         continue;
                     }
@@ -96,15 +104,15 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                         changeHistory.add(leftBlock);
                         break;
                     }
-                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(currentMethod.getFilePath()));
+                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, currentMethod.getFilePath(), rightModel);
                     //NO CHANGE
-                    Method leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+                    Method leftMethod = getMethodWithIdentifier(leftModel, parentVersion, rightMethod);
                     if (leftMethod != null) {
                         historyReport.step2PlusPlus();
                         continue;
                     }
                     //CHANGE BODY OR DOCUMENT
-                    leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndDocumentAndBody);
+                    leftMethod = getMethodWithIdentifierIgnoringDocumentAndBody(leftModel, parentVersion, rightMethod);
                     //check if there is another method in leftModel with identical bodyHashCode to the rightMethod
                     boolean otherExactMatchFound = false;
                     if (leftMethod != null) {
@@ -143,7 +151,7 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                             break;
                         }
                     }
-                    UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
+                    UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, currentMethod.getFilePath(), leftModel, rightModel);
                     {
                         //Local Refactoring
                         List<Refactoring> refactorings = umlModelDiffLocal.getRefactorings();
@@ -227,8 +235,8 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                         }
                         {
                             Set<String> fileNames = getRightSideFileNames(currentMethod, commitModel, umlModelDiffLocal);
-                            Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, currentMethod.getFilePath(), fileNames::contains, false);
-                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                            boolean refactoringsStored = addStoredOriginalFilePaths(commitId, commitModel, currentMethod.getFilePath(), fileNames, rightMethod);
+                            UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentMethod.getFilePath(), fileNames);
 
                             Set<Refactoring> moveRenameClassRefactorings = umlModelDiffAll.getMoveRenameClassRefactorings();
                             UMLClassBaseDiff classDiff = umlModelDiffAll.getUMLClassDiff(rightMethodClassName);
@@ -259,6 +267,8 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                                 }
                             }
                             List<Refactoring> refactorings = umlModelDiffAll.getRefactorings();
+                            if (!refactoringsStored)
+                                storeRefactorings(commitId, commitModel, currentMethod.getFilePath(), fileNames, refactorings, currentVersion);
                             boolean flag = false;
                             for (Refactoring refactoring : refactorings) {
                                 if (RefactoringType.MOVE_AND_RENAME_OPERATION.equals(refactoring.getRefactoringType()) || RefactoringType.MOVE_OPERATION.equals(refactoring.getRefactoringType())) {
@@ -271,8 +281,7 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                                 }
                             }
                             if (flag) {
-                                umlModelPairAll = getUMLModelPair(commitModel, currentMethod.getFilePath(), fileNames::contains, false);
-                                umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                                umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentMethod.getFilePath(), fileNames);
                                 refactorings = umlModelDiffAll.getRefactorings();
                             }
 
@@ -319,12 +328,14 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                 }
             }
             return new HistoryImpl<>(changeHistory.get().getCompleteGraph(), historyReport);
+        } finally {
+            releaseModels();
         }
     }
 
     public History.HistoryInfo<Block> blame() throws Exception {
         HistoryImpl.HistoryReportImpl historyReport = new HistoryImpl.HistoryReportImpl();
-        try (Git git = new Git(repository)) {
+        try (FileHistoryWalker historyWalker = newFileHistoryWalker()) {
             Version startVersion = gitRepository.getVersion(startCommitId);
             UMLModel umlModel = getUMLModel(startCommitId, Collections.singleton(filePath));
             Method startMethod = getMethod(umlModel, startVersion, changeHistory::isStartMethod);
@@ -354,7 +365,7 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                 }
                 if (commits == null || !currentBlock.getFilePath().equals(lastFileName)) {
                     lastFileName = currentBlock.getFilePath();
-                    commits = getCommits(repository, currentBlock.getVersion().getId(), currentBlock.getFilePath(), git);
+                    commits = prefetching(historyWalker.getCommits(currentBlock.getVersion().getId(), currentBlock.getFilePath()), currentBlock.getFilePath());
                     historyReport.gitLogCommandCallsPlusPlus();
                     analysedCommits.clear();
                 }
@@ -370,7 +381,7 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                     Version parentVersion = gitRepository.getVersion(parentCommitId);
                     Method currentMethod = Method.of(currentBlock.getOperation(), currentVersion);
                     UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentMethod.getFilePath()));
-                    Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+                    Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
                     if (rightMethod == null) {
                         continue;
                     }
@@ -391,15 +402,15 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                         changeHistory.add(leftBlock);
                         break;
                     }
-                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(currentMethod.getFilePath()));
+                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, currentMethod.getFilePath(), rightModel);
                     //NO CHANGE
-                    Method leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+                    Method leftMethod = getMethodWithIdentifier(leftModel, parentVersion, rightMethod);
                     if (leftMethod != null) {
                         historyReport.step2PlusPlus();
                         continue;
                     }
                     //CHANGE BODY OR DOCUMENT
-                    leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndDocumentAndBody);
+                    leftMethod = getMethodWithIdentifierIgnoringDocumentAndBody(leftModel, parentVersion, rightMethod);
                     //check if there is another method in leftModel with identical bodyHashCode to the rightMethod
                     boolean otherExactMatchFound = false;
                     if (leftMethod != null) {
@@ -438,7 +449,7 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                             break;
                         }
                     }
-                    UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
+                    UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, currentMethod.getFilePath(), leftModel, rightModel);
                     {
                         //Local Refactoring
                         List<Refactoring> refactorings = umlModelDiffLocal.getRefactorings();
@@ -522,8 +533,8 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                         }
                         {
                             Set<String> fileNames = getRightSideFileNames(currentMethod, commitModel, umlModelDiffLocal);
-                            Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, currentMethod.getFilePath(), fileNames::contains, false);
-                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                            boolean refactoringsStored = addStoredOriginalFilePaths(commitId, commitModel, currentMethod.getFilePath(), fileNames, rightMethod);
+                            UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentMethod.getFilePath(), fileNames);
 
                             Set<Refactoring> moveRenameClassRefactorings = umlModelDiffAll.getMoveRenameClassRefactorings();
                             UMLClassBaseDiff classDiff = umlModelDiffAll.getUMLClassDiff(rightMethodClassName);
@@ -554,6 +565,8 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                                 }
                             }
                             List<Refactoring> refactorings = umlModelDiffAll.getRefactorings();
+                            if (!refactoringsStored)
+                                storeRefactorings(commitId, commitModel, currentMethod.getFilePath(), fileNames, refactorings, currentVersion);
                             boolean flag = false;
                             for (Refactoring refactoring : refactorings) {
                                 if (RefactoringType.MOVE_AND_RENAME_OPERATION.equals(refactoring.getRefactoringType()) || RefactoringType.MOVE_OPERATION.equals(refactoring.getRefactoringType())) {
@@ -566,8 +579,7 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                                 }
                             }
                             if (flag) {
-                                umlModelPairAll = getUMLModelPair(commitModel, currentMethod.getFilePath(), fileNames::contains, false);
-                                umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                                umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentMethod.getFilePath(), fileNames);
                                 refactorings = umlModelDiffAll.getRefactorings();
                             }
 
@@ -613,6 +625,8 @@ public class BlockTrackerImpl extends BaseTracker implements BlockTracker {
                     }
                 }
             }
+        } finally {
+            releaseModels();
         }
         return null;
     }
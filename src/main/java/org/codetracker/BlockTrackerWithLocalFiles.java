@@ -105,7 +105,7 @@ public class BlockTrackerWithLocalFiles extends BaseTrackerWithLocalFiles implem
             	UMLModel rightModel = GitHistoryRefactoringMinerImpl.createModel(lightCommitModel.fileContentsCurrentOriginal, lightCommitModel.repositoryDirectoriesCurrent);
             	rightModel.setPartial(true);
                 Method currentMethod = Method.of(currentBlock.getOperation(), currentVersion);
-                Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+                Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
                 if (rightMethod == null) {
                     continue;
                 }
@@ -127,13 +127,13 @@ public class BlockTrackerWithLocalFiles extends BaseTrackerWithLocalFiles implem
                     break;
                 }
                 //NO CHANGE
-                Method leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+                Method leftMethod = getMethodWithIdentifier(leftModel, parentVersion, rightMethod);
                 if (leftMethod != null) {
                     historyReport.step2PlusPlus();
                     continue;
                 }
                 //CHANGE BODY OR DOCUMENT
-                leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndDocumentAndBody);
+                leftMethod = getMethodWithIdentifierIgnoringDocumentAndBody(leftModel, parentVersion, rightMethod);
                 //check if there is another method in leftModel with identical bodyHashCode to the rightMethod
                 boolean otherExactMatchFound = false;
                 if (leftMethod != null) {
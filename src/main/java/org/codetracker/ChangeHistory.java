@@ -7,22 +7,57 @@ import org.codetracker.api.Graph;
 import org.codetracker.change.AbstractChange;
 import org.codetracker.change.ChangeFactory;
 import org.codetracker.change.EdgeImpl;
+import org.codetracker.change.StoredChange;
 import org.codetracker.element.BaseCodeElement;
+import org.codetracker.util.HistoryStore;
 
 import java.util.*;
+import java.util.function.Function;
 
 public class ChangeHistory<T extends BaseCodeElement> {
     private final MutableValueGraph<T, Edge> changeHistoryGraph = ValueGraphBuilder.directed().allowsSelfLoops(false).build();
 
-    private void addCodeElementToMap(String name, T codeElement, HashMap<String, Set<T>> elementsMap) {
-        Set<T> codeElements;
-        if (elementsMap.containsKey(name)) {
-            codeElements = elementsMap.get(name);
-        } else {
-            codeElements = new HashSet<>();
-            elementsMap.put(name, codeElements);
+    /**
+     * Nodes without predecessors and nodes without successors, by identifier ignoring version. They are kept up to
+     * date as nodes and edges are added, so that {@link #connectRelatedNodes()} does not scan the whole graph.
+     */
+    private final Map<String, Set<T>> rootsByIdentifier = new HashMap<>();
+    private final Map<String, Set<T>> leavesByIdentifier = new HashMap<>();
+    private final Set<String> changedIdentifiers = new LinkedHashSet<>();
+
+    private static <T> void addToMap(String identifier, T codeElement, Map<String, Set<T>> elementsMap) {
+        elementsMap.computeIfAbsent(identifier, k -> new HashSet<>()).add(codeElement);
+    }
+
+    private static <T> void removeFromMap(String identifier, T codeElement, Map<String, Set<T>> elementsMap) {
+        Set<T> codeElements = elementsMap.get(identifier);
+        if (codeElements != null && codeElements.remove(codeElement) && codeElements.isEmpty())
+            elementsMap.remove(identifier);
+    }
+
+    private void nodeAdded(T codeElement) {
+        String identifier = codeElement.getIdentifierIgnoringVersion();
+        addToMap(identifier, codeElement, rootsByIdentifier);
+        addToMap(identifier, codeElement, leavesByIdentifier);
+        changedIdentifiers.add(identifier);
+    }
+
+    private void putEdge(T leftSide, T rightSide, Edge edge, boolean markChanged) {
+        boolean newLeftSide = !changeHistoryGraph.nodes().contains(leftSide);
+        boolean newRightSide = !changeHistoryGraph.nodes().contains(rightSide);
+        changeHistoryGraph.putEdgeValue(leftSide, rightSide, edge);
+        if (newLeftSide)
+            nodeAdded(leftSide);
+        if (newRightSide)
+            nodeAdded(rightSide);
+        String leftIdentifier = leftSide.getIdentifierIgnoringVersion();
+        String rightIdentifier = rightSide.getIdentifierIgnoringVersion();
+        removeFromMap(leftIdentifier, leftSide, leavesByIdentifier);
+        removeFromMap(rightIdentifier, rightSide, rootsByIdentifier);
+        if (markChanged) {
+            changedIdentifiers.add(leftIdentifier);
+            changedIdentifiers.add(rightIdentifier);
         }
-        codeElements.add(codeElement);
     }
 
     public void addChange(T leftSide, T rightSide, ChangeFactory changeFactory) {
@@ -35,7 +70,7 @@ public class ChangeHistory<T extends BaseCodeElement> {
             EdgeImpl edge = (EdgeImpl) edgeValue.get();
             edge.addChange(Objects.requireNonNull(changeFactory.build()));
         } else {
-            changeHistoryGraph.putEdgeValue(leftSide, rightSide, changeFactory.asEdge());
+            putEdge(leftSide, rightSide, changeFactory.asEdge(), true);
         }
     }
 
@@ -44,64 +79,67 @@ public class ChangeHistory<T extends BaseCodeElement> {
     }
 
     public T addNode(T codeElement) {
-        changeHistoryGraph.addNode(codeElement);
+        if (changeHistoryGraph.addNode(codeElement))
+            nodeAdded(codeElement);
         return codeElement;
     }
 
+    /**
+     * Connects, with a NO_CHANGE edge, each leaf to the oldest root with the same identifier ignoring version found in
+     * another commit. Only the identifiers whose roots or leaves changed since the last call are matched again, as the
+     * others cannot produce new edges.
+     */
     public void connectRelatedNodes() {
-        HashMap<String, Set<T>> leafElementsByIdentifier = new HashMap<>();
-        HashMap<String, Set<T>> rootElementByIdentifier = new HashMap<>();
-
-        HashMap<String, Set<T>> leafElementsByName = new HashMap<>();
-        HashMap<String, Set<T>> rootElementByName = new HashMap<>();
-        for (T node : changeHistoryGraph.nodes()) {
-            if (changeHistoryGraph.predecessors(node).isEmpty() && !node.isAdded()) {
-                addCodeElementToMap(node.getIdentifierIgnoringVersion(), node, rootElementByIdentifier);
-                addCodeElementToMap(node.getName(), node, rootElementByName);
+        List<String> identifiers = new ArrayList<>(changedIdentifiers);
+        changedIdentifiers.clear();
+        for (String identifier : identifiers) {
+            Set<T> leafCodeElements = leavesByIdentifier.get(identifier);
+            Set<T> rootCodeElements = rootsByIdentifier.get(identifier);
+            if (leafCodeElements == null || rootCodeElements == null)
+                continue;
+            Set<T> leaves = new HashSet<>();
+            for (T node : leafCodeElements) {
+                if (!node.isRemoved() && !node.isStart())
+                    leaves.add(node);
             }
-            if (changeHistoryGraph.successors(node).isEmpty() && !node.isRemoved() && !node.isStart()) {
-                addCodeElementToMap(node.getIdentifierIgnoringVersion(), node, leafElementsByIdentifier);
-                addCodeElementToMap(node.getName(), node, leafElementsByName);
+            Set<T> roots = new HashSet<>();
+            for (T node : rootCodeElements) {
+                if (!node.isAdded())
+                    roots.add(node);
             }
+            if (!leaves.isEmpty() && !roots.isEmpty())
+                matchElements(leaves, roots);
         }
-        matchElements(leafElementsByIdentifier, rootElementByIdentifier);
-//        matchElements(leafElementsByName, rootElementByName);
     }
 
-    private void matchElements(HashMap<String, Set<T>> leafElements, HashMap<String, Set<T>> rootElement) {
-        for (Map.Entry<String, Set<T>> leafEntry : leafElements.entrySet()) {
-            if (!rootElement.containsKey(leafEntry.getKey())) {
+    private void matchElements(Set<T> leafCodeElements, Set<T> rootCodeElements) {
+        List<T> leafCodeElementsList = new ArrayList<>(leafCodeElements);
+        leafCodeElementsList.sort((o1, o2) -> Long.compare(o2.getVersion().getTime(), o1.getVersion().getTime()));
+        for (T leafCodeElement : leafCodeElementsList) {
+            if (!changeHistoryGraph.successors(leafCodeElement).isEmpty() || leafCodeElement.isRemoved()) {
                 continue;
             }
-            List<T> leafCodeElementsList = new ArrayList<>(leafEntry.getValue());
-            leafCodeElementsList.sort((o1, o2) -> Long.compare(o2.getVersion().getTime(), o1.getVersion().getTime()));
-            Set<T> rootCodeElements = rootElement.get(leafEntry.getKey());
-            for (T leafCodeElement : leafCodeElementsList) {
-                if (!changeHistoryGraph.successors(leafCodeElement).isEmpty() || leafCodeElement.isRemoved()) {
+            List<T> matched = new ArrayList<>();
+            for (T rootCodeElement : rootCodeElements) {
+                if (!changeHistoryGraph.predecessors(rootCodeElement).isEmpty() && rootCodeElement.isAdded()) {
                     continue;
                 }
-                List<T> matched = new ArrayList<>();
-                for (T rootCodeElement : rootCodeElements) {
-                    if (!changeHistoryGraph.predecessors(rootCodeElement).isEmpty() && rootCodeElement.isAdded()) {
-                        continue;
-                    }
-                    if (!rootCodeElement.getVersion().getId().equals(leafCodeElement.getVersion().getId())) {
-                        matched.add(rootCodeElement);
-                    }
-                }
-                if (!matched.isEmpty()) {
-                    matched.sort(Comparator.comparingLong(o -> o.getVersion().getTime()));
-                    changeHistoryGraph.putEdgeValue(leafCodeElement, matched.get(0), ChangeFactory.of(AbstractChange.Type.NO_CHANGE).asEdge());
-                    rootCodeElements.remove(matched.get(0));
+                if (!rootCodeElement.getVersion().getId().equals(leafCodeElement.getVersion().getId())) {
+                    matched.add(rootCodeElement);
                 }
             }
+            if (!matched.isEmpty()) {
+                matched.sort(Comparator.comparingLong(o -> o.getVersion().getTime()));
+                putEdge(leafCodeElement, matched.get(0), ChangeFactory.of(AbstractChange.Type.NO_CHANGE).asEdge(), false);
+                rootCodeElements.remove(matched.get(0));
+            }
         }
     }
 
     public void handleRemoved(T leftSide, T rightSide) {
         if (leftSide == null || rightSide == null)
             return;
-        changeHistoryGraph.addNode(leftSide);
+        addNode(leftSide);
         if (!changeHistoryGraph.successors(leftSide).isEmpty())
             return;
         rightSide.setRemoved(true);
@@ -115,13 +153,50 @@ public class ChangeHistory<T extends BaseCodeElement> {
     public void handleAdd(T leftSide, T rightSide, String comment) {
         if (leftSide == null || rightSide == null)
             return;
-        changeHistoryGraph.addNode(rightSide);
+        addNode(rightSide);
         //if (!changeHistoryGraph.predecessors(rightSide).isEmpty())
         //    return;
         leftSide.setAdded(true);
         addChange(leftSide, rightSide, ChangeFactory.of(AbstractChange.Type.INTRODUCED).comment(comment).codeElement(rightSide));
     }
 
+    /**
+     * Adds the nodes and edges of a stored history, restoring its nodes with {@code resolver}, its start node first.
+     * Its start node is then connected to the history being built by {@link #connectRelatedNodes()}.
+     * The changes are added as {@link StoredChange}s.
+     *
+     * @return false, without adding anything, if a node cannot be restored
+     */
+    public boolean addStoredHistory(HistoryStore.StoredHistory storedHistory, Function<HistoryStore.Node, T> resolver) {
+        List<HistoryStore.Node> storedNodes = storedHistory.getNodes();
+        List<T> nodes = new ArrayList<>(Collections.nCopies(storedNodes.size(), null));
+        T start = resolver.apply(storedNodes.get(storedHistory.getStart()));
+        if (start == null)
+            return false;
+        nodes.set(storedHistory.getStart(), start);
+        for (int i = 0; i < storedNodes.size(); i++) {
+            if (i == storedHistory.getStart())
+                continue;
+            T codeElement = resolver.apply(storedNodes.get(i));
+            if (codeElement == null)
+                return false;
+            nodes.set(i, codeElement);
+        }
+        for (T codeElement : nodes)
+            addNode(codeElement);
+        for (HistoryStore.StoredEdge storedEdge : storedHistory.getEdges()) {
+            EdgeImpl edge = new EdgeImpl();
+            for (HistoryStore.StoredEdge.ChangeRecord change : storedEdge.getChanges()) {
+                if (AbstractChange.Type.NO_CHANGE.equals(change.getType()))
+                    edge = (EdgeImpl) ChangeFactory.of(AbstractChange.Type.NO_CHANGE).asEdge();
+                else
+                    edge.addChange(new StoredChange(change.getType(), change.getDescription(), change.getRefactoringType()));
+            }
+            putEdge(nodes.get(storedEdge.getSource()), nodes.get(storedEdge.getTarget()), edge, true);
+        }
+        return true;
+    }
+
     public Graph<T, Edge> findSubGraph(T start) {
         return GraphImpl.subGraph(changeHistoryGraph, start);
     }
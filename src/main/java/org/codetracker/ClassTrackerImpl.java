@@ -12,7 +12,7 @@ import org.codetracker.change.Change;
 import org.codetracker.change.ChangeFactory;
 import org.codetracker.element.Class;
 import org.codetracker.element.Package;
-import org.eclipse.jgit.api.Git;
+import org.codetracker.util.FileHistoryWalker;
 import org.eclipse.jgit.lib.Repository;
 import org.refactoringminer.api.Refactoring;
 
@@ -26,10 +26,15 @@ public class ClassTrackerImpl extends BaseTracker implements ClassTracker {
         this.changeHistory = new ClassTrackerChangeHistory(className, classDeclarationLineNumber);
     }
 
+    public ClassTrackerImpl(TrackingSession session, String startCommitId, String filePath, String className, int classDeclarationLineNumber) {
+        super(session, startCommitId, filePath);
+        this.changeHistory = new ClassTrackerChangeHistory(className, classDeclarationLineNumber);
+    }
+
     @Override
     public History<Class> track() throws Exception {
         HistoryImpl.HistoryReportImpl historyReport = new HistoryImpl.HistoryReportImpl();
-        try (Git git = new Git(repository)) {
+        try (FileHistoryWalker historyWalker = newFileHistoryWalker()) {
             Version startVersion = gitRepository.getVersion(startCommitId);
             UMLModel umlModel = getUMLModel(startCommitId, Collections.singleton(filePath));
             Class start = getClass(umlModel, startVersion, changeHistory::isStartClass);
@@ -51,7 +56,7 @@ public class ClassTrackerImpl extends BaseTracker implements ClassTracker {
                 }
                 if (commits == null || !currentClass.getFilePath().equals(lastFileName)) {
                     lastFileName = currentClass.getFilePath();
-                    commits = getCommits(repository, currentClass.getVersion().getId(), lastFileName, git);
+                    commits = prefetching(historyWalker.getCommits(currentClass.getVersion().getId(), lastFileName), lastFileName);
                     historyReport.gitLogCommandCallsPlusPlus();
                     analysedCommits.clear();
                 }
@@ -68,7 +73,7 @@ public class ClassTrackerImpl extends BaseTracker implements ClassTracker {
 
 
                     UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentClass.getFilePath()));
-                    Class rightClass = getClass(rightModel, currentVersion, currentClass::equalIdentifierIgnoringVersion);
+                    Class rightClass = getClassWithIdentifier(rightModel, currentVersion, currentClass);
                     if (rightClass == null) {
                         continue;
                     }
@@ -80,10 +85,10 @@ public class ClassTrackerImpl extends BaseTracker implements ClassTracker {
                         changeHistory.add(leftClass);
                         break;
                     }
-                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(rightClass.getFilePath()));
+                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, rightClass.getFilePath(), rightModel);
 
                     //NO CHANGE
-                    Class leftClass = getClass(leftModel, parentVersion, rightClass::equalIdentifierIgnoringVersion);
+                    Class leftClass = getClassWithIdentifier(leftModel, parentVersion, rightClass);
                     if (leftClass != null) {
                     	UMLType leftSuperclass = leftClass.getUmlClass().getSuperclass();
 						UMLType rightSuperclass = rightClass.getUmlClass().getSuperclass();
@@ -141,8 +146,7 @@ public class ClassTrackerImpl extends BaseTracker implements ClassTracker {
                         }
                         {
 //                            Set<String> fileNames = getRightSideFileNames(rightClass.getFilePath(), rightClass.getUmlClass().getName(), Collections.emptySet(), commitModel, umlModelDiffLocal);
-                            Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, rightClass.getFilePath(), s -> true, false);
-                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                            UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, rightClass.getFilePath(), null);
 
                             List<Refactoring> refactorings = umlModelDiffAll.getRefactorings();
 
@@ -164,12 +168,14 @@ public class ClassTrackerImpl extends BaseTracker implements ClassTracker {
                 }
             }
             return new HistoryImpl<>(changeHistory.get().getCompleteGraph(), historyReport);
+        } finally {
+            releaseModels();
         }
     }
 
     public HistoryInfo<Class> blame() throws Exception {
         HistoryImpl.HistoryReportImpl historyReport = new HistoryImpl.HistoryReportImpl();
-        try (Git git = new Git(repository)) {
+        try (FileHistoryWalker historyWalker = newFileHistoryWalker()) {
             Version startVersion = gitRepository.getVersion(startCommitId);
             UMLModel umlModel = getUMLModel(startCommitId, Collections.singleton(filePath));
             Class startClass = getClass(umlModel, startVersion, changeHistory::isStartClass);
@@ -195,7 +201,7 @@ public class ClassTrackerImpl extends BaseTracker implements ClassTracker {
                 }
                 if (commits == null || !currentClass.getFilePath().equals(lastFileName)) {
                     lastFileName = currentClass.getFilePath();
-                    commits = getCommits(repository, currentClass.getVersion().getId(), lastFileName, git);
+                    commits = prefetching(historyWalker.getCommits(currentClass.getVersion().getId(), lastFileName), lastFileName);
                     historyReport.gitLogCommandCallsPlusPlus();
                     analysedCommits.clear();
                 }
@@ -212,7 +218,7 @@ public class ClassTrackerImpl extends BaseTracker implements ClassTracker {
 
 
                     UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentClass.getFilePath()));
-                    Class rightClass = getClass(rightModel, currentVersion, currentClass::equalIdentifierIgnoringVersion);
+                    Class rightClass = getClassWithIdentifier(rightModel, currentVersion, currentClass);
                     if (rightClass == null) {
                         continue;
                     }
@@ -224,10 +230,10 @@ public class ClassTrackerImpl extends BaseTracker implements ClassTracker {
                         changeHistory.add(leftClass);
                         break;
                     }
-                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(rightClass.getFilePath()));
+                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, rightClass.getFilePath(), rightModel);
 
                     //NO CHANGE
-                    Class leftClass = getClass(leftModel, parentVersion, rightClass::equalIdentifierIgnoringVersion);
+                    Class leftClass = getClassWithIdentifier(leftModel, parentVersion, rightClass);
                     if (leftClass != null) {
                     	UMLType leftSuperclass = leftClass.getUmlClass().getSuperclass();
 						UMLType rightSuperclass = rightClass.getUmlClass().getSuperclass();
@@ -270,8 +276,7 @@ public class ClassTrackerImpl extends BaseTracker implements ClassTracker {
                             }
                         }
                         {
-                            Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, rightClass.getFilePath(), s -> true, false);
-                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                            UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, rightClass.getFilePath(), null);
 
                             List<Refactoring> refactorings = umlModelDiffAll.getRefactorings();
 
@@ -292,6 +297,8 @@ public class ClassTrackerImpl extends BaseTracker implements ClassTracker {
                     }
                 }
             }
+        } finally {
+            releaseModels();
         }
         return null;
     }
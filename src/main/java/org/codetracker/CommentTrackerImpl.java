@@ -18,7 +18,7 @@ import org.codetracker.element.Attribute;
 import org.codetracker.element.Class;
 import org.codetracker.element.Comment;
 import org.codetracker.element.Method;
-import org.eclipse.jgit.api.Git;
+import org.codetracker.util.FileHistoryWalker;
 import org.eclipse.jgit.lib.Repository;
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringType;
@@ -51,9 +51,16 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
 		this.changeHistory = new CommentTrackerChangeHistory(methodName, methodDeclarationLineNumber, commentType, commentStartLineNumber, commentEndLineNumber);
 	}
 
+	public CommentTrackerImpl(TrackingSession session, String startCommitId, String filePath,
+            String methodName, int methodDeclarationLineNumber,
+            CodeElementType commentType, int commentStartLineNumber, int commentEndLineNumber) {
+		super(session, startCommitId, filePath);
+		this.changeHistory = new CommentTrackerChangeHistory(methodName, methodDeclarationLineNumber, commentType, commentStartLineNumber, commentEndLineNumber);
+	}
+
     public History.HistoryInfo<Comment> blame() throws Exception {
         HistoryImpl.HistoryReportImpl historyReport = new HistoryImpl.HistoryReportImpl();
-        try (Git git = new Git(repository)) {
+        try (FileHistoryWalker historyWalker = newFileHistoryWalker()) {
             Version startVersion = gitRepository.getVersion(startCommitId);
             UMLModel umlModel = getUMLModel(startCommitId, Collections.singleton(filePath));
             Method startMethod = getMethod(umlModel, startVersion, changeHistory::isStartMethod);
@@ -88,7 +95,7 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
                 }
                 if (commits == null || !currentComment.getFilePath().equals(lastFileName)) {
                     lastFileName = currentComment.getFilePath();
-                    commits = getCommits(repository, currentComment.getVersion().getId(), currentComment.getFilePath(), git);
+                    commits = prefetching(historyWalker.getCommits(currentComment.getVersion().getId(), currentComment.getFilePath()), currentComment.getFilePath());
                     historyReport.gitLogCommandCallsPlusPlus();
                     analysedCommits.clear();
                 }
@@ -106,7 +113,7 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
                     	if (currentComment.getOperation().get() instanceof UMLOperation || currentComment.getOperation().get() instanceof UMLInitializer) {
 		                    Method currentMethod = Method.of(currentComment.getOperation().get(), currentVersion);
 		                    UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentMethod.getFilePath()));
-		                    Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+		                    Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
 		                    if (rightMethod == null) {
 		                        continue;
 		                    }
@@ -127,9 +134,9 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
 		                        changeHistory.add(leftComment);
 		                        break;
 		                    }
-		                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(currentMethod.getFilePath()));
+		                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, currentMethod.getFilePath(), rightModel);
 		                    //NO CHANGE
-		                    Method leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+		                    Method leftMethod = getMethodWithIdentifier(leftModel, parentVersion, rightMethod);
 		                    if (leftMethod != null) {
 		                    	UMLJavadoc leftJavadoc = leftMethod.getUmlOperation().getJavadoc();
 								UMLJavadoc rightJavadoc = rightMethod.getUmlOperation().getJavadoc();
@@ -153,7 +160,7 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
 		                        continue;
 		                    }
 		                    //CHANGE BODY OR DOCUMENT
-		                    leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndDocumentAndBody);
+		                    leftMethod = getMethodWithIdentifierIgnoringDocumentAndBody(leftModel, parentVersion, rightMethod);
 		                    //check if there is another method in leftModel with identical bodyHashCode to the rightMethod
 		                    boolean otherExactMatchFound = false;
 		                    if (leftMethod != null) {
@@ -186,7 +193,7 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
 		                            break;
 		                        }
 		                    }
-		                    UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
+		                    UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, currentMethod.getFilePath(), leftModel, rightModel);
 		                    {
 		                        //Local Refactoring
 		                        List<Refactoring> refactorings = umlModelDiffLocal.getRefactorings();
@@ -265,8 +272,8 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
 		                        }
 		                        {
 		                            Set<String> fileNames = getRightSideFileNames(currentMethod, commitModel, umlModelDiffLocal);
-		                            Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, currentMethod.getFilePath(), fileNames::contains, false);
-		                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+		                            boolean refactoringsStored = addStoredOriginalFilePaths(commitId, commitModel, currentMethod.getFilePath(), fileNames, rightMethod);
+		                            UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentMethod.getFilePath(), fileNames);
 		
 		                            Set<Refactoring> moveRenameClassRefactorings = umlModelDiffAll.getMoveRenameClassRefactorings();
 		                            UMLClassBaseDiff classDiff = umlModelDiffAll.getUMLClassDiff(rightMethodClassName);
@@ -291,6 +298,8 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
 		                                }
 		                            }
 		                            List<Refactoring> refactorings = umlModelDiffAll.getRefactorings();
+		                            if (!refactoringsStored)
+		                                storeRefactorings(commitId, commitModel, currentMethod.getFilePath(), fileNames, refactorings, currentVersion);
 		                            boolean flag = false;
 		                            for (Refactoring refactoring : refactorings) {
 		                                if (RefactoringType.MOVE_AND_RENAME_OPERATION.equals(refactoring.getRefactoringType()) || RefactoringType.MOVE_OPERATION.equals(refactoring.getRefactoringType())) {
@@ -303,8 +312,7 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
 		                                }
 		                            }
 		                            if (flag) {
-		                                umlModelPairAll = getUMLModelPair(commitModel, currentMethod.getFilePath(), fileNames::contains, false);
-		                                umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+		                                umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentMethod.getFilePath(), fileNames);
 		                                refactorings = umlModelDiffAll.getRefactorings();
 		                            }
 		
@@ -347,7 +355,7 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
                     		// container is an Attribute
                     		Attribute currentAttribute = Attribute.of((UMLAttribute) currentComment.getOperation().get(), currentVersion);
 		                    UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentAttribute.getFilePath()));
-		                    Attribute rightAttribute = getAttribute(rightModel, currentVersion, currentAttribute::equalIdentifierIgnoringVersion);
+		                    Attribute rightAttribute = getAttributeWithIdentifier(rightModel, currentVersion, currentAttribute);
 		                    if (rightAttribute == null) {
 		                        continue;
 		                    }
@@ -368,9 +376,9 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
 		                        changeHistory.add(leftComment);
 		                        break;
 		                    }
-		                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(currentAttribute.getFilePath()));
+		                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, currentAttribute.getFilePath(), rightModel);
 		                    //NO CHANGE
-		                    Attribute leftAttribute = getAttribute(leftModel, parentVersion, rightAttribute::equalIdentifierIgnoringVersion);
+		                    Attribute leftAttribute = getAttributeWithIdentifier(leftModel, parentVersion, rightAttribute);
 		                    if (leftAttribute != null) {
 		                    	Pair<UMLAttribute, UMLAttribute> pair = Pair.of(leftAttribute.getUmlAttribute(), rightAttribute.getUmlAttribute());
 								changeHistory.checkBodyOfMatchedAttributes(currentVersion, parentVersion, equalComment, pair);
@@ -378,7 +386,7 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
 		                        continue;
 		                    }
 		                    
-		                    UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
+		                    UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, currentAttribute.getFilePath(), leftModel, rightModel);
 		                    {
 		                        //Local Refactoring
 		                        List<Refactoring> refactorings = umlModelDiffLocal.getRefactorings();
@@ -461,8 +469,8 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
 		                        }
 		                        {
 		                        	Set<String> fileNames = getRightSideFileNames(currentAttribute.getFilePath(), currentAttribute.getUmlAttribute().getLocationInfo().getSourceFolder(), currentAttribute.getUmlAttribute().getClassName(), Collections.emptySet(), commitModel, umlModelDiffLocal);
-		                            Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, currentAttribute.getFilePath(), fileNames::contains, false);
-		                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+		                            boolean refactoringsStored = addStoredOriginalFilePaths(commitId, commitModel, currentAttribute.getFilePath(), fileNames, rightAttribute);
+		                            UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentAttribute.getFilePath(), fileNames);
 		
 		                            Set<Refactoring> moveRenameClassRefactorings = umlModelDiffAll.getMoveRenameClassRefactorings();
 		                            UMLClassBaseDiff classDiff = umlModelDiffAll.getUMLClassDiff(rightAttributeClassName);
@@ -482,6 +490,8 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
 		                                }
 		                            }
 		                            List<Refactoring> refactorings = umlModelDiffAll.getRefactorings();
+		                            if (!refactoringsStored)
+		                                storeRefactorings(commitId, commitModel, currentAttribute.getFilePath(), fileNames, refactorings, currentVersion);
 		                            boolean flag = false;
 		                            for (Refactoring refactoring : refactorings) {
 		                                if (RefactoringType.MOVE_ATTRIBUTE.equals(refactoring.getRefactoringType())) {
@@ -502,8 +512,7 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
 		                                }
 		                            }
 		                            if (flag) {
-		                                umlModelPairAll = getUMLModelPair(commitModel, currentAttribute.getFilePath(), fileNames::contains, false);
-		                                umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+		                                umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentAttribute.getFilePath(), fileNames);
 		                                refactorings = umlModelDiffAll.getRefactorings();
 		                            }
 		
@@ -539,7 +548,7 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
                     else if (currentComment.getClazz().isPresent()) {
                     	Class currentClass = Class.of(currentComment.getClazz().get(), currentVersion);
                     	UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentClass.getFilePath()));
-                    	Class rightClass = getClass(rightModel, currentVersion, currentClass::equalIdentifierIgnoringVersion);
+                    	Class rightClass = getClassWithIdentifier(rightModel, currentVersion, currentClass);
 	                    if (rightClass == null) {
 	                        continue;
 	                    }
@@ -558,16 +567,16 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
 	                        changeHistory.add(leftComment);
 	                        break;
 	                    }
-	                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(currentClass.getFilePath()));
+	                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, currentClass.getFilePath(), rightModel);
 	                    //NO CHANGE
-	                    Class leftClass = getClass(leftModel, parentVersion, rightClass::equalIdentifierIgnoringVersion);
+	                    Class leftClass = getClassWithIdentifier(leftModel, parentVersion, rightClass);
 	                    if (leftClass != null) {
 	                        historyReport.step2PlusPlus();
 	                        UMLClassBaseDiff lightweightClassDiff = lightweightClassDiff(leftClass.getUmlClass(), rightClass.getUmlClass());
 	                        changeHistory.checkBodyOfMatchedClasses(currentVersion, parentVersion, rightComment::equalIdentifierIgnoringVersion, lightweightClassDiff);
 	                        continue;
 	                    }
-	                    UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
+	                    UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, currentClass.getFilePath(), leftModel, rightModel);
 	                    {
 	                        //Local Refactoring
 	                    	UMLAbstractClassDiff classDiff = getUMLClassDiff(umlModelDiffLocal, rightClassSourceFolder, rightClassName);
@@ -625,8 +634,7 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
 	                        }
 	                        {
 	                            //Set<String> fileNames = getRightSideFileNames(currentClass.getFilePath(), currentClass.getUmlClass().getName(), Collections.emptySet(), commitModel, umlModelDiffLocal);
-	                        	Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, rightClass.getFilePath(), s -> true, false);
-	                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+	                        	UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, rightClass.getFilePath(), null);
 	
 	                            Set<Refactoring> moveRenameClassRefactorings = umlModelDiffAll.getMoveRenameClassRefactorings();
 	                            UMLClassBaseDiff classDiff = umlModelDiffAll.getUMLClassDiff(rightClass.getUmlClass().getName());
@@ -660,6 +668,8 @@ public class CommentTrackerImpl extends BaseTracker implements CommentTracker {
                     }
                 }
             }
+        } finally {
+            releaseModels();
         }
         return null;
     }
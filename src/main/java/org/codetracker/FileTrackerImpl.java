@@ -32,7 +32,7 @@ import org.codetracker.element.Method;
 import org.codetracker.element.Package;
 import org.codetracker.util.CodeElementLocator;
 import org.codetracker.util.GitRepository;
-import org.eclipse.jgit.api.Git;
+import org.codetracker.util.FileHistoryWalker;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
@@ -68,7 +68,6 @@ import gr.uom.java.xmi.UMLType;
 import gr.uom.java.xmi.VariableDeclarationContainer;
 
 public class FileTrackerImpl extends BaseTracker {
-	private final Map<String, UMLModelDiff> modelDiffCache = new HashMap<>();
 	private final List<String> lines = new ArrayList<>();
 	private final Map<CodeElement, AbstractChangeHistory<? extends BaseCodeElement>> programElementMap = new LinkedHashMap<>();
 	private final Map<CodeElement, AbstractChangeHistory<? extends BaseCodeElement>> nestedProgramElementMap = new LinkedHashMap<>();
@@ -78,6 +77,10 @@ public class FileTrackerImpl extends BaseTracker {
 		super(repository, startCommitId, filePath);
 	}
 
+	public FileTrackerImpl(TrackingSession session, String startCommitId, String filePath) {
+		super(session, startCommitId, filePath);
+	}
+
 	public List<String> getLines() {
 		return lines;
 	}
@@ -181,7 +184,7 @@ public class FileTrackerImpl extends BaseTracker {
 	}
 
 	public void blame() throws Exception {
-		try (Git git = new Git(repository); RevWalk walk = new RevWalk(repository)) {
+		try (FileHistoryWalker historyWalker = newFileHistoryWalker(); RevWalk walk = new RevWalk(repository)) {
 			Version startVersion = gitRepository.getVersion(startCommitId);
 			RevCommit revCommit = walk.parseCommit(repository.resolve(startCommitId));
 			Set<String> repositoryDirectories = new LinkedHashSet<>();
@@ -229,7 +232,7 @@ public class FileTrackerImpl extends BaseTracker {
 				}
 				if (commits == null || !currentClass.getFilePath().equals(lastFileName)) {
 					lastFileName = currentClass.getFilePath();
-					commits = getCommits(repository, currentClass.getVersion().getId(), lastFileName, git);
+					commits = prefetching(historyWalker.getCommits(currentClass.getVersion().getId(), lastFileName), lastFileName);
 					analysedCommits.clear();
 				}
 				if (analysedCommits.containsAll(commits))
@@ -244,7 +247,7 @@ public class FileTrackerImpl extends BaseTracker {
 					Version parentVersion = gitRepository.getVersion(parentCommitId);
 
 					UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentClass.getFilePath()));
-					Class rightClass = getClass(rightModel, currentVersion, currentClass::equalIdentifierIgnoringVersion);
+					Class rightClass = getClassWithIdentifier(rightModel, currentVersion, currentClass);
 					if (rightClass == null) {
 						continue;
 					}
@@ -274,9 +277,9 @@ public class FileTrackerImpl extends BaseTracker {
 						}
 						break;
 					}
-					UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(rightClass.getFilePath()));
+					UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, rightClass.getFilePath(), rightModel);
 
-					Class leftClass = getClass(leftModel, parentVersion, rightClass::equalIdentifierIgnoringVersion);
+					Class leftClass = getClassWithIdentifier(leftModel, parentVersion, rightClass);
 					boolean annotationChanged = false;
 					if(leftClass == null) {
 						leftClass = getClass(leftModel, parentVersion, rightClass::equalIdentifierIgnoringVersionAndAnnotation);
@@ -318,14 +321,7 @@ public class FileTrackerImpl extends BaseTracker {
 						Set<Pair<Class, Class>> foundInnerClasses = new LinkedHashSet<>();
 						processInnerClassesWithSameSignature(rightModel, currentVersion, leftModel, parentVersion, startClass, foundInnerClasses, notFoundInnerClasses);
 						if (notFoundMethods.size() > 0 || notFoundAttributes.size() > 0 || notFoundInnerClasses.size() > 0) {
-							UMLModelDiff umlModelDiffLocal = null;
-							if(modelDiffCache.containsKey(currentVersion.getId())) {
-								umlModelDiffLocal = modelDiffCache.get(currentVersion.getId());
-							}
-							else {
-								umlModelDiffLocal = leftModel.diff(rightModel);
-								modelDiffCache.put(currentVersion.getId(), umlModelDiffLocal);
-							}
+							UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, rightClass.getFilePath(), leftModel, rightModel);
 							List<Refactoring> refactorings = umlModelDiffLocal.getRefactorings();
 							processLocallyRefactoredMethods(notFoundMethods, umlModelDiffLocal, currentVersion, parentVersion, refactorings);
 							processLocallyRefactoredAttributes(notFoundAttributes, umlModelDiffLocal, currentVersion, parentVersion, refactorings);
@@ -344,7 +340,7 @@ public class FileTrackerImpl extends BaseTracker {
 						continue;
 					}
 					else if (leftClass != null && (annotationChanged || modifiersChanged)) {
-						UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
+						UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, rightClass.getFilePath(), leftModel, rightModel);
 						List<Refactoring> refactorings = umlModelDiffLocal.getRefactorings();
 						Set<Class> classRefactored = startClassChangeHistory.analyseClassRefactorings(refactorings, currentVersion, parentVersion, rightClass::equalIdentifierIgnoringVersion);
 						boolean refactored = !classRefactored.isEmpty();
@@ -426,7 +422,7 @@ public class FileTrackerImpl extends BaseTracker {
 						}
 					}
 					{
-						Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, rightClass, s -> true, false);
+						Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, rightClass, s -> true, false, parallelUMLModelBuilder);
 						UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
 
 						List<Refactoring> refactorings = umlModelPairAll.getLeft().getClassList().isEmpty() ?
@@ -560,6 +556,8 @@ public class FileTrackerImpl extends BaseTracker {
 					blameInfo.put(lineNumber, null);
 				}
 			}
+		} finally {
+			releaseModels();
 		}
 	}
 
@@ -699,7 +697,7 @@ public class FileTrackerImpl extends BaseTracker {
 				if (currentClass == null || currentClass.isAdded()) {
 					continue;
 				}
-				Class rightClass = getClass(rightModel, currentVersion, currentClass::equalIdentifierIgnoringVersion);
+				Class rightClass = getClassWithIdentifier(rightModel, currentVersion, currentClass);
 				if (rightClass == null) {
 					continue;
 				}
@@ -754,7 +752,7 @@ public class FileTrackerImpl extends BaseTracker {
 				if (currentAttribute == null || currentAttribute.isAdded()) {
 					continue;
 				}
-				Attribute rightAttribute = getAttribute(rightModel, currentVersion, currentAttribute::equalIdentifierIgnoringVersion);
+				Attribute rightAttribute = getAttributeWithIdentifier(rightModel, currentVersion, currentAttribute);
 				if (rightAttribute == null)
 					rightAttribute = currentAttribute;
 				if (startAttributeChangeHistory.isAttributeAdded(umlModelDiffAll, rightAttribute.getUmlAttribute().getLocationInfo().getSourceFolder(), rightAttribute.getUmlAttribute().getClassName(), currentVersion, parentVersion, rightAttribute::equalIdentifierIgnoringVersion, getAllClassesDiff(umlModelDiffAll))) {
@@ -807,7 +805,7 @@ public class FileTrackerImpl extends BaseTracker {
 				if (currentMethod == null || currentMethod.isAdded()) {
 					continue;
 				}
-				Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+				Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
 				if (rightMethod == null)
 					rightMethod = currentMethod;
 				if (startMethodChangeHistory.isMethodAdded(umlModelDiffAll, rightMethod.getUmlOperation().getLocationInfo().getSourceFolder(), rightMethod.getUmlOperation().getClassName(), currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion, getAllClassesDiff(umlModelDiffAll))) {
@@ -1368,12 +1366,12 @@ public class FileTrackerImpl extends BaseTracker {
 				if (currentClass == null || currentClass.isAdded()) {
 					continue;
 				}
-				Class rightClass = getClass(rightModel, currentVersion, currentClass::equalIdentifierIgnoringVersion);
+				Class rightClass = getClassWithIdentifier(rightModel, currentVersion, currentClass);
 				if (rightClass == null) {
 					continue;
 				}
 				startInnerClassChangeHistory.poll();
-				Class leftClass = getClass(leftModel, parentVersion, rightClass::equalIdentifierIgnoringVersion);
+				Class leftClass = getClassWithIdentifier(leftModel, parentVersion, rightClass);
 				if (leftClass != null) {
 					UMLType leftSuperclass = leftClass.getUmlClass().getSuperclass();
 					UMLType rightSuperclass = rightClass.getUmlClass().getSuperclass();
@@ -1480,11 +1478,11 @@ public class FileTrackerImpl extends BaseTracker {
 				if (currentAttribute == null || currentAttribute.isAdded()) {
 					continue;
 				}
-				Attribute rightAttribute = getAttribute(rightModel, currentVersion, currentAttribute::equalIdentifierIgnoringVersion);
+				Attribute rightAttribute = getAttributeWithIdentifier(rightModel, currentVersion, currentAttribute);
 				if (rightAttribute == null) {
 					continue;
 				}
-				Attribute leftAttribute = getAttribute(leftModel, parentVersion, rightAttribute::equalIdentifierIgnoringVersion);
+				Attribute leftAttribute = getAttributeWithIdentifier(leftModel, parentVersion, rightAttribute);
 				if (leftAttribute != null) {
 					startAttributeChangeHistory.setCurrent(leftAttribute);
 					startAttributeChangeHistory.checkInitializerChange(rightAttribute, leftAttribute);
@@ -1547,12 +1545,12 @@ public class FileTrackerImpl extends BaseTracker {
 					Set<Pair<Method, Method>> methodPairs = new LinkedHashSet<Pair<Method,Method>>();
 					while (iterator.hasNext()) {
 						Method currentMethod = iterator.next();
-						Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+						Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
 						if (rightMethod == null) {
 							continue;
 						}
 						//NO CHANGE
-						Method leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+						Method leftMethod = getMethodWithIdentifier(leftModel, parentVersion, rightMethod);
 						if (leftMethod != null) {
 							checkIfJavadocChanged(currentVersion, parentVersion, startMethod, rightMethod, leftMethod);
 							checkSignatureFormatChange(startMethodChangeHistory, leftMethod, rightMethod);
@@ -1566,9 +1564,9 @@ public class FileTrackerImpl extends BaseTracker {
 							continue;
 						}
 						//CHANGE BODY OR DOCUMENT
-						leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndDocumentAndBody);
+						leftMethod = getMethodWithIdentifierIgnoringDocumentAndBody(leftModel, parentVersion, rightMethod);
 						if (leftMethod == null) {
-							leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndAnnotation);
+							leftMethod = getMethodWithIdentifierIgnoringAnnotation(leftModel, parentVersion, rightMethod);
 						}
 						if (leftMethod == null) {
 							notFoundMethods.put(rightMethod, startMethodChangeHistory);
@@ -1606,12 +1604,12 @@ public class FileTrackerImpl extends BaseTracker {
 					if (currentMethod == null || currentMethod.isAdded()) {
 						continue;
 					}
-					Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+					Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
 					if (rightMethod == null) {
 						continue;
 					}
 					//NO CHANGE
-					Method leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+					Method leftMethod = getMethodWithIdentifier(leftModel, parentVersion, rightMethod);
 					if (leftMethod != null) {
 						checkIfJavadocChanged(currentVersion, parentVersion, startMethod, rightMethod, leftMethod);
 						checkSignatureFormatChange(startMethodChangeHistory, leftMethod, rightMethod);
@@ -1640,7 +1638,7 @@ public class FileTrackerImpl extends BaseTracker {
 						continue;
 					}
 					//CHANGE BODY OR DOCUMENT
-					leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndDocumentAndBody);
+					leftMethod = getMethodWithIdentifierIgnoringDocumentAndBody(leftModel, parentVersion, rightMethod);
 					if (leftMethod == null) {
 						notFoundMethods.put(rightMethod, startMethodChangeHistory);
 					}
@@ -1866,14 +1864,7 @@ public class FileTrackerImpl extends BaseTracker {
 					bodyMapper.getNonMappedInnerNodesT2().size() == 0 &&
 					bodyMapper.getMappings().size() > 0;
 			if (!allMapped && containsCallToExtractedMethod(bodyMapper, rightSideOperations)) {
-				UMLModelDiff umlModelDiffLocal = null;
-				if(modelDiffCache.containsKey(currentVersion.getId())) {
-					umlModelDiffLocal = modelDiffCache.get(currentVersion.getId());
-				}
-				else {
-					umlModelDiffLocal = leftModel.diff(rightModel);
-					modelDiffCache.put(currentVersion.getId(), umlModelDiffLocal);
-				}
+				UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentVersion.getId(), currentVersion.getId(), rightMethod.getFilePath(), leftModel, rightModel);
 				//this bodyMapper has mapping optimization
 				bodyMapper = findBodyMapper(umlModelDiffLocal, rightMethod, currentVersion, parentVersion);
 			}
@@ -253,7 +253,7 @@ public class FileTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles {
             	leftModel.setPartial(true);
             	UMLModel rightModel = GitHistoryRefactoringMinerImpl.createModel(lightCommitModel.fileContentsCurrentOriginal, lightCommitModel.repositoryDirectoriesCurrent);
             	rightModel.setPartial(true);
-				Class rightClass = getClass(rightModel, currentVersion, currentClass::equalIdentifierIgnoringVersion);
+				Class rightClass = getClassWithIdentifier(rightModel, currentVersion, currentClass);
 				if (rightClass == null) {
 					continue;
 				}
@@ -284,7 +284,7 @@ public class FileTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles {
 					break;
 				}
 
-				Class leftClass = getClass(leftModel, parentVersion, rightClass::equalIdentifierIgnoringVersion);
+				Class leftClass = getClassWithIdentifier(leftModel, parentVersion, rightClass);
 				boolean annotationChanged = false;
 				if(leftClass == null) {
 					leftClass = getClass(leftModel, parentVersion, rightClass::equalIdentifierIgnoringVersionAndAnnotation);
@@ -706,7 +706,7 @@ public class FileTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles {
 				if (currentClass == null || currentClass.isAdded()) {
 					continue;
 				}
-				Class rightClass = getClass(rightModel, currentVersion, currentClass::equalIdentifierIgnoringVersion);
+				Class rightClass = getClassWithIdentifier(rightModel, currentVersion, currentClass);
 				if (rightClass == null) {
 					continue;
 				}
@@ -761,7 +761,7 @@ public class FileTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles {
 				if (currentAttribute == null || currentAttribute.isAdded()) {
 					continue;
 				}
-				Attribute rightAttribute = getAttribute(rightModel, currentVersion, currentAttribute::equalIdentifierIgnoringVersion);
+				Attribute rightAttribute = getAttributeWithIdentifier(rightModel, currentVersion, currentAttribute);
 				if (rightAttribute == null)
 					rightAttribute = currentAttribute;
 				if (startAttributeChangeHistory.isAttributeAdded(umlModelDiffAll, rightAttribute.getUmlAttribute().getLocationInfo().getSourceFolder(), rightAttribute.getUmlAttribute().getClassName(), currentVersion, parentVersion, rightAttribute::equalIdentifierIgnoringVersion, getAllClassesDiff(umlModelDiffAll))) {
@@ -814,7 +814,7 @@ public class FileTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles {
 				if (currentMethod == null || currentMethod.isAdded()) {
 					continue;
 				}
-				Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+				Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
 				if (rightMethod == null)
 					rightMethod = currentMethod;
 				if (startMethodChangeHistory.isMethodAdded(umlModelDiffAll, rightMethod.getUmlOperation().getLocationInfo().getSourceFolder(), rightMethod.getUmlOperation().getClassName(), currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion, getAllClassesDiff(umlModelDiffAll))) {
@@ -1375,12 +1375,12 @@ public class FileTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles {
 				if (currentClass == null || currentClass.isAdded()) {
 					continue;
 				}
-				Class rightClass = getClass(rightModel, currentVersion, currentClass::equalIdentifierIgnoringVersion);
+				Class rightClass = getClassWithIdentifier(rightModel, currentVersion, currentClass);
 				if (rightClass == null) {
 					continue;
 				}
 				startInnerClassChangeHistory.poll();
-				Class leftClass = getClass(leftModel, parentVersion, rightClass::equalIdentifierIgnoringVersion);
+				Class leftClass = getClassWithIdentifier(leftModel, parentVersion, rightClass);
 				if (leftClass != null) {
 					UMLType leftSuperclass = leftClass.getUmlClass().getSuperclass();
 					UMLType rightSuperclass = rightClass.getUmlClass().getSuperclass();
@@ -1487,11 +1487,11 @@ public class FileTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles {
 				if (currentAttribute == null || currentAttribute.isAdded()) {
 					continue;
 				}
-				Attribute rightAttribute = getAttribute(rightModel, currentVersion, currentAttribute::equalIdentifierIgnoringVersion);
+				Attribute rightAttribute = getAttributeWithIdentifier(rightModel, currentVersion, currentAttribute);
 				if (rightAttribute == null) {
 					continue;
 				}
-				Attribute leftAttribute = getAttribute(leftModel, parentVersion, rightAttribute::equalIdentifierIgnoringVersion);
+				Attribute leftAttribute = getAttributeWithIdentifier(leftModel, parentVersion, rightAttribute);
 				if (leftAttribute != null) {
 					startAttributeChangeHistory.setCurrent(leftAttribute);
 					startAttributeChangeHistory.checkInitializerChange(rightAttribute, leftAttribute);
@@ -1554,12 +1554,12 @@ public class FileTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles {
 					Set<Pair<Method, Method>> methodPairs = new LinkedHashSet<Pair<Method,Method>>();
 					while (iterator.hasNext()) {
 						Method currentMethod = iterator.next();
-						Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+						Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
 						if (rightMethod == null) {
 							continue;
 						}
 						//NO CHANGE
-						Method leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+						Method leftMethod = getMethodWithIdentifier(leftModel, parentVersion, rightMethod);
 						if (leftMethod != null) {
 							checkIfJavadocChanged(currentVersion, parentVersion, startMethod, rightMethod, leftMethod);
 							checkSignatureFormatChange(startMethodChangeHistory, leftMethod, rightMethod);
@@ -1573,9 +1573,9 @@ public class FileTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles {
 							continue;
 						}
 						//CHANGE BODY OR DOCUMENT
-						leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndDocumentAndBody);
+						leftMethod = getMethodWithIdentifierIgnoringDocumentAndBody(leftModel, parentVersion, rightMethod);
 						if (leftMethod == null) {
-							leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndAnnotation);
+							leftMethod = getMethodWithIdentifierIgnoringAnnotation(leftModel, parentVersion, rightMethod);
 						}
 						if (leftMethod == null) {
 							notFoundMethods.put(rightMethod, startMethodChangeHistory);
@@ -1613,12 +1613,12 @@ public class FileTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles {
 					if (currentMethod == null || currentMethod.isAdded()) {
 						continue;
 					}
-					Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+					Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
 					if (rightMethod == null) {
 						continue;
 					}
 					//NO CHANGE
-					Method leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+					Method leftMethod = getMethodWithIdentifier(leftModel, parentVersion, rightMethod);
 					if (leftMethod != null) {
 						checkIfJavadocChanged(currentVersion, parentVersion, startMethod, rightMethod, leftMethod);
 						checkSignatureFormatChange(startMethodChangeHistory, leftMethod, rightMethod);
@@ -1647,7 +1647,7 @@ public class FileTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles {
 						continue;
 					}
 					//CHANGE BODY OR DOCUMENT
-					leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndDocumentAndBody);
+					leftMethod = getMethodWithIdentifierIgnoringDocumentAndBody(leftModel, parentVersion, rightMethod);
 					if (leftMethod == null) {
 						notFoundMethods.put(rightMethod, startMethodChangeHistory);
 					}
@@ -13,7 +13,7 @@ import org.codetracker.api.ImportTracker;
 import org.codetracker.api.Version;
 import org.codetracker.element.Class;
 import org.codetracker.element.Import;
-import org.eclipse.jgit.api.Git;
+import org.codetracker.util.FileHistoryWalker;
 import org.eclipse.jgit.lib.Repository;
 import org.refactoringminer.api.Refactoring;
 
@@ -34,9 +34,15 @@ public class ImportTrackerImpl extends BaseTracker implements ImportTracker {
 		this.changeHistory = new ImportTrackerChangeHistory(className, classDeclarationLineNumber, codeElementType, importStartLineNumber, importEndLineNumber);
 	}
 
+	public ImportTrackerImpl(TrackingSession session, String startCommitId, String filePath, String className, int classDeclarationLineNumber,
+			CodeElementType codeElementType, int importStartLineNumber, int importEndLineNumber) {
+		super(session, startCommitId, filePath);
+		this.changeHistory = new ImportTrackerChangeHistory(className, classDeclarationLineNumber, codeElementType, importStartLineNumber, importEndLineNumber);
+	}
+
     public History.HistoryInfo<Import> blame() throws Exception {
         HistoryImpl.HistoryReportImpl historyReport = new HistoryImpl.HistoryReportImpl();
-        try (Git git = new Git(repository)) {
+        try (FileHistoryWalker historyWalker = newFileHistoryWalker()) {
             Version startVersion = gitRepository.getVersion(startCommitId);
             UMLModel umlModel = getUMLModel(startCommitId, Collections.singleton(filePath));
             Class startClass = getClass(umlModel, startVersion, changeHistory::isStartClass);
@@ -63,7 +69,7 @@ public class ImportTrackerImpl extends BaseTracker implements ImportTracker {
                 }
                 if (commits == null || !currentImport.getFilePath().equals(lastFileName)) {
                     lastFileName = currentImport.getFilePath();
-                    commits = getCommits(repository, currentImport.getVersion().getId(), currentImport.getFilePath(), git);
+                    commits = prefetching(historyWalker.getCommits(currentImport.getVersion().getId(), currentImport.getFilePath()), currentImport.getFilePath());
                     historyReport.gitLogCommandCallsPlusPlus();
                     analysedCommits.clear();
                 }
@@ -79,7 +85,7 @@ public class ImportTrackerImpl extends BaseTracker implements ImportTracker {
                     Version parentVersion = gitRepository.getVersion(parentCommitId);
                     Class currentClass = Class.of(currentImport.getClazz(), currentVersion);
                 	UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentClass.getFilePath()));
-                	Class rightClass = getClass(rightModel, currentVersion, currentClass::equalIdentifierIgnoringVersion);
+                	Class rightClass = getClassWithIdentifier(rightModel, currentVersion, currentClass);
                     if (rightClass == null) {
                         continue;
                     }
@@ -98,16 +104,16 @@ public class ImportTrackerImpl extends BaseTracker implements ImportTracker {
                         changeHistory.add(leftImport);
                         break;
                     }
-                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(currentClass.getFilePath()));
+                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, currentClass.getFilePath(), rightModel);
                     //NO CHANGE
-                    Class leftClass = getClass(leftModel, parentVersion, rightClass::equalIdentifierIgnoringVersion);
+                    Class leftClass = getClassWithIdentifier(leftModel, parentVersion, rightClass);
                     if (leftClass != null) {
                         historyReport.step2PlusPlus();
                         UMLClassBaseDiff lightweightClassDiff = lightweightClassDiff(leftClass.getUmlClass(), rightClass.getUmlClass());
                         changeHistory.checkBodyOfMatchedClasses(currentVersion, parentVersion, rightImport::equalIdentifierIgnoringVersion, lightweightClassDiff);
                         continue;
                     }
-                    UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
+                    UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, currentClass.getFilePath(), leftModel, rightModel);
                     {
                         //Local Refactoring
                     	UMLAbstractClassDiff classDiff = getUMLClassDiff(umlModelDiffLocal, rightClassSourceFolder, rightClassName);
@@ -165,8 +171,7 @@ public class ImportTrackerImpl extends BaseTracker implements ImportTracker {
                         }
                         {
                             //Set<String> fileNames = getRightSideFileNames(currentClass.getFilePath(), currentClass.getUmlClass().getName(), Collections.emptySet(), commitModel, umlModelDiffLocal);
-                        	Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, rightClass.getFilePath(), s -> true, false);
-                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                        	UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, rightClass.getFilePath(), null);
 
                             Set<Refactoring> moveRenameClassRefactorings = umlModelDiffAll.getMoveRenameClassRefactorings();
                             UMLClassBaseDiff classDiff = umlModelDiffAll.getUMLClassDiff(rightClass.getUmlClass().getName());
@@ -199,6 +204,8 @@ public class ImportTrackerImpl extends BaseTracker implements ImportTracker {
                     }
                 }
             }
+        } finally {
+            releaseModels();
         }
         return null;
     }
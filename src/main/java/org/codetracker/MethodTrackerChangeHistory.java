@@ -25,7 +25,7 @@ import org.codetracker.change.Introduced;
 import org.codetracker.change.method.MethodAnnotationChange;
 import org.codetracker.change.method.MethodSignatureChange;
 import org.codetracker.element.Method;
-import org.codetracker.util.Util;
+import org.codetracker.util.Fingerprint;
 import org.refactoringminer.api.Refactoring;
 
 import com.github.difflib.DiffUtils;
@@ -508,8 +508,8 @@ public class MethodTrackerChangeHistory extends AbstractChangeHistory<Method> {
     }
 
     private static boolean checkOperationDocumentationChanged(VariableDeclarationContainer operation1, VariableDeclarationContainer operation2) {
-        String comments1 = Util.getSHA512(operation1.getComments().stream().map(UMLComment::getFullText).collect(Collectors.joining(";")));
-        String comments2 = Util.getSHA512(operation2.getComments().stream().map(UMLComment::getFullText).collect(Collectors.joining(";")));
+        String comments1 = Fingerprint.digest(operation1.getComments().stream().map(UMLComment::getFullText).collect(Collectors.joining(";")));
+        String comments2 = Fingerprint.digest(operation2.getComments().stream().map(UMLComment::getFullText).collect(Collectors.joining(";")));
         return !comments1.equals(comments2);
     }
 
@@ -2,265 +2,404 @@ package org.codetracker;
 
 import gr.uom.java.xmi.*;
 import gr.uom.java.xmi.diff.*;
-import org.apache.commons.lang3.tuple.Pair;
 import org.codetracker.api.CodeElementNotFoundException;
+import org.codetracker.api.Edge;
+import org.codetracker.api.Graph;
 import org.codetracker.api.History;
 import org.codetracker.api.MethodTracker;
 import org.codetracker.api.Version;
 import org.codetracker.change.Change;
 import org.codetracker.change.ChangeFactory;
+import org.codetracker.element.ElementIndex;
 import org.codetracker.element.Method;
-import org.eclipse.jgit.api.Git;
+import org.codetracker.util.FileHistoryWalker;
+import org.codetracker.util.HistoryStore;
 import org.eclipse.jgit.lib.Repository;
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringType;
 import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class MethodTrackerImpl extends BaseTracker implements MethodTracker {
+    private final static Logger logger = LoggerFactory.getLogger(MethodTrackerImpl.class);
 	private final MethodTrackerChangeHistory changeHistory;
+    private final HistoryStore historyStore;
+    /**
+     * The method the tracking loop is looking for, from which the upcoming commits that the skeletons tell did not
+     * change it are not prefetched.
+     */
+    private Method trackedMethod;
 
     public MethodTrackerImpl(Repository repository, String startCommitId, String filePath, String methodName, int methodDeclarationLineNumber) {
         super(repository, startCommitId, filePath);
         this.changeHistory = new MethodTrackerChangeHistory(methodName, methodDeclarationLineNumber);
+        this.historyStore = null;
+    }
+
+    /**
+     * The history computed by {@link #track()} is saved to the history store of the session, if any, and the stored
+     * histories are spliced in from it; {@link #blame()} does not use the store.
+     */
+    public MethodTrackerImpl(TrackingSession session, String startCommitId, String filePath, String methodName, int methodDeclarationLineNumber) {
+        super(session, startCommitId, filePath);
+        this.changeHistory = new MethodTrackerChangeHistory(methodName, methodDeclarationLineNumber);
+        this.historyStore = session.getHistoryStore();
     }
 
     @Override
     public History<Method> track() throws Exception {
         HistoryImpl.HistoryReportImpl historyReport = new HistoryImpl.HistoryReportImpl();
-        try (Git git = new Git(repository)) {
-            Version startVersion = gitRepository.getVersion(startCommitId);
-            UMLModel umlModel = getUMLModel(startCommitId, Collections.singleton(filePath));
-            Method start = getMethod(umlModel, startVersion, changeHistory::isStartMethod);
-            if (start == null) {
-                throw new CodeElementNotFoundException(filePath, changeHistory.getMethodName(), changeHistory.getMethodDeclarationLineNumber());
-            }
-            changeHistory.get().addNode(start);
+        try (FileHistoryWalker historyWalker = newFileHistoryWalker()) {
+            Method start = startTracking();
+            trackQueued(historyWalker, historyReport, null, null, new HashSet<>());
+            return finishTracking(historyWalker, start, historyReport);
+        } finally {
+            releaseModels();
+        }
+    }
 
-            changeHistory.addFirst(start);
-            HashSet<String> analysedCommits = new HashSet<>();
-            List<String> commits = null;
-            String lastFileName = null;
-            while (!changeHistory.isEmpty()) {
-                Method currentMethod = changeHistory.poll();
-                if (currentMethod.isAdded() || currentMethod.getVersion().getId().equals("0")) {
-                    commits = null;
-                    continue;
-                }
-                final String currentMethodFilePath = currentMethod.getFilePath();
-                if (commits == null || !currentMethodFilePath.equals(lastFileName)) {
-                    lastFileName = currentMethodFilePath;
-                    commits = getCommits(repository, currentMethod.getVersion().getId(), lastFileName, git);
-                    historyReport.gitLogCommandCallsPlusPlus();
-                    analysedCommits.clear();
-                }
-                if (analysedCommits.containsAll(commits))
-                    break;
-                for (String commitId : commits) {
-                    if (analysedCommits.contains(commitId))
-                        continue;
-                    //System.out.println("processing " + commitId);
-                    analysedCommits.add(commitId);
+    /**
+     * Finds the method to track at the start commit and queues it.
+     */
+    Method startTracking() throws Exception {
+        Version startVersion = gitRepository.getVersion(startCommitId);
+        UMLModel umlModel = getUMLModel(startCommitId, Collections.singleton(filePath));
+        Method start = getMethod(umlModel, startVersion, changeHistory::isStartMethod);
+        if (start == null) {
+            throw new CodeElementNotFoundException(filePath, changeHistory.getMethodName(), changeHistory.getMethodDeclarationLineNumber());
+        }
+        changeHistory.get().addNode(start);
 
-                    Version currentVersion = gitRepository.getVersion(commitId);
-                    String parentCommitId = gitRepository.getParentId(commitId);
-                    Version parentVersion = gitRepository.getVersion(parentCommitId);
+        changeHistory.addFirst(start);
+        return start;
+    }
 
+    Method pollQueued() {
+        return changeHistory.poll();
+    }
 
-                    UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentMethodFilePath));
-                    Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
-                    if (rightMethod == null) {
-                        continue;
-                    }
-                    historyReport.analysedCommitsPlusPlus();
-                    if ("0".equals(parentCommitId)) {
-                        Method leftMethod = Method.of(rightMethod.getUmlOperation(), parentVersion);
-                        changeHistory.get().handleAdd(leftMethod, rightMethod, "Initial commit!");
-                        changeHistory.get().connectRelatedNodes();
-                        changeHistory.add(leftMethod);
-                        break;
-                    }
-                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(currentMethodFilePath));
+    /**
+     * Tracks the queued methods back through the commits of their files, going on with the given commits of
+     * {@code lastFileName}, of which {@code analysedCommits} were analysed already, if not null.
+     */
+    void trackQueued(FileHistoryWalker historyWalker, HistoryImpl.HistoryReportImpl historyReport, List<String> commits, String lastFileName, Set<String> analysedCommits) throws Exception {
+        if (commits != null)
+            commits = prefetchingChanged(commits, lastFileName);
+        while (!changeHistory.isEmpty()) {
+            Method currentMethod = changeHistory.poll();
+            trackedMethod = currentMethod;
+            if (currentMethod.isAdded() || currentMethod.getVersion().getId().equals("0")) {
+                commits = null;
+                continue;
+            }
+            final String currentMethodFilePath = currentMethod.getFilePath();
+            if (commits == null || !currentMethodFilePath.equals(lastFileName)) {
+                lastFileName = currentMethodFilePath;
+                commits = prefetchingChanged(historyWalker.getCommits(currentMethod.getVersion().getId(), lastFileName), lastFileName);
+                historyReport.gitLogCommandCallsPlusPlus();
+                analysedCommits.clear();
+            }
+            if (analysedCommits.containsAll(commits))
+                break;
+            for (String commitId : commits) {
+                if (analysedCommits.contains(commitId))
+                    continue;
+                //System.out.println("processing " + commitId);
+                analysedCommits.add(commitId);
+                currentMethod = analyseCommit(commitId, currentMethod, currentMethodFilePath, historyReport);
+                if (currentMethod == null)
+                    break;
+                trackedMethod = currentMethod;
+            }
+        }
+    }
 
-                    //NO CHANGE
-                    Method leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
-                    if (leftMethod != null) {
-                    	/*
-                    	UMLJavadoc leftJavadoc = leftMethod.getUmlOperation().getJavadoc();
-                		UMLJavadoc rightJavadoc = rightMethod.getUmlOperation().getJavadoc();
-                		if (leftJavadoc != null && rightJavadoc != null && !leftJavadoc.getFullText().equals(rightJavadoc.getFullText())) {
-                			changeHistory.get().addChange(leftMethod, rightMethod, ChangeFactory.forMethod(Change.Type.DOCUMENTATION_CHANGE));
-                			changeHistory.get().connectRelatedNodes();
-                			currentMethod = leftMethod;
-                		}
-                		*/
-                		if (leftMethod.getUmlOperation() instanceof UMLOperation && rightMethod.getUmlOperation() instanceof UMLOperation) {
-                			UMLOperation leftOperation = (UMLOperation)leftMethod.getUmlOperation();
-                			UMLOperation rightOperation = (UMLOperation)rightMethod.getUmlOperation();
-                			if (!leftOperation.getTypeParameters().equals(rightOperation.getTypeParameters())) {
-                				changeHistory.get().addChange(leftMethod, rightMethod, ChangeFactory.forMethod(Change.Type.TYPE_PARAMETER_CHANGE));
-                    			changeHistory.get().connectRelatedNodes();
-                    			currentMethod = leftMethod;
-                			}
-                		}
-                        historyReport.step2PlusPlus();
-                        continue;
-                    }
+    /**
+     * Prefetches the models of the commits, but for the commits the skeletons tell did not change the tracked method.
+     */
+    private List<String> prefetchingChanged(List<String> commits, String filePath) {
+        return prefetching(commits, filePath, commitId -> trackedMethod != null && isUnchangedInSkeletons(trackedMethod, commitId, filePath));
+    }
 
-                    //CHANGE BODY OR DOCUMENT
-                    leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndDocumentAndBody);
+    /**
+     * Analyses what the commit changed in the method, as it is at the version of {@code currentMethod}.
+     *
+     * @return the method to look for in the next commits of the file, or null if the file is not analysed further
+     * for this method, the methods to go on with being queued
+     */
+    Method analyseCommit(String commitId, Method currentMethod, String currentMethodFilePath, HistoryImpl.HistoryReportImpl historyReport) throws Exception {
+        Version currentVersion = gitRepository.getVersion(commitId);
+        String parentCommitId = gitRepository.getParentId(commitId);
+        Version parentVersion = gitRepository.getVersion(parentCommitId);
+
+        //NO CHANGE, told from the skeletons of the file without building its models
+        if (!"0".equals(parentCommitId) && currentMethod.getUmlOperation() instanceof UMLOperation
+                && isUnchangedInSkeletons((UMLOperation) currentMethod.getUmlOperation(), currentMethod.getVersion().getId(), commitId, parentCommitId, currentMethodFilePath)) {
+            historyReport.analysedCommitsPlusPlus();
+            historyReport.step2PlusPlus();
+            return currentMethod;
+        }
 
-                    if (leftMethod != null) {
-                        if (!leftMethod.equalBody(rightMethod))
-                        	changeHistory.get().addChange(leftMethod, rightMethod, ChangeFactory.forMethod(Change.Type.BODY_CHANGE));
-                        if (!leftMethod.equalDocuments(rightMethod))
-                        	changeHistory.get().addChange(leftMethod, rightMethod, ChangeFactory.forMethod(Change.Type.DOCUMENTATION_CHANGE));
-                        /*
-                        UMLJavadoc leftJavadoc = leftMethod.getUmlOperation().getJavadoc();
-                		UMLJavadoc rightJavadoc = rightMethod.getUmlOperation().getJavadoc();
-                		if (leftJavadoc != null && rightJavadoc != null && !leftJavadoc.getFullText().equals(rightJavadoc.getFullText())) {
-                			changeHistory.get().addChange(leftMethod, rightMethod, ChangeFactory.forMethod(Change.Type.DOCUMENTATION_CHANGE));
-                		}
-                		*/
-                        if (leftMethod.getUmlOperation() instanceof UMLOperation && rightMethod.getUmlOperation() instanceof UMLOperation) {
-                			UMLOperation leftOperation = (UMLOperation)leftMethod.getUmlOperation();
-                			UMLOperation rightOperation = (UMLOperation)rightMethod.getUmlOperation();
-                			if (!leftOperation.getTypeParameters().equals(rightOperation.getTypeParameters())) {
-                				changeHistory.get().addChange(leftMethod, rightMethod, ChangeFactory.forMethod(Change.Type.TYPE_PARAMETER_CHANGE));
-                			}
-                		}
-                        changeHistory.get().connectRelatedNodes();
-                        currentMethod = leftMethod;
-                        historyReport.step3PlusPlus();
-                        continue;
-                    }
+        UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentMethodFilePath));
+        Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
+        if (rightMethod == null) {
+            return currentMethod;
+        }
+        if (historyStore != null && spliceStoredHistory(rightMethod)) {
+            return null;
+        }
+        historyReport.analysedCommitsPlusPlus();
+        if ("0".equals(parentCommitId)) {
+            Method leftMethod = Method.of(rightMethod.getUmlOperation(), parentVersion);
+            changeHistory.get().handleAdd(leftMethod, rightMethod, "Initial commit!");
+            changeHistory.get().connectRelatedNodes();
+            changeHistory.add(leftMethod);
+            return null;
+        }
+        UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, currentMethodFilePath, rightModel);
+
+        //NO CHANGE
+        Method leftMethod = getMethodWithIdentifier(leftModel, parentVersion, rightMethod);
+        if (leftMethod != null) {
+        	/*
+        	UMLJavadoc leftJavadoc = leftMethod.getUmlOperation().getJavadoc();
+    		UMLJavadoc rightJavadoc = rightMethod.getUmlOperation().getJavadoc();
+    		if (leftJavadoc != null && rightJavadoc != null && !leftJavadoc.getFullText().equals(rightJavadoc.getFullText())) {
+    			changeHistory.get().addChange(leftMethod, rightMethod, ChangeFactory.forMethod(Change.Type.DOCUMENTATION_CHANGE));
+    			changeHistory.get().connectRelatedNodes();
+    			currentMethod = leftMethod;
+    		}
+    		*/
+    		if (leftMethod.getUmlOperation() instanceof UMLOperation && rightMethod.getUmlOperation() instanceof UMLOperation) {
+    			UMLOperation leftOperation = (UMLOperation)leftMethod.getUmlOperation();
+    			UMLOperation rightOperation = (UMLOperation)rightMethod.getUmlOperation();
+    			if (!leftOperation.getTypeParameters().equals(rightOperation.getTypeParameters())) {
+    				changeHistory.get().addChange(leftMethod, rightMethod, ChangeFactory.forMethod(Change.Type.TYPE_PARAMETER_CHANGE));
+        			changeHistory.get().connectRelatedNodes();
+        			currentMethod = leftMethod;
+    			}
+    		}
+            historyReport.step2PlusPlus();
+            return currentMethod;
+        }
 
-                    //Local Refactoring
-                    UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
-                    {
-                        List<Refactoring> refactorings = umlModelDiffLocal.getRefactorings();
-                        Set<Method> leftSideMethods = changeHistory.analyseMethodRefactorings(refactorings, currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
-                        boolean refactored = !leftSideMethods.isEmpty();
-                        if (refactored) {
-                            leftSideMethods.forEach(changeHistory::addFirst);
-                            historyReport.step4PlusPlus();
-                            break;
-                        }
-                    }
-                    //All refactorings
-                    {
-                        CommitModel commitModel = getCommitModel(commitId);
-                        if (!commitModel.moveSourceFolderRefactorings.isEmpty()) {
-                            Set<Method> methodContainerChanged = null;
-                            boolean containerChanged = false;
-                            boolean found = false;
-                            for (MoveSourceFolderRefactoring moveSourceFolderRefactoring : commitModel.moveSourceFolderRefactorings) {
-                                if (found)
-                                    break;
-                                for (Map.Entry<String, String> identicalPath : moveSourceFolderRefactoring.getIdenticalFilePaths().entrySet()) {
-                                    if (identicalPath.getValue().equals(currentMethodFilePath)) {
-                                        String leftSideFileName = identicalPath.getKey();
+        //CHANGE BODY OR DOCUMENT
+        leftMethod = getMethodWithIdentifierIgnoringDocumentAndBody(leftModel, parentVersion, rightMethod);
+
+        if (leftMethod != null) {
+            if (!leftMethod.equalBody(rightMethod))
+            	changeHistory.get().addChange(leftMethod, rightMethod, ChangeFactory.forMethod(Change.Type.BODY_CHANGE));
+            if (!leftMethod.equalDocuments(rightMethod))
+            	changeHistory.get().addChange(leftMethod, rightMethod, ChangeFactory.forMethod(Change.Type.DOCUMENTATION_CHANGE));
+            /*
+            UMLJavadoc leftJavadoc = leftMethod.getUmlOperation().getJavadoc();
+    		UMLJavadoc rightJavadoc = rightMethod.getUmlOperation().getJavadoc();
+    		if (leftJavadoc != null && rightJavadoc != null && !leftJavadoc.getFullText().equals(rightJavadoc.getFullText())) {
+    			changeHistory.get().addChange(leftMethod, rightMethod, ChangeFactory.forMethod(Change.Type.DOCUMENTATION_CHANGE));
+    		}
+    		*/
+            if (leftMethod.getUmlOperation() instanceof UMLOperation && rightMethod.getUmlOperation() instanceof UMLOperation) {
+    			UMLOperation leftOperation = (UMLOperation)leftMethod.getUmlOperation();
+    			UMLOperation rightOperation = (UMLOperation)rightMethod.getUmlOperation();
+    			if (!leftOperation.getTypeParameters().equals(rightOperation.getTypeParameters())) {
+    				changeHistory.get().addChange(leftMethod, rightMethod, ChangeFactory.forMethod(Change.Type.TYPE_PARAMETER_CHANGE));
+    			}
+    		}
+            changeHistory.get().connectRelatedNodes();
+            currentMethod = leftMethod;
+            historyReport.step3PlusPlus();
+            return currentMethod;
+        }
 
-                                        UMLModel leftSideUMLModel = GitHistoryRefactoringMinerImpl.createModel(commitModel.fileContentsBeforeOriginal.entrySet().stream().filter(map -> map.getKey().equals(leftSideFileName)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)), commitModel.repositoryDirectoriesBefore);
-                                        UMLClass originalClass = null;
-                                        for(UMLClass leftSideClass : leftSideUMLModel.getClassList()){
-                                            if(leftSideClass.getName().equals(currentMethod.getUmlOperation().getClassName())){
-                                                originalClass = leftSideClass;
-                                                break;
-                                            }
-                                        }
-                                        UMLModel rightSideUMLModel = GitHistoryRefactoringMinerImpl.createModel(commitModel.fileContentsCurrentOriginal.entrySet().stream().filter(map -> map.getKey().equals(currentMethodFilePath)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)), commitModel.repositoryDirectoriesCurrent);
-                                        UMLClass movedClass = null;
-                                        for(UMLClass rightSideClass : rightSideUMLModel.getClassList()){
-                                            if(rightSideClass.getName().equals(currentMethod.getUmlOperation().getClassName())){
-                                                movedClass = rightSideClass;
-                                                break;
-                                            }
-                                        }
-                                        moveSourceFolderRefactoring.getMovedClassesToAnotherSourceFolder().add(new MovedClassToAnotherSourceFolder(originalClass, movedClass, identicalPath.getKey(), identicalPath.getValue()));
-                                        methodContainerChanged = changeHistory.isMethodContainerChanged(null, Collections.singletonList(moveSourceFolderRefactoring), currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion, Collections.emptyList());
-                                        containerChanged = !methodContainerChanged.isEmpty();
-                                        found = true;
-                                        break;
-                                    }
+        //Local Refactoring
+        UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, currentMethodFilePath, leftModel, rightModel);
+        {
+            List<Refactoring> refactorings = umlModelDiffLocal.getRefactorings();
+            Set<Method> leftSideMethods = changeHistory.analyseMethodRefactorings(refactorings, currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+            boolean refactored = !leftSideMethods.isEmpty();
+            if (refactored) {
+                leftSideMethods.forEach(changeHistory::addFirst);
+                historyReport.step4PlusPlus();
+                return null;
+            }
+        }
+        //All refactorings
+        {
+            CommitModel commitModel = getCommitModel(commitId);
+            if (!commitModel.moveSourceFolderRefactorings.isEmpty()) {
+                Set<Method> methodContainerChanged = null;
+                boolean containerChanged = false;
+                boolean found = false;
+                for (MoveSourceFolderRefactoring moveSourceFolderRefactoring : commitModel.moveSourceFolderRefactorings) {
+                    if (found)
+                        break;
+                    for (Map.Entry<String, String> identicalPath : moveSourceFolderRefactoring.getIdenticalFilePaths().entrySet()) {
+                        if (identicalPath.getValue().equals(currentMethodFilePath)) {
+                            String leftSideFileName = identicalPath.getKey();
+
+                            UMLModel leftSideUMLModel = commitModel.createModelBefore(leftSideFileName);
+                            UMLClass originalClass = null;
+                            for(UMLClass leftSideClass : leftSideUMLModel.getClassList()){
+                                if(leftSideClass.getName().equals(currentMethod.getUmlOperation().getClassName())){
+                                    originalClass = leftSideClass;
+                                    break;
                                 }
                             }
-                            if (containerChanged) {
-                                methodContainerChanged.forEach(changeHistory::addFirst);
-                                historyReport.step5PlusPlus();
-                                break;
+                            UMLModel rightSideUMLModel = commitModel.createModelCurrent(currentMethodFilePath);
+                            UMLClass movedClass = null;
+                            for(UMLClass rightSideClass : rightSideUMLModel.getClassList()){
+                                if(rightSideClass.getName().equals(currentMethod.getUmlOperation().getClassName())){
+                                    movedClass = rightSideClass;
+                                    break;
+                                }
                             }
+                            moveSourceFolderRefactoring.getMovedClassesToAnotherSourceFolder().add(new MovedClassToAnotherSourceFolder(originalClass, movedClass, identicalPath.getKey(), identicalPath.getValue()));
+                            methodContainerChanged = changeHistory.isMethodContainerChanged(null, Collections.singletonList(moveSourceFolderRefactoring), currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion, Collections.emptyList());
+                            containerChanged = !methodContainerChanged.isEmpty();
+                            found = true;
+                            break;
                         }
-                        {
-                            Set<String> fileNames = getRightSideFileNames(currentMethod, commitModel, umlModelDiffLocal);
-                            Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, currentMethodFilePath, fileNames::contains, false);
-                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                    }
+                }
+                if (containerChanged) {
+                    methodContainerChanged.forEach(changeHistory::addFirst);
+                    historyReport.step5PlusPlus();
+                    return null;
+                }
+            }
+            {
+                Set<String> fileNames = getRightSideFileNames(currentMethod, commitModel, umlModelDiffLocal);
+                boolean refactoringsStored = addStoredOriginalFilePaths(commitId, commitModel, currentMethodFilePath, fileNames, rightMethod);
+                UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentMethodFilePath, fileNames);
+
+                Set<Refactoring> moveRenameClassRefactorings = umlModelDiffAll.getMoveRenameClassRefactorings();
+                Set<Method> methodContainerChanged = changeHistory.isMethodContainerChanged(umlModelDiffAll, moveRenameClassRefactorings, currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion, getClassMoveDiffList(umlModelDiffAll));
+                if (!methodContainerChanged.isEmpty()) {
+                    UMLClassBaseDiff classDiff = umlModelDiffAll.getUMLClassDiff(rightMethod.getUmlOperation().getClassName());
+                    if (classDiff != null) {
+                        List<Refactoring> classLevelRefactorings = classDiff.getRefactorings();
+                        changeHistory.analyseMethodRefactorings(classLevelRefactorings, currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+                    }
+                    Set<Method> leftMethods = new HashSet<>();
+                    leftMethods.addAll(methodContainerChanged);
+                    leftMethods.forEach(changeHistory::addFirst);
+                    historyReport.step5PlusPlus();
+                    return null;
+                }
 
-                            Set<Refactoring> moveRenameClassRefactorings = umlModelDiffAll.getMoveRenameClassRefactorings();
-                            Set<Method> methodContainerChanged = changeHistory.isMethodContainerChanged(umlModelDiffAll, moveRenameClassRefactorings, currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion, getClassMoveDiffList(umlModelDiffAll));
-                            if (!methodContainerChanged.isEmpty()) {
-                                UMLClassBaseDiff classDiff = umlModelDiffAll.getUMLClassDiff(rightMethod.getUmlOperation().getClassName());
-                                if (classDiff != null) {
-                                    List<Refactoring> classLevelRefactorings = classDiff.getRefactorings();
-                                    changeHistory.analyseMethodRefactorings(classLevelRefactorings, currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
-                                }
-                                Set<Method> leftMethods = new HashSet<>();
-                                leftMethods.addAll(methodContainerChanged);
-                                leftMethods.forEach(changeHistory::addFirst);
-                                historyReport.step5PlusPlus();
-                                break;
-                            }
+                List<Refactoring> refactorings = umlModelDiffAll.getRefactorings();
+                if (!refactoringsStored)
+                    storeRefactorings(commitId, commitModel, currentMethodFilePath, fileNames, refactorings, currentVersion);
+                boolean flag = false;
+                for (Refactoring refactoring : refactorings) {
+                    if (RefactoringType.MOVE_AND_RENAME_OPERATION.equals(refactoring.getRefactoringType()) || RefactoringType.MOVE_OPERATION.equals(refactoring.getRefactoringType())) {
+                        MoveOperationRefactoring moveOperationRefactoring = (MoveOperationRefactoring) refactoring;
+                        Method movedOperation = Method.of(moveOperationRefactoring.getMovedOperation(), currentVersion);
+                        if (rightMethod.equalIdentifierIgnoringVersion(movedOperation)) {
+                            fileNames.add(moveOperationRefactoring.getOriginalOperation().getLocationInfo().getFilePath());
+                            flag = true;
+                        }
+                    }
+                }
+                if (flag) {
+                    umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentMethodFilePath, fileNames);
+                    refactorings = umlModelDiffAll.getRefactorings();
+                }
 
-                            List<Refactoring> refactorings = umlModelDiffAll.getRefactorings();
-                            boolean flag = false;
-                            for (Refactoring refactoring : refactorings) {
-                                if (RefactoringType.MOVE_AND_RENAME_OPERATION.equals(refactoring.getRefactoringType()) || RefactoringType.MOVE_OPERATION.equals(refactoring.getRefactoringType())) {
-                                    MoveOperationRefactoring moveOperationRefactoring = (MoveOperationRefactoring) refactoring;
-                                    Method movedOperation = Method.of(moveOperationRefactoring.getMovedOperation(), currentVersion);
-                                    if (rightMethod.equalIdentifierIgnoringVersion(movedOperation)) {
-                                        fileNames.add(moveOperationRefactoring.getOriginalOperation().getLocationInfo().getFilePath());
-                                        flag = true;
-                                    }
-                                }
-                            }
-                            if (flag) {
-                                umlModelPairAll = getUMLModelPair(commitModel, currentMethodFilePath, fileNames::contains, false);
-                                umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
-                                refactorings = umlModelDiffAll.getRefactorings();
-                            }
+                methodContainerChanged = changeHistory.isMethodContainerChanged(umlModelDiffAll, refactorings, currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion, getClassMoveDiffList(umlModelDiffAll));
+                boolean containerChanged = !methodContainerChanged.isEmpty();
 
-                            methodContainerChanged = changeHistory.isMethodContainerChanged(umlModelDiffAll, refactorings, currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion, getClassMoveDiffList(umlModelDiffAll));
-                            boolean containerChanged = !methodContainerChanged.isEmpty();
+                Set<Method> methodRefactored = changeHistory.analyseMethodRefactorings(refactorings, currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+                boolean refactored = !methodRefactored.isEmpty();
 
-                            Set<Method> methodRefactored = changeHistory.analyseMethodRefactorings(refactorings, currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
-                            boolean refactored = !methodRefactored.isEmpty();
+                if (containerChanged || refactored) {
+                    Set<Method> leftMethods = new HashSet<>();
+                    leftMethods.addAll(methodContainerChanged);
+                    leftMethods.addAll(methodRefactored);
+                    leftMethods.forEach(changeHistory::addFirst);
+                    historyReport.step5PlusPlus();
+                    return null;
+                }
 
-                            if (containerChanged || refactored) {
-                                Set<Method> leftMethods = new HashSet<>();
-                                leftMethods.addAll(methodContainerChanged);
-                                leftMethods.addAll(methodRefactored);
-                                leftMethods.forEach(changeHistory::addFirst);
-                                historyReport.step5PlusPlus();
-                                break;
-                            }
+                if (changeHistory.isMethodAdded(umlModelDiffAll, rightMethod.getUmlOperation().getLocationInfo().getSourceFolder(), rightMethod.getUmlOperation().getClassName(), currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion, getAllClassesDiff(umlModelDiffAll))) {
+                    historyReport.step5PlusPlus();
+                    return null;
+                }
+            }
+        }
+        return currentMethod;
+    }
 
-                            if (changeHistory.isMethodAdded(umlModelDiffAll, rightMethod.getUmlOperation().getLocationInfo().getSourceFolder(), rightMethod.getUmlOperation().getClassName(), currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion, getAllClassesDiff(umlModelDiffAll))) {
-                                historyReport.step5PlusPlus();
-                                break;
-                            }
-                        }
-                    }
+    History<Method> finishTracking(FileHistoryWalker historyWalker, Method start, HistoryImpl.HistoryReportImpl historyReport) throws IOException {
+        Graph<Method, Edge> graph = changeHistory.get().getCompleteGraph();
+        if (historyStore != null) {
+            List<String> startCommits = historyWalker.getCommits(startCommitId, filePath);
+            if (!startCommits.isEmpty())
+                historyStore.save(start, startCommits.get(0), graph);
+        }
+        return new HistoryImpl<>(graph, historyReport);
+    }
+
+    /**
+     * Splices in the stored history leading to {@code rightMethod} at its commit, if it is a stored node or the
+     * frontier of a stored history, so that the older commits are not analysed again.
+     */
+    private boolean spliceStoredHistory(Method rightMethod) {
+        HistoryStore.StoredHistory storedHistory;
+        try {
+            storedHistory = historyStore.lookup(rightMethod.getIdentifierIgnoringVersion(), rightMethod.getFilePath(), rightMethod.getVersion().getId());
+        }
+        catch (IOException e) {
+            logger.error("Error in reading the stored history of " + rightMethod.getIdentifierIgnoringVersion() + " at commit " + rightMethod.getVersion().getId(), e);
+            return false;
+        }
+        if (storedHistory == null)
+            return false;
+        HistoryStore.Node start = storedHistory.getNodes().get(storedHistory.getStart());
+        Map<String, UMLModel> models = new HashMap<>();
+        if (!changeHistory.get().addStoredHistory(storedHistory, node -> restore(node, node == start ? rightMethod : null, models)))
+            return false;
+        changeHistory.get().connectRelatedNodes();
+        return true;
+    }
+
+    /**
+     * Restores a stored method from {@code frontier}, the method the stored history is spliced at, whose file did not
+     * change since the start of the stored history, or else from the model it was stored with, each model being
+     * fetched once for the splice and looked up in its index.
+     */
+    private Method restore(HistoryStore.Node node, Method frontier, Map<String, UMLModel> models) {
+        try {
+            Method model = frontier;
+            if (model == null || !model.getIdentifierIgnoringVersion().equals(node.getIdentifierIgnoringVersion())) {
+                String modelKey = node.getModelCommitId() + ":" + node.getModelFilePath();
+                UMLModel umlModel = models.get(modelKey);
+                if (umlModel == null) {
+                    umlModel = getUMLModel(node.getModelCommitId(), Collections.singleton(node.getModelFilePath()));
+                    models.put(modelKey, umlModel);
                 }
+                model = umlModel != null ? ElementIndex.of(umlModel).getMethod(node.getVersion(), node.getIdentifierIgnoringVersion()) : null;
             }
-            return new HistoryImpl<>(changeHistory.get().getCompleteGraph(), historyReport);
+            if (model == null)
+                return null;
+            Method method = Method.of(model.getUmlOperation(), node.getVersion());
+            method.setAdded(node.isAdded());
+            method.setRemoved(node.isRemoved());
+            return method;
+        }
+        catch (Exception e) {
+            logger.error("Error in restoring the stored method " + node.getIdentifierIgnoringVersion() + " at commit " + node.getVersion().getId(), e);
+            return null;
         }
     }
 
     public History.HistoryInfo<Method> blame() throws Exception {
         HistoryImpl.HistoryReportImpl historyReport = new HistoryImpl.HistoryReportImpl();
-        try (Git git = new Git(repository)) {
+        try (FileHistoryWalker historyWalker = newFileHistoryWalker()) {
             Version startVersion = gitRepository.getVersion(startCommitId);
             UMLModel umlModel = getUMLModel(startCommitId, Collections.singleton(filePath));
             Method start = getMethod(umlModel, startVersion, changeHistory::isStartMethod);
@@ -278,6 +417,7 @@ public class MethodTrackerImpl extends BaseTracker implements MethodTracker {
             	History.HistoryInfo<Method> blame = changeHistory.blameReturn(start);
             	if (blame != null) return blame;
                 Method currentMethod = changeHistory.poll();
+                trackedMethod = currentMethod;
                 if (currentMethod.isAdded() || currentMethod.getVersion().getId().equals("0")) {
                     commits = null;
                     continue;
@@ -285,7 +425,7 @@ public class MethodTrackerImpl extends BaseTracker implements MethodTracker {
                 final String currentMethodFilePath = currentMethod.getFilePath();
                 if (commits == null || !currentMethodFilePath.equals(lastFileName)) {
                     lastFileName = currentMethodFilePath;
-                    commits = getCommits(repository, currentMethod.getVersion().getId(), lastFileName, git);
+                    commits = prefetchingChanged(historyWalker.getCommits(currentMethod.getVersion().getId(), lastFileName), lastFileName);
                     historyReport.gitLogCommandCallsPlusPlus();
                     analysedCommits.clear();
                 }
@@ -296,14 +436,22 @@ public class MethodTrackerImpl extends BaseTracker implements MethodTracker {
                         continue;
                     //System.out.println("processing " + commitId);
                     analysedCommits.add(commitId);
+                    trackedMethod = currentMethod;
 
                     Version currentVersion = gitRepository.getVersion(commitId);
                     String parentCommitId = gitRepository.getParentId(commitId);
                     Version parentVersion = gitRepository.getVersion(parentCommitId);
 
+                    //NO CHANGE, told from the skeletons of the file without building its models
+                    if (!"0".equals(parentCommitId) && currentMethod.getUmlOperation() instanceof UMLOperation
+                            && isUnchangedInSkeletons((UMLOperation) currentMethod.getUmlOperation(), currentMethod.getVersion().getId(), commitId, parentCommitId, currentMethodFilePath)) {
+                        historyReport.analysedCommitsPlusPlus();
+                        historyReport.step2PlusPlus();
+                        continue;
+                    }
 
                     UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentMethodFilePath));
-                    Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+                    Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
                     if (rightMethod == null) {
                         continue;
                     }
@@ -315,17 +463,17 @@ public class MethodTrackerImpl extends BaseTracker implements MethodTracker {
                         changeHistory.add(leftMethod);
                         break;
                     }
-                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(currentMethodFilePath));
+                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, currentMethodFilePath, rightModel);
 
                     //NO CHANGE
-                    Method leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+                    Method leftMethod = getMethodWithIdentifier(leftModel, parentVersion, rightMethod);
                     if (leftMethod != null) {
                         historyReport.step2PlusPlus();
                         continue;
                     }
 
                     //CHANGE BODY OR DOCUMENT
-                    leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndDocumentAndBody);
+                    leftMethod = getMethodWithIdentifierIgnoringDocumentAndBody(leftModel, parentVersion, rightMethod);
 
                     if (leftMethod != null) {
                         if (!leftMethod.equalBody(rightMethod))
@@ -339,7 +487,7 @@ public class MethodTrackerImpl extends BaseTracker implements MethodTracker {
                     }
 
                     //Local Refactoring
-                    UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
+                    UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, currentMethodFilePath, leftModel, rightModel);
                     {
                         List<Refactoring> refactorings = umlModelDiffLocal.getRefactorings();
                         Set<Method> leftSideMethods = changeHistory.analyseMethodRefactorings(refactorings, currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
@@ -364,7 +512,7 @@ public class MethodTrackerImpl extends BaseTracker implements MethodTracker {
                                     if (identicalPath.getValue().equals(currentMethodFilePath)) {
                                         String leftSideFileName = identicalPath.getKey();
 
-                                        UMLModel leftSideUMLModel = GitHistoryRefactoringMinerImpl.createModel(commitModel.fileContentsBeforeOriginal.entrySet().stream().filter(map -> map.getKey().equals(leftSideFileName)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)), commitModel.repositoryDirectoriesBefore);
+                                        UMLModel leftSideUMLModel = commitModel.createModelBefore(leftSideFileName);
                                         UMLClass originalClass = null;
                                         for(UMLClass leftSideClass : leftSideUMLModel.getClassList()){
                                             if(leftSideClass.getName().equals(currentMethod.getUmlOperation().getClassName())){
@@ -372,7 +520,7 @@ public class MethodTrackerImpl extends BaseTracker implements MethodTracker {
                                                 break;
                                             }
                                         }
-                                        UMLModel rightSideUMLModel = GitHistoryRefactoringMinerImpl.createModel(commitModel.fileContentsCurrentOriginal.entrySet().stream().filter(map -> map.getKey().equals(currentMethodFilePath)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)), commitModel.repositoryDirectoriesCurrent);
+                                        UMLModel rightSideUMLModel = commitModel.createModelCurrent(currentMethodFilePath);
                                         UMLClass movedClass = null;
                                         for(UMLClass rightSideClass : rightSideUMLModel.getClassList()){
                                             if(rightSideClass.getName().equals(currentMethod.getUmlOperation().getClassName())){
@@ -396,8 +544,8 @@ public class MethodTrackerImpl extends BaseTracker implements MethodTracker {
                         }
                         {
                             Set<String> fileNames = getRightSideFileNames(currentMethod, commitModel, umlModelDiffLocal);
-                            Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, currentMethodFilePath, fileNames::contains, false);
-                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                            boolean refactoringsStored = addStoredOriginalFilePaths(commitId, commitModel, currentMethodFilePath, fileNames, rightMethod);
+                            UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentMethodFilePath, fileNames);
 
                             Set<Refactoring> moveRenameClassRefactorings = umlModelDiffAll.getMoveRenameClassRefactorings();
                             Set<Method> methodContainerChanged = changeHistory.isMethodContainerChanged(umlModelDiffAll, moveRenameClassRefactorings, currentVersion, parentVersion, rightMethod::equalIdentifierIgnoringVersion, getClassMoveDiffList(umlModelDiffAll));
@@ -415,6 +563,8 @@ public class MethodTrackerImpl extends BaseTracker implements MethodTracker {
                             }
 
                             List<Refactoring> refactorings = umlModelDiffAll.getRefactorings();
+                            if (!refactoringsStored)
+                                storeRefactorings(commitId, commitModel, currentMethodFilePath, fileNames, refactorings, currentVersion);
                             boolean flag = false;
                             for (Refactoring refactoring : refactorings) {
                                 if (RefactoringType.MOVE_AND_RENAME_OPERATION.equals(refactoring.getRefactoringType()) || RefactoringType.MOVE_OPERATION.equals(refactoring.getRefactoringType())) {
@@ -427,8 +577,7 @@ public class MethodTrackerImpl extends BaseTracker implements MethodTracker {
                                 }
                             }
                             if (flag) {
-                                umlModelPairAll = getUMLModelPair(commitModel, currentMethodFilePath, fileNames::contains, false);
-                                umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                                umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentMethodFilePath, fileNames);
                                 refactorings = umlModelDiffAll.getRefactorings();
                             }
 
@@ -455,6 +604,8 @@ public class MethodTrackerImpl extends BaseTracker implements MethodTracker {
                     }
                 }
             }
+        } finally {
+            releaseModels();
         }
         return null;
     }
@@ -16,7 +16,6 @@ import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
 
 import java.io.File;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class MethodTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles implements MethodTracker {
 	private final MethodTrackerChangeHistory changeHistory;
@@ -84,7 +83,7 @@ public class MethodTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles i
             	leftModel.setPartial(true);
             	UMLModel rightModel = GitHistoryRefactoringMinerImpl.createModel(lightCommitModel.fileContentsCurrentOriginal, lightCommitModel.repositoryDirectoriesCurrent);
             	rightModel.setPartial(true);
-                Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+                Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
                 if (rightMethod == null) {
                     continue;
                 }
@@ -98,7 +97,7 @@ public class MethodTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles i
                 }
 
                 //NO CHANGE
-                Method leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+                Method leftMethod = getMethodWithIdentifier(leftModel, parentVersion, rightMethod);
                 if (leftMethod != null) {
                 	if (leftMethod.getUmlOperation() instanceof UMLOperation && rightMethod.getUmlOperation() instanceof UMLOperation) {
             			UMLOperation leftOperation = (UMLOperation)leftMethod.getUmlOperation();
@@ -114,7 +113,7 @@ public class MethodTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles i
                 }
 
                 //CHANGE BODY OR DOCUMENT
-                leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndDocumentAndBody);
+                leftMethod = getMethodWithIdentifierIgnoringDocumentAndBody(leftModel, parentVersion, rightMethod);
 
                 if (leftMethod != null) {
                     if (!leftMethod.equalBody(rightMethod))
@@ -160,7 +159,7 @@ public class MethodTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles i
                                 if (identicalPath.getValue().equals(currentMethodFilePath)) {
                                     String leftSideFileName = identicalPath.getKey();
 
-                                    UMLModel leftSideUMLModel = GitHistoryRefactoringMinerImpl.createModel(commitModel.fileContentsBeforeOriginal.entrySet().stream().filter(map -> map.getKey().equals(leftSideFileName)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)), commitModel.repositoryDirectoriesBefore);
+                                    UMLModel leftSideUMLModel = commitModel.createModelBefore(leftSideFileName);
                                     UMLClass originalClass = null;
                                     for(UMLClass leftSideClass : leftSideUMLModel.getClassList()){
                                         if(leftSideClass.getName().equals(currentMethod.getUmlOperation().getClassName())){
@@ -168,7 +167,7 @@ public class MethodTrackerWithLocalFilesImpl extends BaseTrackerWithLocalFiles i
                                             break;
                                         }
                                     }
-                                    UMLModel rightSideUMLModel = GitHistoryRefactoringMinerImpl.createModel(commitModel.fileContentsCurrentOriginal.entrySet().stream().filter(map -> map.getKey().equals(currentMethodFilePath)).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)), commitModel.repositoryDirectoriesCurrent);
+                                    UMLModel rightSideUMLModel = commitModel.createModelCurrent(currentMethodFilePath);
                                     UMLClass movedClass = null;
                                     for(UMLClass rightSideClass : rightSideUMLModel.getClassList()){
                                         if(rightSideClass.getName().equals(currentMethod.getUmlOperation().getClassName())){
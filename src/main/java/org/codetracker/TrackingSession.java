@@ -0,0 +1,218 @@
+package org.codetracker;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import org.codetracker.api.*;
+import org.codetracker.util.*;
+import org.eclipse.jgit.lib.Repository;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The state the trackers of a repository share across runs: the commit metadata, the parsed models, the diffs, the
+ * commits already walked and the optional stores and worker pools. The trackers created from a session, see
+ * {@link CodeTracker#session(Repository)}, use these instead of creating their own, so a long-lived session, e.g.,
+ * one per repository in a server, keeps all of them warm from one request to the next.
+ * <p>
+ * A tracker is used by one thread at a time, but the trackers of a session can run concurrently: the commit metadata
+ * cache, the commit graph index and the stores are thread-safe, and the model and diff caches hand each model and diff
+ * to one tracker at a time, since refactoring detection updates the models it diffs, see {@link UMLModelCache}. The
+ * session keeps one history walker per thread.
+ */
+public class TrackingSession implements AutoCloseable {
+    private final Repository repository;
+    private final UMLModelCache umlModelCache;
+    private final CommitGraphIndex commitGraphIndex;
+    private final CommitMetadataCache commitMetadataCache;
+    private final UMLModelPrefetcher umlModelPrefetcher;
+    private final UMLModelDiffCache umlModelDiffCache;
+    private final RefactoringStore refactoringStore;
+    private final ParallelUMLModelBuilder parallelUMLModelBuilder;
+    private final HistoryStore historyStore;
+    private final Cache<Thread, FileHistoryWalker> fileHistoryWalkers = CacheBuilder.newBuilder()
+            .weakKeys()
+            .removalListener((RemovalNotification<Thread, FileHistoryWalker> notification) -> notification.getValue().close())
+            .build();
+
+    private TrackingSession(Builder builder) {
+        this.repository = builder.repository;
+        this.umlModelCache = builder.umlModelCache != null ? builder.umlModelCache : new BoundedUMLModelCache();
+        this.commitGraphIndex = builder.commitGraphIndex;
+        this.commitMetadataCache = builder.commitMetadataCache != null ? builder.commitMetadataCache : new CommitMetadataCache();
+        this.umlModelPrefetcher = builder.umlModelPrefetcher;
+        this.umlModelDiffCache = builder.umlModelDiffCache != null ? builder.umlModelDiffCache : new UMLModelDiffCache();
+        this.refactoringStore = builder.refactoringStore;
+        this.parallelUMLModelBuilder = builder.parallelUMLModelBuilder;
+        this.historyStore = builder.historyStore;
+    }
+
+    public static Builder builder(Repository repository) {
+        return new Builder(repository);
+    }
+
+    public Repository getRepository() {
+        return repository;
+    }
+
+    public UMLModelCache getUMLModelCache() {
+        return umlModelCache;
+    }
+
+    public CommitGraphIndex getCommitGraphIndex() {
+        return commitGraphIndex;
+    }
+
+    public CommitMetadataCache getCommitMetadataCache() {
+        return commitMetadataCache;
+    }
+
+    public UMLModelPrefetcher getUMLModelPrefetcher() {
+        return umlModelPrefetcher;
+    }
+
+    public UMLModelDiffCache getUMLModelDiffCache() {
+        return umlModelDiffCache;
+    }
+
+    public RefactoringStore getRefactoringStore() {
+        return refactoringStore;
+    }
+
+    public ParallelUMLModelBuilder getParallelUMLModelBuilder() {
+        return parallelUMLModelBuilder;
+    }
+
+    /**
+     * @return the store of the method histories, or null; it is used by the method trackers only
+     */
+    public HistoryStore getHistoryStore() {
+        return historyStore;
+    }
+
+    /**
+     * @return the walker of the calling thread, created on first use and closed with the session or once the thread
+     * is gone
+     */
+    FileHistoryWalker getFileHistoryWalker() {
+        try {
+            return fileHistoryWalkers.get(Thread.currentThread(), () -> new FileHistoryWalker(repository, commitGraphIndex));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public MethodTracker.Builder methodTracker() {
+        return CodeTracker.methodTracker().session(this);
+    }
+
+    public BatchMethodTracker.Builder batchMethodTracker() {
+        return CodeTracker.batchMethodTracker().session(this);
+    }
+
+    public VariableTracker.Builder variableTracker() {
+        return CodeTracker.variableTracker().session(this);
+    }
+
+    public AttributeTracker.Builder attributeTracker() {
+        return CodeTracker.attributeTracker().session(this);
+    }
+
+    public BlockTracker.Builder blockTracker() {
+        return CodeTracker.blockTracker().session(this);
+    }
+
+    public CommentTracker.Builder commentTracker() {
+        return CodeTracker.commentTracker().session(this);
+    }
+
+    public AnnotationTracker.Builder annotationTracker() {
+        return CodeTracker.annotationTracker().session(this);
+    }
+
+    public ImportTracker.Builder importTracker() {
+        return CodeTracker.importTracker().session(this);
+    }
+
+    public ClassTracker.Builder classTracker() {
+        return CodeTracker.classTracker().session(this);
+    }
+
+    /**
+     * Closes the history walkers, once no tracker of the session is running. The caches, stores and pools the session
+     * was given are left open, as they may be shared with other sessions.
+     */
+    @Override
+    public void close() {
+        fileHistoryWalkers.invalidateAll();
+    }
+
+    public static class Builder {
+        private final Repository repository;
+        private UMLModelCache umlModelCache;
+        private CommitGraphIndex commitGraphIndex;
+        private CommitMetadataCache commitMetadataCache;
+        private UMLModelPrefetcher umlModelPrefetcher;
+        private UMLModelDiffCache umlModelDiffCache;
+        private RefactoringStore refactoringStore;
+        private ParallelUMLModelBuilder parallelUMLModelBuilder;
+        private HistoryStore historyStore;
+
+        private Builder(Repository repository) {
+            this.repository = repository;
+        }
+
+        public Builder umlModelCache(UMLModelCache umlModelCache) {
+            this.umlModelCache = umlModelCache;
+            return this;
+        }
+
+        public Builder commitGraphIndex(CommitGraphIndex commitGraphIndex) {
+            this.commitGraphIndex = commitGraphIndex;
+            return this;
+        }
+
+        public Builder commitMetadataCache(CommitMetadataCache commitMetadataCache) {
+            this.commitMetadataCache = commitMetadataCache;
+            return this;
+        }
+
+        /**
+         * Parses the models of the upcoming commits in advance. The method trackers skip the commits the skeletons of
+         * the file tell did not change the tracked method, without prefetching their models; the other trackers
+         * prefetch the models of every commit, see {@link UMLModelPrefetcher}.
+         */
+        public Builder umlModelPrefetcher(UMLModelPrefetcher umlModelPrefetcher) {
+            this.umlModelPrefetcher = umlModelPrefetcher;
+            return this;
+        }
+
+        public Builder umlModelDiffCache(UMLModelDiffCache umlModelDiffCache) {
+            this.umlModelDiffCache = umlModelDiffCache;
+            return this;
+        }
+
+        public Builder refactoringStore(RefactoringStore refactoringStore) {
+            this.refactoringStore = refactoringStore;
+            return this;
+        }
+
+        public Builder parallelUMLModelBuilder(ParallelUMLModelBuilder parallelUMLModelBuilder) {
+            this.parallelUMLModelBuilder = parallelUMLModelBuilder;
+            return this;
+        }
+
+        /**
+         * Stores the histories computed by the method trackers of the session, and reuses them in the next runs. The
+         * other trackers, and {@code blame()}, do not use the store.
+         */
+        public Builder historyStore(HistoryStore historyStore) {
+            this.historyStore = historyStore;
+            return this;
+        }
+
+        public TrackingSession build() {
+            return new TrackingSession(this);
+        }
+    }
+}
@@ -4,13 +4,13 @@ import gr.uom.java.xmi.*;
 import gr.uom.java.xmi.decomposition.*;
 import gr.uom.java.xmi.diff.*;
 import org.apache.commons.lang3.tuple.Pair;
-import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.lib.Repository;
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringType;
 import org.codetracker.api.*;
 import org.codetracker.element.Method;
 import org.codetracker.element.Variable;
+import org.codetracker.util.FileHistoryWalker;
 
 import java.util.*;
 import java.util.function.Predicate;
@@ -23,10 +23,15 @@ public class VariableTrackerImpl extends BaseTracker implements VariableTracker
         this.changeHistory = new VariableTrackerChangeHistory(methodName, methodDeclarationLineNumber, variableName, variableDeclarationLineNumber);
     }
 
+    public VariableTrackerImpl(TrackingSession session, String startCommitId, String filePath, String methodName, int methodDeclarationLineNumber, String variableName, int variableDeclarationLineNumber) {
+        super(session, startCommitId, filePath);
+        this.changeHistory = new VariableTrackerChangeHistory(methodName, methodDeclarationLineNumber, variableName, variableDeclarationLineNumber);
+    }
+
     @Override
     public History<Variable> track() throws Exception {
         HistoryImpl.HistoryReportImpl historyReport = new HistoryImpl.HistoryReportImpl();
-        try (Git git = new Git(repository)) {
+        try (FileHistoryWalker historyWalker = newFileHistoryWalker()) {
 
             Version startVersion = gitRepository.getVersion(startCommitId);
 
@@ -55,7 +60,7 @@ public class VariableTrackerImpl extends BaseTracker implements VariableTracker
                 }
                 if (commits == null || !currentVariable.getFilePath().equals(lastFileName)) {
                     lastFileName = currentVariable.getFilePath();
-                    commits = getCommits(repository, currentVariable.getVersion().getId(), currentVariable.getFilePath(), git);
+                    commits = prefetching(historyWalker.getCommits(currentVariable.getVersion().getId(), currentVariable.getFilePath()), currentVariable.getFilePath());
                     historyReport.gitLogCommandCallsPlusPlus();
                     analysedCommits.clear();
                 }
@@ -74,7 +79,7 @@ public class VariableTrackerImpl extends BaseTracker implements VariableTracker
                     Method currentMethod = Method.of(currentVariable.getOperation(), currentVersion);
 
                     UMLModel rightModel = getUMLModel(commitId, Collections.singleton(currentMethod.getFilePath()));
-                    Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+                    Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
                     if (rightMethod == null) {
                         continue;
                     }
@@ -96,16 +101,16 @@ public class VariableTrackerImpl extends BaseTracker implements VariableTracker
                         changeHistory.add(leftVariable);
                         break;
                     }
-                    UMLModel leftModel = getUMLModel(parentCommitId, Collections.singleton(currentMethod.getFilePath()));
+                    UMLModel leftModel = getParentUMLModel(parentCommitId, commitId, currentMethod.getFilePath(), rightModel);
 
                     //NO CHANGE
-                    Method leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+                    Method leftMethod = getMethodWithIdentifier(leftModel, parentVersion, rightMethod);
                     if (leftMethod != null) {
                         historyReport.step2PlusPlus();
                         continue;
                     }
                     //CHANGE BODY OR DOCUMENT
-                    leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndDocumentAndBody);
+                    leftMethod = getMethodWithIdentifierIgnoringDocumentAndBody(leftModel, parentVersion, rightMethod);
                     if (leftMethod != null) {
                         VariableDeclarationContainer leftOperation = leftMethod.getUmlOperation();
                         VariableDeclarationContainer rightOperation = rightMethod.getUmlOperation();
@@ -132,7 +137,7 @@ public class VariableTrackerImpl extends BaseTracker implements VariableTracker
                             break;
                         }
                     }
-                    UMLModelDiff umlModelDiffLocal = leftModel.diff(rightModel);
+                    UMLModelDiff umlModelDiffLocal = getUMLModelDiff(parentCommitId, commitId, currentMethod.getFilePath(), leftModel, rightModel);
                     {
                         //Local Refactoring
                         List<Refactoring> refactorings = umlModelDiffLocal.getRefactorings();
@@ -213,8 +218,8 @@ public class VariableTrackerImpl extends BaseTracker implements VariableTracker
                         }
                         {
                             Set<String> fileNames = getRightSideFileNames(currentMethod, commitModel, umlModelDiffLocal);
-                            Pair<UMLModel, UMLModel> umlModelPairAll = getUMLModelPair(commitModel, currentMethod.getFilePath(), fileNames::contains, false);
-                            UMLModelDiff umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                            boolean refactoringsStored = addStoredOriginalFilePaths(commitId, commitModel, currentMethod.getFilePath(), fileNames, rightMethod);
+                            UMLModelDiff umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentMethod.getFilePath(), fileNames);
 
                             Set<Refactoring> moveRenameClassRefactorings = umlModelDiffAll.getMoveRenameClassRefactorings();
                             UMLClassBaseDiff classDiff = umlModelDiffAll.getUMLClassDiff(rightMethodClassName);
@@ -245,6 +250,8 @@ public class VariableTrackerImpl extends BaseTracker implements VariableTracker
                                 }
                             }
                             List<Refactoring> refactorings = umlModelDiffAll.getRefactorings();
+                            if (!refactoringsStored)
+                                storeRefactorings(commitId, commitModel, currentMethod.getFilePath(), fileNames, refactorings, currentVersion);
                             boolean flag = false;
                             for (Refactoring refactoring : refactorings) {
                                 if (RefactoringType.MOVE_AND_RENAME_OPERATION.equals(refactoring.getRefactoringType()) || RefactoringType.MOVE_OPERATION.equals(refactoring.getRefactoringType())) {
@@ -257,8 +264,7 @@ public class VariableTrackerImpl extends BaseTracker implements VariableTracker
                                 }
                             }
                             if (flag) {
-                                umlModelPairAll = getUMLModelPair(commitModel, currentMethod.getFilePath(), fileNames::contains, false);
-                                umlModelDiffAll = umlModelPairAll.getLeft().diff(umlModelPairAll.getRight());
+                                umlModelDiffAll = getUMLModelDiffAll(commitId, commitModel, currentMethod.getFilePath(), fileNames);
                                 refactorings = umlModelDiffAll.getRefactorings();
                             }
 
@@ -305,6 +311,8 @@ public class VariableTrackerImpl extends BaseTracker implements VariableTracker
                 }
             }
             return new HistoryImpl<>(changeHistory.get().getCompleteGraph(), historyReport);
+        } finally {
+            releaseModels();
         }
     }
 }
@@ -105,7 +105,7 @@ public class VariableTrackerWithLocalFiles extends BaseTrackerWithLocalFiles imp
             	rightModel.setPartial(true);
 
                 Method currentMethod = Method.of(currentVariable.getOperation(), currentVersion);
-                Method rightMethod = getMethod(rightModel, currentVersion, currentMethod::equalIdentifierIgnoringVersion);
+                Method rightMethod = getMethodWithIdentifier(rightModel, currentVersion, currentMethod);
                 if (rightMethod == null) {
                     continue;
                 }
@@ -128,13 +128,13 @@ public class VariableTrackerWithLocalFiles extends BaseTrackerWithLocalFiles imp
                     break;
                 }
                 //NO CHANGE
-                Method leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersion);
+                Method leftMethod = getMethodWithIdentifier(leftModel, parentVersion, rightMethod);
                 if (leftMethod != null) {
                     historyReport.step2PlusPlus();
                     continue;
                 }
                 //CHANGE BODY OR DOCUMENT
-                leftMethod = getMethod(leftModel, parentVersion, rightMethod::equalIdentifierIgnoringVersionAndDocumentAndBody);
+                leftMethod = getMethodWithIdentifierIgnoringDocumentAndBody(leftModel, parentVersion, rightMethod);
                 if (leftMethod != null) {
                     VariableDeclarationContainer leftOperation = leftMethod.getUmlOperation();
                     VariableDeclarationContainer rightOperation = rightMethod.getUmlOperation();
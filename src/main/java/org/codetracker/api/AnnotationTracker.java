@@ -1,6 +1,7 @@
 package org.codetracker.api;
 
 import org.codetracker.AnnotationTrackerImpl;
+import org.codetracker.TrackingSession;
 import org.codetracker.element.Annotation;
 import org.eclipse.jgit.lib.Repository;
 
@@ -13,6 +14,7 @@ public interface AnnotationTracker extends CodeTracker {
 
     class Builder {
         private Repository repository;
+        private TrackingSession session;
         private String gitURL;
         private String startCommitId;
         private String filePath;
@@ -27,6 +29,15 @@ public interface AnnotationTracker extends CodeTracker {
             return this;
         }
 
+        /**
+         * Tracks with the repository, the caches, stores and pools, and the history walkers of the session, instead of
+         * the repository set by {@link #repository(Repository)}.
+         */
+        public Builder session(TrackingSession session) {
+            this.session = session;
+            return this;
+        }
+
         public Builder gitURL(String gitURL) {
             this.gitURL = gitURL;
             return this;
@@ -73,6 +84,9 @@ public interface AnnotationTracker extends CodeTracker {
 
         public AnnotationTracker build() {
             checkInput();
+            if (session != null)
+                return new AnnotationTrackerImpl(session, startCommitId, filePath, methodName, methodDeclarationLineNumber,
+                        codeElementType, annotationStartLineNumber, annotationEndLineNumber);
             return new AnnotationTrackerImpl(repository, startCommitId, filePath, methodName, methodDeclarationLineNumber,
                     codeElementType, annotationStartLineNumber, annotationEndLineNumber);
         }
@@ -1,6 +1,7 @@
 package org.codetracker.api;
 
 import org.codetracker.AttributeTrackerImpl;
+import org.codetracker.TrackingSession;
 import org.codetracker.AttributeTrackerWithLocalFiles;
 import org.codetracker.element.Attribute;
 import org.eclipse.jgit.lib.Repository;
@@ -14,6 +15,7 @@ public interface AttributeTracker extends CodeTracker {
 
     class Builder {
         private Repository repository;
+        private TrackingSession session;
         private String gitURL;
         private String startCommitId;
         private String filePath;
@@ -25,6 +27,15 @@ public interface AttributeTracker extends CodeTracker {
             return this;
         }
 
+        /**
+         * Tracks with the repository, the caches, stores and pools, and the history walkers of the session, instead of
+         * the repository set by {@link #repository(Repository)}.
+         */
+        public Builder session(TrackingSession session) {
+            this.session = session;
+            return this;
+        }
+
         public Builder gitURL(String gitURL) {
             this.gitURL = gitURL;
             return this;
@@ -56,6 +67,8 @@ public interface AttributeTracker extends CodeTracker {
 
         public AttributeTracker build() {
             checkInput();
+            if (session != null)
+                return new AttributeTrackerImpl(session, startCommitId, filePath, attributeName, attributeDeclarationLineNumber);
             return new AttributeTrackerImpl(repository, startCommitId, filePath, attributeName, attributeDeclarationLineNumber);
         }
 
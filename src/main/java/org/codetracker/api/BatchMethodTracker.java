@@ -0,0 +1,106 @@
+package org.codetracker.api;
+
+import org.codetracker.BatchMethodTrackerImpl;
+import org.codetracker.TrackingSession;
+import org.codetracker.element.Method;
+import org.eclipse.jgit.lib.Repository;
+
+import java.util.*;
+
+/**
+ * Tracks several methods of the same file from the same start commit, analysing each commit of the file once for
+ * all the methods still in it, so that the models parsed for the commit are shared between them.
+ */
+public interface BatchMethodTracker extends CodeTracker {
+
+    Map<MethodSelector, History<Method>> track() throws Exception;
+
+    final class MethodSelector {
+        private final String methodName;
+        private final int methodDeclarationLineNumber;
+
+        public MethodSelector(String methodName, int methodDeclarationLineNumber) {
+            this.methodName = methodName;
+            this.methodDeclarationLineNumber = methodDeclarationLineNumber;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        public int getMethodDeclarationLineNumber() {
+            return methodDeclarationLineNumber;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            MethodSelector that = (MethodSelector) o;
+            return methodDeclarationLineNumber == that.methodDeclarationLineNumber && Objects.equals(methodName, that.methodName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(methodName, methodDeclarationLineNumber);
+        }
+
+        @Override
+        public String toString() {
+            return methodName + ":" + methodDeclarationLineNumber;
+        }
+    }
+
+    class Builder {
+        private Repository repository;
+        private TrackingSession session;
+        private String startCommitId;
+        private String filePath;
+        private final Set<MethodSelector> methods = new LinkedHashSet<>();
+
+        public Builder repository(Repository repository) {
+            this.repository = repository;
+            return this;
+        }
+
+        /**
+         * Tracks with the repository, the caches, stores and pools, and the history walkers of the session, instead of
+         * the repository set by {@link #repository(Repository)}.
+         */
+        public Builder session(TrackingSession session) {
+            this.session = session;
+            return this;
+        }
+
+        public Builder startCommitId(String startCommitId) {
+            this.startCommitId = startCommitId;
+            return this;
+        }
+
+        public Builder filePath(String filePath) {
+            this.filePath = filePath;
+            return this;
+        }
+
+        public Builder method(String methodName, int methodDeclarationLineNumber) {
+            this.methods.add(new MethodSelector(methodName, methodDeclarationLineNumber));
+            return this;
+        }
+
+        public Builder methods(Collection<MethodSelector> methods) {
+            this.methods.addAll(methods);
+            return this;
+        }
+
+        private void checkInput() {
+
+        }
+
+        public BatchMethodTracker build() {
+            checkInput();
+            if (session != null)
+                return new BatchMethodTrackerImpl(session, startCommitId, filePath, new ArrayList<>(methods));
+            return new BatchMethodTrackerImpl(repository, startCommitId, filePath, new ArrayList<>(methods));
+        }
+    }
+}
@@ -4,6 +4,7 @@ import gr.uom.java.xmi.LocationInfo.CodeElementType;
 import org.codetracker.element.Block;
 import org.codetracker.BlockTrackerImpl;
 import org.codetracker.BlockTrackerWithLocalFiles;
+import org.codetracker.TrackingSession;
 import org.eclipse.jgit.lib.Repository;
 
 public interface BlockTracker extends CodeTracker {
@@ -15,6 +16,7 @@ public interface BlockTracker extends CodeTracker {
 
     class Builder {
         private Repository repository;
+        private TrackingSession session;
         private String gitURL;
         private String startCommitId;
         private String filePath;
@@ -30,6 +32,15 @@ public interface BlockTracker extends CodeTracker {
             return this;
         }
 
+        /**
+         * Tracks with the repository, the caches, stores and pools, and the history walkers of the session, instead of
+         * the repository set by {@link #repository(Repository)}.
+         */
+        public BlockTracker.Builder session(TrackingSession session) {
+            this.session = session;
+            return this;
+        }
+
         public Builder gitURL(String gitURL) {
             this.gitURL = gitURL;
             return this;
@@ -81,6 +92,9 @@ public interface BlockTracker extends CodeTracker {
 
         public BlockTracker build() {
             checkInput();
+            if (session != null)
+                return new BlockTrackerImpl(session, startCommitId, filePath, methodName, methodDeclarationLineNumber,
+                        codeElementType, blockStartLineNumber, blockEndLineNumber, blameLineNumber);
             return new BlockTrackerImpl(repository, startCommitId, filePath, methodName, methodDeclarationLineNumber,
                     codeElementType, blockStartLineNumber, blockEndLineNumber, blameLineNumber);
         }
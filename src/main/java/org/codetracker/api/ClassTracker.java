@@ -1,6 +1,7 @@
 package org.codetracker.api;
 
 import org.codetracker.ClassTrackerImpl;
+import org.codetracker.TrackingSession;
 import org.codetracker.element.Class;
 import org.eclipse.jgit.lib.Repository;
 
@@ -13,6 +14,7 @@ public interface ClassTracker extends CodeTracker {
 
     class Builder {
         private Repository repository;
+        private TrackingSession session;
         private String startCommitId;
         private String filePath;
         private String className;
@@ -23,6 +25,15 @@ public interface ClassTracker extends CodeTracker {
             return this;
         }
 
+        /**
+         * Tracks with the repository, the caches, stores and pools, and the history walkers of the session, instead of
+         * the repository set by {@link #repository(Repository)}.
+         */
+        public Builder session(TrackingSession session) {
+            this.session = session;
+            return this;
+        }
+
         public Builder startCommitId(String startCommitId) {
             this.startCommitId = startCommitId;
             return this;
@@ -49,6 +60,8 @@ public interface ClassTracker extends CodeTracker {
 
         public ClassTracker build() {
             checkInput();
+            if (session != null)
+                return new ClassTrackerImpl(session, startCommitId, filePath, className, classDeclarationLineNumber);
             return new ClassTrackerImpl(repository, startCommitId, filePath, className, classDeclarationLineNumber);
         }
 
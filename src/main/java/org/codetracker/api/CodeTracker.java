@@ -1,6 +1,17 @@
 package org.codetracker.api;
 
+import org.codetracker.TrackingSession;
+import org.eclipse.jgit.lib.Repository;
+
 public interface CodeTracker {
+    /**
+     * @return a session keeping the caches and the history walkers of the repository for all the trackers created from
+     * it; use {@link TrackingSession#builder(Repository)} to configure them
+     */
+    static TrackingSession session(Repository repository) {
+        return TrackingSession.builder(repository).build();
+    }
+
     static VariableTracker.Builder variableTracker() {
         return new VariableTracker.Builder();
     }
@@ -9,6 +20,10 @@ public interface CodeTracker {
         return new MethodTracker.Builder();
     }
 
+    static BatchMethodTracker.Builder batchMethodTracker() {
+        return new BatchMethodTracker.Builder();
+    }
+
     static AttributeTracker.Builder attributeTracker() {
         return new AttributeTracker.Builder();
     }
@@ -1,6 +1,7 @@
 package org.codetracker.api;
 
 import org.codetracker.CommentTrackerImpl;
+import org.codetracker.TrackingSession;
 import org.codetracker.element.Comment;
 import org.eclipse.jgit.lib.Repository;
 
@@ -13,6 +14,7 @@ public interface CommentTracker extends CodeTracker {
 
     class Builder {
         private Repository repository;
+        private TrackingSession session;
         private String gitURL;
         private String startCommitId;
         private String filePath;
@@ -27,6 +29,15 @@ public interface CommentTracker extends CodeTracker {
             return this;
         }
 
+        /**
+         * Tracks with the repository, the caches, stores and pools, and the history walkers of the session, instead of
+         * the repository set by {@link #repository(Repository)}.
+         */
+        public Builder session(TrackingSession session) {
+            this.session = session;
+            return this;
+        }
+
         public Builder gitURL(String gitURL) {
             this.gitURL = gitURL;
             return this;
@@ -73,6 +84,9 @@ public interface CommentTracker extends CodeTracker {
 
         public CommentTracker build() {
             checkInput();
+            if (session != null)
+                return new CommentTrackerImpl(session, startCommitId, filePath, methodName, methodDeclarationLineNumber,
+                        codeElementType, commentStartLineNumber, commentEndLineNumber);
             return new CommentTrackerImpl(repository, startCommitId, filePath, methodName, methodDeclarationLineNumber,
                     codeElementType, commentStartLineNumber, commentEndLineNumber);
         }
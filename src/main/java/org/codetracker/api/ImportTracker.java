@@ -1,6 +1,7 @@
 package org.codetracker.api;
 
 import org.codetracker.ImportTrackerImpl;
+import org.codetracker.TrackingSession;
 import org.codetracker.element.Import;
 import org.eclipse.jgit.lib.Repository;
 
@@ -13,6 +14,7 @@ public interface ImportTracker {
 
     class Builder {
         private Repository repository;
+        private TrackingSession session;
         private String gitURL;
         private String startCommitId;
         private String filePath;
@@ -27,6 +29,15 @@ public interface ImportTracker {
             return this;
         }
 
+        /**
+         * Tracks with the repository, the caches, stores and pools, and the history walkers of the session, instead of
+         * the repository set by {@link #repository(Repository)}.
+         */
+        public Builder session(TrackingSession session) {
+            this.session = session;
+            return this;
+        }
+
         public Builder gitURL(String gitURL) {
             this.gitURL = gitURL;
             return this;
@@ -73,6 +84,9 @@ public interface ImportTracker {
 
         public ImportTracker build() {
             checkInput();
+            if (session != null)
+                return new ImportTrackerImpl(session, startCommitId, filePath, className, classDeclarationLineNumber,
+                        codeElementType, importStartLineNumber, importEndLineNumber);
             return new ImportTrackerImpl(repository, startCommitId, filePath, className, classDeclarationLineNumber,
                     codeElementType, importStartLineNumber, importEndLineNumber);
         }
@@ -2,6 +2,7 @@ package org.codetracker.api;
 
 import org.eclipse.jgit.lib.Repository;
 import org.codetracker.MethodTrackerImpl;
+import org.codetracker.TrackingSession;
 import org.codetracker.MethodTrackerWithLocalFilesImpl;
 import org.codetracker.element.Method;
 
@@ -14,6 +15,7 @@ public interface MethodTracker extends CodeTracker {
 
     class Builder {
         private Repository repository;
+        private TrackingSession session;
         private String gitURL;
         private String startCommitId;
         private String filePath;
@@ -25,6 +27,18 @@ public interface MethodTracker extends CodeTracker {
             return this;
         }
 
+        /**
+         * Tracks with the repository, the caches, stores and pools, and the history walkers of the session, instead of
+         * the repository set by {@link #repository(Repository)}. The history store of the session, if any, is used by
+         * {@link MethodTracker#track()} only, not by {@link MethodTracker#blame()}. Unlike the other trackers, both tell
+         * from the skeletons of the file which commits did not change the method, and neither build nor prefetch their
+         * models.
+         */
+        public Builder session(TrackingSession session) {
+            this.session = session;
+            return this;
+        }
+
         public Builder gitURL(String gitURL) {
             this.gitURL = gitURL;
             return this;
@@ -56,6 +70,8 @@ public interface MethodTracker extends CodeTracker {
 
         public MethodTracker build() {
             checkInput();
+            if (session != null)
+                return new MethodTrackerImpl(session, startCommitId, filePath, methodName, methodDeclarationLineNumber);
             return new MethodTrackerImpl(repository, startCommitId, filePath, methodName, methodDeclarationLineNumber);
         }
 
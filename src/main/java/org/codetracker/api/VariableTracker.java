@@ -2,6 +2,7 @@ package org.codetracker.api;
 
 import org.eclipse.jgit.lib.Repository;
 import org.codetracker.VariableTrackerImpl;
+import org.codetracker.TrackingSession;
 import org.codetracker.VariableTrackerWithLocalFiles;
 import org.codetracker.element.Variable;
 
@@ -11,6 +12,7 @@ public interface VariableTracker extends CodeTracker {
 
     class Builder {
         private Repository repository;
+        private TrackingSession session;
         private String gitURL;
         private String startCommitId;
         private String filePath;
@@ -24,6 +26,15 @@ public interface VariableTracker extends CodeTracker {
             return this;
         }
 
+        /**
+         * Tracks with the repository, the caches, stores and pools, and the history walkers of the session, instead of
+         * the repository set by {@link #repository(Repository)}.
+         */
+        public Builder session(TrackingSession session) {
+            this.session = session;
+            return this;
+        }
+
         public Builder gitURL(String gitURL) {
             this.gitURL = gitURL;
             return this;
@@ -65,6 +76,8 @@ public interface VariableTracker extends CodeTracker {
 
         public VariableTracker build() {
             checkInput();
+            if (session != null)
+                return new VariableTrackerImpl(session, startCommitId, filePath, methodName, methodDeclarationLineNumber, variableName, variableDeclarationLineNumber);
             return new VariableTrackerImpl(repository, startCommitId, filePath, methodName, methodDeclarationLineNumber, variableName, variableDeclarationLineNumber);
         }
 
@@ -3,10 +3,43 @@ package org.codetracker.blame;
 import org.codetracker.blame.model.LineBlameResult;
 import org.eclipse.jgit.lib.Repository;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
 
 /* Created by pourya on 2024-06-26*/
 public interface IBlame {
     List<LineBlameResult> blameFile(Repository repository, String commitId, String filePath) throws Exception;
     List<LineBlameResult> blameFile(Repository repository, String commitId, String filePath, int fromLine, int toLine) throws Exception;
+
+    /**
+     * Blames the given lines only. By default, each run of consecutive lines is blamed with
+     * {@link #blameFile(Repository, String, String, int, int)}.
+     *
+     * @return the blame of the lines, by line number; lines without blame are not in the map
+     */
+    default Map<Integer, LineBlameResult> blameLines(Repository repository, String commitId, String filePath, SortedSet<Integer> lineNumbers) throws Exception {
+        Map<Integer, LineBlameResult> result = new HashMap<>();
+        Integer fromLine = null, toLine = null;
+        for (Integer lineNumber : lineNumbers) {
+            if (toLine != null && lineNumber == toLine + 1) {
+                toLine = lineNumber;
+                continue;
+            }
+            if (fromLine != null)
+                putAll(result, blameFile(repository, commitId, filePath, fromLine, toLine));
+            fromLine = toLine = lineNumber;
+        }
+        if (fromLine != null)
+            putAll(result, blameFile(repository, commitId, filePath, fromLine, toLine));
+        return result;
+    }
+
+    static void putAll(Map<Integer, LineBlameResult> result, List<LineBlameResult> lines) {
+        for (LineBlameResult line : lines) {
+            if (line != null)
+                result.put(line.getOriginalLineNumber(), line);
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package org.codetracker.blame.adaptor;
 
+import org.codetracker.TrackingSession;
 import org.codetracker.api.*;
 import org.codetracker.element.Annotation;
 import org.codetracker.element.Attribute;
@@ -19,6 +20,22 @@ public class LineTrackerFromCodeTracker {
             String commitId,
             Integer lineNumber,
             CodeElement codeElement
+    ) {
+        return blame(repository, filePath, commitId, lineNumber, codeElement, null);
+    }
+
+    /**
+     * Same as {@link #blame(Repository, String, String, Integer, CodeElement)}, with the trackers sharing the caches of
+     * the session, if not null, so that the blame of several lines of the same file parses each revision of the file
+     * only once.
+     */
+    public History.HistoryInfo<? extends CodeElement> blame(
+            Repository repository,
+            String filePath,
+            String commitId,
+            Integer lineNumber,
+            CodeElement codeElement,
+            TrackingSession session
     ) {
         try {
             History.HistoryInfo<? extends CodeElement> blame = null;
@@ -28,6 +45,7 @@ public class LineTrackerFromCodeTracker {
                     ClassTracker classTracker = CodeTracker
                             .classTracker()
                             .repository(repository)
+                            .session(session)
                             .filePath(filePath)
                             .startCommitId(commitId)
                             .className(className)
@@ -40,6 +58,7 @@ public class LineTrackerFromCodeTracker {
                     MethodTracker methodTracker = CodeTracker
                             .methodTracker()
                             .repository(repository)
+                            .session(session)
                             .filePath(filePath)
                             .startCommitId(commitId)
                             .methodName(methodName)
@@ -52,6 +71,7 @@ public class LineTrackerFromCodeTracker {
                     AttributeTracker attributeTracker = CodeTracker
                             .attributeTracker()
                             .repository(repository)
+                            .session(session)
                             .filePath(filePath)
                             .startCommitId(commitId)
                             .attributeName(attrName)
@@ -64,6 +84,7 @@ public class LineTrackerFromCodeTracker {
                     BlockTracker blockTracker = CodeTracker
                             .blockTracker()
                             .repository(repository)
+                            .session(session)
                             .filePath(filePath)
                             .startCommitId(commitId)
                             .methodName(block.getOperation().getName())
@@ -82,6 +103,7 @@ public class LineTrackerFromCodeTracker {
                     CommentTracker.Builder builder = CodeTracker
                             .commentTracker()
                             .repository(repository)
+                            .session(session)
                             .filePath(filePath)
                             .startCommitId(commitId)
                             .codeElementType(codeElement.getLocation().getCodeElementType())
@@ -109,6 +131,7 @@ public class LineTrackerFromCodeTracker {
                 	AnnotationTracker.Builder annotationBuilder = CodeTracker
                             .annotationTracker()
                             .repository(repository)
+                            .session(session)
                             .filePath(filePath)
                             .startCommitId(commitId)
                             .codeElementType(codeElement.getLocation().getCodeElementType())
@@ -136,6 +159,7 @@ public class LineTrackerFromCodeTracker {
                     ImportTracker importTracker = CodeTracker
                             .importTracker()
                             .repository(repository)
+                            .session(session)
                             .filePath(filePath)
                             .startCommitId(commitId)
                             .className(imp.getClazz().getName())
@@ -154,6 +178,7 @@ public class LineTrackerFromCodeTracker {
                     classTracker = CodeTracker
                             .classTracker()
                             .repository(repository)
+                            .session(session)
                             .filePath(filePath)
                             .startCommitId(commitId)
                             .className(className)
@@ -1,72 +1,252 @@
 package org.codetracker.blame.impl;
 
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.decomposition.CompositeStatementObject;
+import org.codetracker.BaseTracker;
+import org.codetracker.TrackingSession;
 import org.codetracker.api.CodeElement;
 import org.codetracker.api.History;
+import org.codetracker.api.Version;
 import org.codetracker.blame.IBlame;
 import org.codetracker.blame.model.LineBlameResult;
 import org.codetracker.blame.adaptor.LineTrackerFromCodeTracker;
+import org.codetracker.element.Attribute;
+import org.codetracker.element.Block;
+import org.codetracker.element.Class;
+import org.codetracker.element.Method;
+import org.codetracker.element.Package;
+import org.codetracker.util.BoundedUMLModelCache;
 import org.codetracker.util.CodeElementLocator;
+import org.codetracker.util.CommitMetadataCache;
+import org.codetracker.util.GitRepository;
+import org.codetracker.util.TrackingExecutors;
+import org.codetracker.util.UMLModelCache;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static org.codetracker.blame.util.Utils.getFileContentByCommit;
 
 /* Created by pourya on 2024-06-26*/
 public class CodeTrackerBlame implements IBlame {
     private final static Logger logger = LoggerFactory.getLogger(CodeTrackerBlame.class);
+    private final UMLModelCache umlModelCache;
+    private final CommitMetadataCache commitMetadataCache;
+    private final ExecutorService executor;
+
+    public CodeTrackerBlame() {
+        this(null, null, null);
+    }
+
+    public CodeTrackerBlame(UMLModelCache umlModelCache, CommitMetadataCache commitMetadataCache) {
+        this(umlModelCache, commitMetadataCache, null);
+    }
+
+    /**
+     * @param umlModelCache the models shared by all the trackers started by this instance, or null for a new cache
+     * @param commitMetadataCache the commit metadata shared by all the trackers started by this instance, or null for a new cache
+     * @param executor the pool tracking the elements of a file concurrently, see {@link TrackingExecutors}, or null
+     *                 to track them one after the other on the calling thread; it is not shut down by this instance
+     */
+    public CodeTrackerBlame(UMLModelCache umlModelCache, CommitMetadataCache commitMetadataCache, ExecutorService executor) {
+        this.umlModelCache = umlModelCache != null ? umlModelCache : new BoundedUMLModelCache();
+        this.commitMetadataCache = commitMetadataCache != null ? commitMetadataCache : new CommitMetadataCache();
+        this.executor = executor;
+    }
 
     public List<LineBlameResult> blameFile(Repository repository, String commitId, String filePath) throws Exception {
         List<String> lines = getFileContentByCommit(repository, commitId, filePath);
-        int maxLine = lines.size();
-        List<LineBlameResult> result = new ArrayList<>();
-        for (int lineNumber = 1; lineNumber <= maxLine; lineNumber++) {
-            try {
-            	if (lines.get(lineNumber- 1).isBlank()) 
-            		result.add(null);
-            	else
-            		result.add(getBlameInfo(repository, commitId, filePath, lineNumber));
-            } catch (Exception e) {
-                logger.error(e.getMessage());
-            }
-        }
-        return result;
+        return blameLines(repository, commitId, filePath, lines, lineRange(1, lines.size()));
     }
 
     public List<LineBlameResult> blameFile(Repository repository, String commitId, String filePath, int fromLine, int toLine) throws Exception {
     	List<String> lines = getFileContentByCommit(repository, commitId, filePath);
-    	List<LineBlameResult> result = new ArrayList<>();
-        for (int lineNumber = fromLine; lineNumber <= toLine; lineNumber++) {
+        return blameLines(repository, commitId, filePath, lines, lineRange(fromLine, toLine));
+    }
+
+    @Override
+    public Map<Integer, LineBlameResult> blameLines(Repository repository, String commitId, String filePath, SortedSet<Integer> lineNumbers) throws Exception {
+        List<String> lines = getFileContentByCommit(repository, commitId, filePath);
+        Map<Integer, LineBlameResult> result = new HashMap<>();
+        IBlame.putAll(result, blameLines(repository, commitId, filePath, lines, lineNumbers));
+        return result;
+    }
+
+    private static List<Integer> lineRange(int fromLine, int toLine) {
+        List<Integer> lineNumbers = new ArrayList<>();
+        for (int lineNumber = fromLine; lineNumber <= toLine; lineNumber++)
+            lineNumbers.add(lineNumber);
+        return lineNumbers;
+    }
+
+    /**
+     * Locates the code elements of all the lines in a single model of the file, then tracks each element once and
+     * reports its latest change for every line it covers. Lines leading to the same tracker inputs, like the lines of
+     * a multi-line comment or statement, share one tracking run. With an executor, the elements are tracked
+     * concurrently; the results are still returned in line order.
+     */
+    private List<LineBlameResult> blameLines(Repository repository, String commitId, String filePath, List<String> lines, Collection<Integer> lineNumbersToBlame) throws InterruptedException {
+        // closing the session closes the history walkers of the threads that tracked the elements
+        try (TrackingSession session = newSession(repository)) {
+            return blameLines(session, commitId, filePath, lines, lineNumbersToBlame);
+        }
+    }
+
+    private List<LineBlameResult> blameLines(TrackingSession session, String commitId, String filePath, List<String> lines, Collection<Integer> lineNumbersToBlame) throws InterruptedException {
+        GitRepository gitRepository = new GitRepository(session.getRepository(), null, session.getCommitMetadataCache());
+        Version version = null;
+        UMLModel umlModel = null;
+        try {
+            version = gitRepository.getVersion(commitId);
+            umlModel = takeUMLModel(gitRepository, commitId, filePath);
+        }
+        catch (Exception e) {
+            logger.error("Error in parsing " + filePath + " in commit " + commitId);
+            logger.error(e.getMessage());
+        }
+        Map<String, Future<History.HistoryInfo<? extends CodeElement>>> trackedElements = new HashMap<>();
+        List<Integer> lineNumbers = new ArrayList<>();
+        List<Future<History.HistoryInfo<? extends CodeElement>>> latestChanges = new ArrayList<>();
+        for (int lineNumber : lineNumbersToBlame) {
             try {
-            	if (lines.get(lineNumber- 1).isBlank()) 
-            		result.add(null);
-            	else
-            		result.add(getBlameInfo(repository, commitId, filePath, lineNumber));
+                Future<History.HistoryInfo<? extends CodeElement>> latestChange = null;
+            	if (!lines.get(lineNumber- 1).isBlank()) {
+                    CodeElement codeElement = umlModel != null ? locate(gitRepository, version, umlModel, commitId, filePath, lineNumber) : null;
+                    if (codeElement != null) {
+                        String key = trackingKey(codeElement, lineNumber);
+                        latestChange = trackedElements.get(key);
+                        if (latestChange == null) {
+                            latestChange = track(session, commitId, filePath, lineNumber, codeElement);
+                            trackedElements.put(key, latestChange);
+                        }
+                    }
+                    else {
+                        logger.error("Code element not found for " + filePath + " at line " + lineNumber + " in commit " + commitId);
+                    }
+                }
+                lineNumbers.add(lineNumber);
+                latestChanges.add(latestChange);
             } catch (Exception e) {
                 logger.error(e.getMessage());
             }
         }
+        List<LineBlameResult> result = new ArrayList<>();
+        for (int i = 0; i < lineNumbers.size(); i++) {
+            Future<History.HistoryInfo<? extends CodeElement>> latestChange = latestChanges.get(i);
+            if (latestChange == null) {
+                result.add(null);
+                continue;
+            }
+            try {
+                result.add(LineBlameResult.of(latestChange.get(), lineNumbers.get(i)));
+            } catch (ExecutionException e) {
+                logger.error("Error in tracking line blame for " + filePath + " at line " + lineNumbers.get(i) + " in commit " + commitId);
+                logger.error(e.getCause().getMessage());
+                result.add(null);
+            }
+        }
+        // the elements located in the model are no longer used once their trackers are done
+        if (umlModel != null)
+            putUMLModel(gitRepository, commitId, filePath, umlModel);
         return result;
     }
 
-    private LineBlameResult getBlameInfo(Repository repository, String commitId, String filePath, int lineNumber) {
-        History.HistoryInfo<? extends CodeElement> latestChange = getLineBlame(repository, commitId, filePath, lineNumber);
-        return LineBlameResult.of(latestChange, lineNumber);
+    private TrackingSession newSession(Repository repository) {
+        return TrackingSession.builder(repository)
+                .umlModelCache(umlModelCache)
+                .commitMetadataCache(commitMetadataCache)
+                .build();
+    }
+
+    private Future<History.HistoryInfo<? extends CodeElement>> track(TrackingSession session, String commitId, String filePath, int lineNumber, CodeElement codeElement) {
+        if (executor == null)
+            return CompletableFuture.completedFuture(blame(session, commitId, filePath, lineNumber, codeElement));
+        return executor.submit(() -> blame(session, commitId, filePath, lineNumber, codeElement));
+    }
+
+    /**
+     * The tracker inputs derived from the line: the element, and the line itself only when the tracker looks at it
+     * for more than finding the element, such as telling the closing bracket of a method or composite statement apart.
+     */
+    private static String trackingKey(CodeElement codeElement, int lineNumber) {
+        int startLine = codeElement.getLocation().getStartLine();
+        int endLine = codeElement.getLocation().getEndLine();
+        String key = elementKey(codeElement);
+        boolean lineDependent;
+        if (codeElement instanceof Method)
+            lineDependent = lineNumber < startLine || lineNumber >= endLine;
+        else if (codeElement instanceof Attribute)
+            lineDependent = lineNumber < startLine || lineNumber > endLine;
+        else if (codeElement instanceof Class)
+            lineDependent = lineNumber == endLine;
+        else if (codeElement instanceof Block)
+            lineDependent = ((Block) codeElement).getComposite() instanceof CompositeStatementObject;
+        else
+            lineDependent = codeElement instanceof Package;
+        return lineDependent ? key + ":" + lineNumber : key;
+    }
+
+    static String elementKey(CodeElement codeElement) {
+        return codeElement.getClass().getSimpleName() + ":" + codeElement.getIdentifier() + ":" +
+                codeElement.getLocation().getStartLine() + "-" + codeElement.getLocation().getEndLine();
+    }
+
+    /**
+     * Takes the model of the file from the cache, or parses it, until {@link #putUMLModel} puts it back.
+     */
+    private UMLModel takeUMLModel(GitRepository gitRepository, String commitId, String filePath) throws Exception {
+        ObjectId blobId = gitRepository.getBlobId(commitId, filePath);
+        UMLModel umlModel = blobId != null ? umlModelCache.take(filePath, blobId) : null;
+        if (umlModel == null)
+            umlModel = BaseTracker.getUMLModel(gitRepository.getRepository(), commitId, Collections.singleton(filePath));
+        return umlModel;
+    }
+
+    private void putUMLModel(GitRepository gitRepository, String commitId, String filePath, UMLModel umlModel) {
+        Repository repository = gitRepository.getRepository();
+        ObjectId blobId = gitRepository.getBlobId(commitId, filePath);
+        if (blobId == null)
+            return;
+        try (ObjectReader reader = repository.newObjectReader()) {
+            umlModelCache.put(filePath, blobId, umlModel, reader.getObjectSize(blobId, Constants.OBJ_BLOB));
+        } catch (IOException e) {
+            logger.error(e.getMessage());
+        }
     }
 
+    private History.HistoryInfo<? extends CodeElement> blame(TrackingSession session, String commitId, String filePath, int lineNumber, CodeElement codeElement) {
+        History.HistoryInfo<? extends CodeElement> history = null;
+        try {
+            history = new LineTrackerFromCodeTracker().blame(session.getRepository(), filePath, commitId, lineNumber, codeElement, session);
+        } catch (Exception e) {
+            logger.error("Error in tracking line blame for " + filePath + " at line " + lineNumber + " in commit " + commitId);
+            logger.error(e.getMessage());
+        }
+        return history;
+    }
 
     public History.HistoryInfo<? extends CodeElement> getLineBlame(Repository repository, String commitId, String filePath, int lineNumber) {
         CodeElement codeElement = locate(repository, commitId, filePath, lineNumber);
         History.HistoryInfo<? extends CodeElement> history = null;
         if (codeElement != null) {
-            try {
-                history = new LineTrackerFromCodeTracker().blame(repository, filePath, commitId, lineNumber, codeElement);
-            } catch (Exception e) {
-                logger.error("Error in tracking line blame for " + filePath + " at line " + lineNumber + " in commit " + commitId);
-                logger.error(e.getMessage());
+            try (TrackingSession session = newSession(repository)) {
+                history = blame(session, commitId, filePath, lineNumber, codeElement);
             }
         }
         else {
@@ -75,6 +255,24 @@ public class CodeTrackerBlame implements IBlame {
         return history;
     }
 
+    private CodeElement locate(GitRepository gitRepository, Version version, UMLModel umlModel, String commitId, String filePath, int lineNumber) {
+        CodeElementLocator locator = new CodeElementLocator(
+                gitRepository,
+                commitId,
+                filePath,
+                lineNumber
+        );
+        CodeElement codeElement = null;
+        try {
+            codeElement = locator.locateWithoutName(version, umlModel);
+        }
+        catch (Exception e) {
+            logger.error("Error in locating code element for " + filePath + " at line " + lineNumber + " in commit " + commitId);
+            logger.error(e.getMessage());
+        }
+        return codeElement;
+    }
+
     private CodeElement locate(Repository repository, String commitId, String filePath, int lineNumber) {
         CodeElementLocator locator = new CodeElementLocator(
                 repository,
@@ -1,25 +1,73 @@
 package org.codetracker.blame.impl;
 
 import org.codetracker.FileTrackerImpl;
+import org.codetracker.TrackingSession;
 import org.codetracker.api.History;
 import org.codetracker.blame.IBlame;
 import org.codetracker.blame.model.LineBlameResult;
 import org.codetracker.element.BaseCodeElement;
+import org.codetracker.util.BoundedUMLModelCache;
+import org.codetracker.util.CommitMetadataCache;
+import org.codetracker.util.UMLModelCache;
+import org.codetracker.util.UMLModelPrefetcher;
 import org.eclipse.jgit.lib.Repository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedSet;
+import java.util.concurrent.ExecutorService;
 
 /* Created by pourya on 2024-08-22*/
 public class FileTrackerBlame implements IBlame {
     private final static Logger logger = LoggerFactory.getLogger(FileTrackerBlame.class);
+    private static final int PREFETCH_DEPTH = 4;
+    private final UMLModelCache umlModelCache;
+    private final CommitMetadataCache commitMetadataCache;
+    private final UMLModelPrefetcher umlModelPrefetcher;
+
+    public FileTrackerBlame() {
+        this(null, null, null);
+    }
+
+    /**
+     * The file tracker walks the history once for all the elements of the file, comparing each commit for all of
+     * them, so the elements are not tracked separately. With an executor, the revisions of the file the tracker is
+     * about to compare are parsed concurrently, ahead of the walk.
+     *
+     * @param umlModelCache the models shared by all the trackers started by this instance, or null for a new cache
+     * @param commitMetadataCache the commit metadata shared by all the trackers started by this instance, or null for a new cache
+     * @param executor the pool parsing the upcoming revisions of the file, or null to parse them on the calling
+     *                 thread; it is not shut down by this instance
+     */
+    public FileTrackerBlame(UMLModelCache umlModelCache, CommitMetadataCache commitMetadataCache, ExecutorService executor) {
+        this.umlModelCache = umlModelCache != null ? umlModelCache : new BoundedUMLModelCache();
+        this.commitMetadataCache = commitMetadataCache != null ? commitMetadataCache : new CommitMetadataCache();
+        this.umlModelPrefetcher = executor != null ? new UMLModelPrefetcher(executor, PREFETCH_DEPTH) : null;
+    }
+
+    private FileTrackerImpl blame(Repository repository, String commitId, String filePath) throws Exception {
+        try (TrackingSession session = newSession(repository)) {
+            FileTrackerImpl fileTracker = new FileTrackerImpl(session, commitId, filePath);
+            fileTracker.blame();
+            return fileTracker;
+        }
+    }
+
+    private TrackingSession newSession(Repository repository) {
+        return TrackingSession.builder(repository)
+                .umlModelCache(umlModelCache)
+                .commitMetadataCache(commitMetadataCache)
+                .umlModelPrefetcher(umlModelPrefetcher)
+                .build();
+    }
+
     @Override
     public List<LineBlameResult> blameFile(Repository repository, String commitId, String filePath) throws Exception {
-        FileTrackerImpl fileTracker = new FileTrackerImpl(repository, commitId, filePath);
-        fileTracker.blame();
+        FileTrackerImpl fileTracker = blame(repository, commitId, filePath);
         List<LineBlameResult> result = new ArrayList<>();
         for (Map.Entry<Integer, History.HistoryInfo<? extends BaseCodeElement>> entry : fileTracker.getBlameInfo().entrySet()) {
             Integer lineNumber = entry.getKey();
@@ -38,8 +86,7 @@ public class FileTrackerBlame implements IBlame {
 
     @Override
     public List<LineBlameResult> blameFile(Repository repository, String commitId, String filePath, int fromLine, int toLine) throws Exception {
-        FileTrackerImpl fileTracker = new FileTrackerImpl(repository, commitId, filePath);
-        fileTracker.blame();
+        FileTrackerImpl fileTracker = blame(repository, commitId, filePath);
         List<LineBlameResult> result = new ArrayList<>();
         for (Map.Entry<Integer, History.HistoryInfo<? extends BaseCodeElement>> entry : fileTracker.getBlameInfo().entrySet()) {
             Integer lineNumber = entry.getKey();
@@ -59,4 +106,16 @@ public class FileTrackerBlame implements IBlame {
         return result;
 
     }
+
+    @Override
+    public Map<Integer, LineBlameResult> blameLines(Repository repository, String commitId, String filePath, SortedSet<Integer> lineNumbers) throws Exception {
+        FileTrackerImpl fileTracker = blame(repository, commitId, filePath);
+        Map<Integer, LineBlameResult> result = new HashMap<>();
+        for (Integer lineNumber : lineNumbers) {
+            History.HistoryInfo<? extends BaseCodeElement> value = fileTracker.getBlameInfo().get(lineNumber);
+            if (value != null && !fileTracker.getLines().get(lineNumber - 1).isBlank())
+                result.put(lineNumber, LineBlameResult.of(value, lineNumber));
+        }
+        return result;
+    }
 }
@@ -0,0 +1,198 @@
+package org.codetracker.blame.impl;
+
+import gr.uom.java.xmi.UMLModel;
+import org.codetracker.BaseTracker;
+import org.codetracker.api.CodeElement;
+import org.codetracker.api.Version;
+import org.codetracker.blame.IBlame;
+import org.codetracker.blame.model.LineBlameResult;
+import org.codetracker.blame.util.BlameSnapshotStore;
+import org.codetracker.util.CodeElementLocator;
+import org.codetracker.util.FileHistoryWalker;
+import org.codetracker.util.GitRepository;
+import org.eclipse.jgit.diff.DiffAlgorithm;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.codetracker.blame.util.Utils.getFileContentByCommit;
+
+/**
+ * Blames files with another blamer, storing the blame of each revision of a file in a {@link BlameSnapshotStore}.
+ * When a file is blamed again at a later commit, the blame stored for its closest earlier revision is reused: only
+ * the code elements having a line changed in between are blamed again, the others keep their stored blame, with the
+ * line numbers re-mapped through the diff of the two revisions.
+ */
+public class IncrementalBlame implements IBlame {
+    private final static Logger logger = LoggerFactory.getLogger(IncrementalBlame.class);
+    public static final int DEFAULT_MAX_DISTANCE = 100;
+    private final IBlame blamer;
+    private final BlameSnapshotStore snapshotStore;
+    private final String blamerName;
+    private final int maxDistance;
+
+    public IncrementalBlame(IBlame blamer, BlameSnapshotStore snapshotStore) {
+        this(blamer, snapshotStore, DEFAULT_MAX_DISTANCE);
+    }
+
+    /**
+     * @param maxDistance the number of earlier revisions of the file searched for a stored blame
+     */
+    public IncrementalBlame(IBlame blamer, BlameSnapshotStore snapshotStore, int maxDistance) {
+        this.blamer = blamer;
+        this.snapshotStore = snapshotStore;
+        this.blamerName = blamer.getClass().getName();
+        this.maxDistance = maxDistance;
+    }
+
+    @Override
+    public List<LineBlameResult> blameFile(Repository repository, String commitId, String filePath) throws Exception {
+        List<String> lines = getFileContentByCommit(repository, commitId, filePath);
+        String revision = null;
+        String base = null;
+        try (FileHistoryWalker historyWalker = new FileHistoryWalker(repository)) {
+            int distance = 0;
+            for (String fileCommitId : historyWalker.getCommits(commitId, filePath)) {
+                if (revision == null)
+                    revision = fileCommitId;
+                if (snapshotStore.contains(blamerName, filePath, fileCommitId)) {
+                    base = fileCommitId;
+                    break;
+                }
+                if (distance++ == maxDistance)
+                    break;
+            }
+        }
+        if (revision == null)
+            return blamer.blameFile(repository, commitId, filePath);
+        List<LineBlameResult> previous = base != null ? snapshotStore.load(blamerName, filePath, base) : null;
+        if (previous != null && base.equals(revision))
+            return previous;
+        List<LineBlameResult> result;
+        if (previous == null) {
+            Map<Integer, LineBlameResult> blamed = new HashMap<>();
+            IBlame.putAll(blamed, blamer.blameFile(repository, commitId, filePath));
+            result = new ArrayList<>(lines.size());
+            for (int lineNumber = 1; lineNumber <= lines.size(); lineNumber++)
+                result.add(blamed.get(lineNumber));
+        }
+        else {
+            result = blameIncrementally(repository, commitId, filePath, lines, getFileContentByCommit(repository, base, filePath), previous);
+        }
+        snapshotStore.save(blamerName, filePath, revision, result);
+        return result;
+    }
+
+    @Override
+    public List<LineBlameResult> blameFile(Repository repository, String commitId, String filePath, int fromLine, int toLine) throws Exception {
+        return blameFile(repository, commitId, filePath).subList(fromLine - 1, toLine);
+    }
+
+    private List<LineBlameResult> blameIncrementally(Repository repository, String commitId, String filePath, List<String> lines,
+                                                     List<String> previousLines, List<LineBlameResult> previous) throws Exception {
+        int[] previousLineNumbers = new int[lines.size()];
+        SortedSet<Integer> changedLines = new TreeSet<>();
+        int previousIndex = 0, index = 0;
+        for (Edit edit : diff(previousLines, lines)) {
+            while (index < edit.getBeginB())
+                previousLineNumbers[index++] = ++previousIndex;
+            for (; index < edit.getEndB(); index++)
+                changedLines.add(index + 1);
+            if (edit.getBeginB() == edit.getEndB()) {
+                // lines were only deleted, the elements around them may have changed
+                if (index > 0)
+                    changedLines.add(index);
+                if (index < lines.size())
+                    changedLines.add(index + 1);
+            }
+            previousIndex = edit.getEndA();
+        }
+        while (index < lines.size())
+            previousLineNumbers[index++] = ++previousIndex;
+        changedLines.removeIf(lineNumber -> lines.get(lineNumber - 1).isBlank());
+
+        SortedSet<Integer> linesToBlame = expandToElements(repository, commitId, filePath, lines, changedLines);
+        Map<Integer, LineBlameResult> blamed = linesToBlame.isEmpty() ? Collections.emptyMap() :
+                blamer.blameLines(repository, commitId, filePath, linesToBlame);
+        List<LineBlameResult> result = new ArrayList<>(lines.size());
+        for (int lineNumber = 1; lineNumber <= lines.size(); lineNumber++) {
+            if (lines.get(lineNumber - 1).isBlank()) {
+                result.add(null);
+            }
+            else if (linesToBlame.contains(lineNumber)) {
+                result.add(blamed.get(lineNumber));
+            }
+            else {
+                int previousLineNumber = previousLineNumbers[lineNumber - 1];
+                LineBlameResult line = previousLineNumber <= previous.size() ? previous.get(previousLineNumber - 1) : null;
+                result.add(line == null ? null : new LineBlameResult(line.getCommitId(), line.getFilePath(), line.getBeforeFilePath(),
+                        line.getCommitter(), line.getCommitDate(), line.getResultLineNumber(), lineNumber));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the changed lines, and all the other lines of the code elements having a changed line; all the lines
+     * when the file cannot be parsed
+     */
+    private static SortedSet<Integer> expandToElements(Repository repository, String commitId, String filePath, List<String> lines, SortedSet<Integer> changedLines) {
+        SortedSet<Integer> result = new TreeSet<>(changedLines);
+        if (changedLines.isEmpty())
+            return result;
+        try {
+            GitRepository gitRepository = new GitRepository(repository);
+            Version version = gitRepository.getVersion(commitId);
+            UMLModel umlModel = BaseTracker.getUMLModel(repository, commitId, Collections.singleton(filePath));
+            Map<String, List<Integer>> linesByElement = new HashMap<>();
+            Set<String> changedElements = new HashSet<>();
+            for (int lineNumber = 1; lineNumber <= lines.size(); lineNumber++) {
+                if (lines.get(lineNumber - 1).isBlank())
+                    continue;
+                CodeElement codeElement;
+                try {
+                    codeElement = new CodeElementLocator(gitRepository, commitId, filePath, lineNumber).locateWithoutName(version, umlModel);
+                }
+                catch (Exception e) {
+                    codeElement = null;
+                }
+                if (codeElement == null)
+                    continue;
+                String key = CodeTrackerBlame.elementKey(codeElement);
+                linesByElement.computeIfAbsent(key, k -> new ArrayList<>()).add(lineNumber);
+                if (changedLines.contains(lineNumber))
+                    changedElements.add(key);
+            }
+            for (String key : changedElements)
+                result.addAll(linesByElement.get(key));
+        }
+        catch (Exception e) {
+            logger.error("Error in locating the changed code elements of " + filePath + " in commit " + commitId);
+            logger.error(e.getMessage());
+            for (int lineNumber = 1; lineNumber <= lines.size(); lineNumber++) {
+                if (!lines.get(lineNumber - 1).isBlank())
+                    result.add(lineNumber);
+            }
+        }
+        return result;
+    }
+
+    private static EditList diff(List<String> previousLines, List<String> lines) {
+        return DiffAlgorithm.getAlgorithm(DiffAlgorithm.SupportedAlgorithm.HISTOGRAM)
+                .diff(RawTextComparator.DEFAULT, rawText(previousLines), rawText(lines));
+    }
+
+    private static RawText rawText(List<String> lines) {
+        StringBuilder content = new StringBuilder();
+        for (String line : lines)
+            content.append(line).append('\n');
+        return new RawText(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
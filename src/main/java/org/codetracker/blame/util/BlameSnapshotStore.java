@@ -0,0 +1,118 @@
+package org.codetracker.blame.util;
+
+import org.codetracker.blame.model.LineBlameResult;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.util.sha1.SHA1;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists the blame of a file at a commit, one file per blamer, file path and commit, so that it can be reused
+ * when the same file is blamed again at the same or a later commit.
+ */
+public class BlameSnapshotStore {
+    private static final int MAGIC = 0x43544253;
+    private static final int FORMAT_VERSION = 1;
+    private static final String DEFAULT_DIRECTORY = "codetracker/blame";
+
+    private final File directory;
+
+    public BlameSnapshotStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the store kept in the git directory of the repository
+     */
+    public static BlameSnapshotStore open(Repository repository) {
+        return new BlameSnapshotStore(new File(repository.getDirectory(), DEFAULT_DIRECTORY));
+    }
+
+    public boolean contains(String blamer, String filePath, String commitId) {
+        return file(blamer, filePath, commitId).isFile();
+    }
+
+    /**
+     * @return the blame of each line of the file, indexed by line number minus one, or null if no snapshot is stored
+     * or the stored snapshot cannot be read
+     */
+    public List<LineBlameResult> load(String blamer, String filePath, String commitId) throws IOException {
+        File file = file(blamer, filePath, commitId);
+        if (!file.isFile())
+            return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION)
+                return null;
+            int lineCount = in.readInt();
+            List<LineBlameResult> lines = new ArrayList<>(lineCount);
+            for (int i = 0; i < lineCount; i++) {
+                lines.add(in.readBoolean() ? read(in, i + 1) : null);
+            }
+            return lines;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param lines the blame of each line of the file, indexed by line number minus one, null for lines without blame
+     */
+    public void save(String blamer, String filePath, String commitId, List<LineBlameResult> lines) throws IOException {
+        File file = file(blamer, filePath, commitId);
+        Files.createDirectories(file.getParentFile().toPath());
+        File temporary = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(lines.size());
+            for (LineBlameResult line : lines) {
+                out.writeBoolean(line != null);
+                if (line != null)
+                    write(out, line);
+            }
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private File file(String blamer, String filePath, String commitId) {
+        SHA1 sha1 = SHA1.newInstance();
+        sha1.update((blamer + ":" + filePath).getBytes(StandardCharsets.UTF_8));
+        String key = ObjectId.fromRaw(sha1.digest()).getName();
+        return new File(new File(new File(directory, key.substring(0, 2)), key.substring(2)), commitId);
+    }
+
+    private static void write(DataOutputStream out, LineBlameResult line) throws IOException {
+        out.writeUTF(line.getCommitId());
+        writeString(out, line.getFilePath());
+        writeString(out, line.getBeforeFilePath());
+        writeString(out, line.getCommitter());
+        out.writeLong(line.getCommitDate());
+        out.writeInt(line.getResultLineNumber());
+    }
+
+    private static LineBlameResult read(DataInputStream in, int lineNumber) throws IOException {
+        String commitId = in.readUTF();
+        String filePath = readString(in);
+        String beforeFilePath = readString(in);
+        String committer = readString(in);
+        long commitDate = in.readLong();
+        int resultLineNumber = in.readInt();
+        return new LineBlameResult(commitId, filePath, beforeFilePath, committer, commitDate, resultLineNumber, lineNumber);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null)
+            out.writeUTF(value);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -1,6 +1,7 @@
 package org.codetracker.change;
 
 import org.codetracker.api.CodeElement;
+import org.refactoringminer.api.RefactoringType;
 
 import java.util.Optional;
 
@@ -21,4 +22,6 @@ public abstract class AbstractChange implements Change {
     }
 
     public Optional<EvolutionHook<? extends CodeElement>> getEvolutionHook() { return Optional.empty(); }
+
+    public Optional<RefactoringType> getRefactoringType() { return Optional.empty(); }
 }
@@ -1,6 +1,7 @@
 package org.codetracker.change;
 
 import org.codetracker.api.CodeElement;
+import org.refactoringminer.api.RefactoringType;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -12,6 +13,11 @@ public interface Change {
 
     Optional<EvolutionHook<? extends CodeElement>> getEvolutionHook();
 
+    /**
+     * @return the type of the refactoring the change was built from, if any
+     */
+    Optional<RefactoringType> getRefactoringType();
+
     enum Type {
         NO_CHANGE("not changed"),
         INTRODUCED("introduced"),
@@ -1,6 +1,9 @@
 package org.codetracker.change;
 
 import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
+
+import java.util.Optional;
 
 public class ContainerChange extends AbstractChange {
     private final Refactoring refactoring;
@@ -20,4 +23,9 @@ public class ContainerChange extends AbstractChange {
             return String.format("The container of the code element is changed due to %s.", refactoring);
         return refactoring.toString();
     }
+
+    @Override
+    public Optional<RefactoringType> getRefactoringType() {
+        return Optional.ofNullable(refactoring).map(Refactoring::getRefactoringType);
+    }
 }
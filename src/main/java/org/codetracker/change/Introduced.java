@@ -1,8 +1,11 @@
 package org.codetracker.change;
 
 import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
 import org.codetracker.api.CodeElement;
 
+import java.util.Optional;
+
 public class Introduced extends AbstractChange {
     protected final CodeElement addedElement;
     protected final String comment;
@@ -30,4 +33,9 @@ public class Introduced extends AbstractChange {
     public String toString() {
         return comment;
     }
+
+    @Override
+    public Optional<RefactoringType> getRefactoringType() {
+        return Optional.ofNullable(refactoring).map(Refactoring::getRefactoringType);
+    }
 }
@@ -0,0 +1,30 @@
+package org.codetracker.change;
+
+import org.refactoringminer.api.RefactoringType;
+
+import java.util.Optional;
+
+/**
+ * A change read back from a {@link org.codetracker.util.HistoryStore}. Changes are stored with their type and
+ * description, and the type of the refactoring they were built from, if any, and read back as this plain value.
+ */
+public class StoredChange extends AbstractChange {
+    private final String description;
+    private final RefactoringType refactoringType;
+
+    public StoredChange(Type type, String description, RefactoringType refactoringType) {
+        super(type);
+        this.description = description;
+        this.refactoringType = refactoringType;
+    }
+
+    @Override
+    public Optional<RefactoringType> getRefactoringType() {
+        return Optional.ofNullable(refactoringType);
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -2,6 +2,9 @@ package org.codetracker.change.attribute;
 
 import org.codetracker.change.AbstractChange;
 import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
+
+import java.util.Optional;
 
 public abstract class AttributeChange extends AbstractChange {
     private final Refactoring refactoring;
@@ -26,4 +29,9 @@ public abstract class AttributeChange extends AbstractChange {
     		return refactoring.toString();
     	return type.getTitle();
     }
+
+    @Override
+    public Optional<RefactoringType> getRefactoringType() {
+        return Optional.ofNullable(refactoring).map(Refactoring::getRefactoringType);
+    }
 }
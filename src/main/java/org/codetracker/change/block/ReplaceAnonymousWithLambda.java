@@ -1,6 +1,9 @@
 package org.codetracker.change.block;
 
 import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
+
+import java.util.Optional;
 
 public class ReplaceAnonymousWithLambda extends BlockChange {
     private final Refactoring refactoring;
@@ -18,4 +21,9 @@ public class ReplaceAnonymousWithLambda extends BlockChange {
     public String toString() {
         return refactoring.toString();
     }
+
+    @Override
+    public Optional<RefactoringType> getRefactoringType() {
+        return Optional.ofNullable(refactoring).map(Refactoring::getRefactoringType);
+    }
 }
@@ -2,6 +2,9 @@ package org.codetracker.change.clazz;
 
 import org.codetracker.change.AbstractChange;
 import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
+
+import java.util.Optional;
 
 public abstract class ClassChange extends AbstractChange {
     private final Refactoring refactoring;
@@ -26,4 +29,9 @@ public abstract class ClassChange extends AbstractChange {
     		return refactoring.toString();
     	return "";
     }
+
+    @Override
+    public Optional<RefactoringType> getRefactoringType() {
+        return Optional.ofNullable(refactoring).map(Refactoring::getRefactoringType);
+    }
 }
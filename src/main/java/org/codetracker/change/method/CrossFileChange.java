@@ -1,6 +1,9 @@
 package org.codetracker.change.method;
 
 import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
+
+import java.util.Optional;
 
 public abstract class CrossFileChange extends MethodChange {
     private final Refactoring refactoring;
@@ -20,4 +23,9 @@ public abstract class CrossFileChange extends MethodChange {
             return refactoring.toString();
         return type.getTitle();
     }
+
+    @Override
+    public Optional<RefactoringType> getRefactoringType() {
+        return Optional.ofNullable(refactoring).map(Refactoring::getRefactoringType);
+    }
 }
@@ -1,6 +1,9 @@
 package org.codetracker.change.method;
 
 import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
+
+import java.util.Optional;
 
 public abstract class MethodSignatureChange extends MethodChange {
     private final Refactoring refactoring;
@@ -25,4 +28,9 @@ public abstract class MethodSignatureChange extends MethodChange {
     		return refactoring.toString();
     	return "";
     }
+
+    @Override
+    public Optional<RefactoringType> getRefactoringType() {
+        return Optional.ofNullable(refactoring).map(Refactoring::getRefactoringType);
+    }
 }
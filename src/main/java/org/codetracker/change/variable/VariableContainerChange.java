@@ -1,6 +1,9 @@
 package org.codetracker.change.variable;
 
 import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
+
+import java.util.Optional;
 
 public class VariableContainerChange extends VariableCrossFileChange {
     private final Refactoring refactoring;
@@ -13,4 +16,9 @@ public class VariableContainerChange extends VariableCrossFileChange {
     public Refactoring getRefactoring() {
         return refactoring;
     }
+
+    @Override
+    public Optional<RefactoringType> getRefactoringType() {
+        return Optional.ofNullable(refactoring).map(Refactoring::getRefactoringType);
+    }
 }
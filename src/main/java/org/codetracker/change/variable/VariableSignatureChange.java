@@ -1,6 +1,9 @@
 package org.codetracker.change.variable;
 
 import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
+
+import java.util.Optional;
 
 public abstract class VariableSignatureChange extends VariableChange {
 
@@ -19,4 +22,9 @@ public abstract class VariableSignatureChange extends VariableChange {
     public String toString() {
         return refactoring.toString();
     }
+
+    @Override
+    public Optional<RefactoringType> getRefactoringType() {
+        return Optional.ofNullable(refactoring).map(Refactoring::getRefactoringType);
+    }
 }
@@ -5,7 +5,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.codetracker.api.Version;
-import org.codetracker.util.Util;
+import org.codetracker.util.Fingerprint;
 
 import gr.uom.java.xmi.LocationInfo;
 import gr.uom.java.xmi.UMLAbstractClass;
@@ -70,7 +70,7 @@ public class Annotation extends BaseCodeElement {
 		LocationInfo annotationLocationInfo = annotation.getLocationInfo();
 		String statementType = annotationLocationInfo.getCodeElementType().name();
 		String name = String.format("%s$%s(%d-%d)", clazz.getName(), statementType, annotationLocationInfo.getStartLine(), annotationLocationInfo.getEndLine());
-		String sha512 = Util.getSHA512(annotation.toString());
+		String sha512 = Fingerprint.digest(annotation.toString());
 		String identifierExcludeVersion = String.format(
 				"%s$%s:{%s,%s}",
 				clazz.getIdentifierIgnoringVersion(),
@@ -85,7 +85,7 @@ public class Annotation extends BaseCodeElement {
 		LocationInfo annotationLocationInfo = annotation.getLocationInfo();
 		String statementType = annotationLocationInfo.getCodeElementType().name();
 		String name = String.format("%s$%s(%d-%d)", attribute.getName(), statementType, annotationLocationInfo.getStartLine(), annotationLocationInfo.getEndLine());
-		String sha512 = Util.getSHA512(annotation.toString());
+		String sha512 = Fingerprint.digest(annotation.toString());
 		String identifierExcludeVersion = String.format(
 				"%s$%s:{%s,%s}",
 				attribute.getIdentifierIgnoringVersion(),
@@ -100,7 +100,7 @@ public class Annotation extends BaseCodeElement {
 		LocationInfo annotationLocationInfo = annotation.getLocationInfo();
 		String statementType = annotationLocationInfo.getCodeElementType().name();
 		String name = String.format("%s$%s(%d-%d)", method.getName(), statementType, annotationLocationInfo.getStartLine(), annotationLocationInfo.getEndLine());
-		String sha512 = Util.getSHA512(annotation.toString());
+		String sha512 = Fingerprint.digest(annotation.toString());
 		String identifierExcludeVersion = String.format(
 				"%s$%s:{%s,%s}",
 				method.getIdentifierIgnoringVersion(),
@@ -5,7 +5,7 @@ import gr.uom.java.xmi.VariableDeclarationContainer;
 import gr.uom.java.xmi.LocationInfo.CodeElementType;
 import gr.uom.java.xmi.decomposition.*;
 import org.codetracker.api.Version;
-import org.codetracker.util.Util;
+import org.codetracker.util.Fingerprint;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -42,7 +42,7 @@ public class Block extends BaseCodeElement {
         LocationInfo compositeLocationInfo = composite.getLocationInfo();
         String statementType = compositeLocationInfo.getCodeElementType().getName() != null ? compositeLocationInfo.getCodeElementType().getName() : composite.toString();
         String name = String.format("%s$%s(%d-%d)", method.getName(), statementType, compositeLocationInfo.getStartLine(), compositeLocationInfo.getEndLine());
-        String sha512 = Util.getSHA512(composite.getAllStatements().stream().map(AbstractCodeFragment::toString).collect(Collectors.joining()));
+        String sha512 = Fingerprint.digest(composite.getAllStatements().stream().map(AbstractCodeFragment::toString).collect(Collectors.joining()));
         String identifierExcludeVersion = String.format(
                 "%s$%s:{%s,%s}",
                 method.getIdentifierIgnoringVersion(),
@@ -57,7 +57,7 @@ public class Block extends BaseCodeElement {
         LocationInfo compositeLocationInfo = composite.getLocationInfo();
         String statementType = compositeLocationInfo.getCodeElementType().getName() != null ? compositeLocationInfo.getCodeElementType().getName() : composite.toString();
         String name = String.format("%s$%s(%d-%d)", attribute.getName(), statementType, compositeLocationInfo.getStartLine(), compositeLocationInfo.getEndLine());
-        String sha512 = Util.getSHA512(composite.getAllStatements().stream().map(AbstractCodeFragment::toString).collect(Collectors.joining()));
+        String sha512 = Fingerprint.digest(composite.getAllStatements().stream().map(AbstractCodeFragment::toString).collect(Collectors.joining()));
         String identifierExcludeVersion = String.format(
                 "%s$%s:{%s,%s}",
                 attribute.getIdentifierIgnoringVersion(),
@@ -79,7 +79,7 @@ public class Block extends BaseCodeElement {
         if(streamAPICalls.size() > 0) {
             String statementType = streamAPICalls.get(0).getName();
             String name = String.format("%s$%s(%d-%d)", method.getName(), statementType, compositeLocationInfo.getStartLine(), compositeLocationInfo.getEndLine());
-            String sha512 = Util.getSHA512(statement.toString());
+            String sha512 = Fingerprint.digest(statement.toString());
             String identifierExcludeVersion = String.format(
                     "%s$%s:{%s,%s}",
                     method.getIdentifierIgnoringVersion(),
@@ -91,7 +91,7 @@ public class Block extends BaseCodeElement {
         }
     	String statementType = statement.getLocationInfo().getCodeElementType().name();
         String name = String.format("%s$%s(%d-%d)", method.getName(), statementType, compositeLocationInfo.getStartLine(), compositeLocationInfo.getEndLine());
-        String sha512 = Util.getSHA512(statement.toString());
+        String sha512 = Fingerprint.digest(statement.toString());
         String identifierExcludeVersion = String.format(
                 "%s$%s:{%s,%s}",
                 method.getIdentifierIgnoringVersion(),
@@ -108,7 +108,7 @@ public class Block extends BaseCodeElement {
         if(streamAPICalls.size() > 0) {
             String statementType = streamAPICalls.get(0).getName();
             String name = String.format("%s$%s(%d-%d)", attribute.getName(), statementType, compositeLocationInfo.getStartLine(), compositeLocationInfo.getEndLine());
-            String sha512 = Util.getSHA512(statement.toString());
+            String sha512 = Fingerprint.digest(statement.toString());
             String identifierExcludeVersion = String.format(
                     "%s$%s:{%s,%s}",
                     attribute.getIdentifierIgnoringVersion(),
@@ -120,7 +120,7 @@ public class Block extends BaseCodeElement {
         }
     	String statementType = statement.getLocationInfo().getCodeElementType().name();
         String name = String.format("%s$%s(%d-%d)", attribute.getName(), statementType, compositeLocationInfo.getStartLine(), compositeLocationInfo.getEndLine());
-        String sha512 = Util.getSHA512(statement.toString());
+        String sha512 = Fingerprint.digest(statement.toString());
         String identifierExcludeVersion = String.format(
                 "%s$%s:{%s,%s}",
                 attribute.getIdentifierIgnoringVersion(),
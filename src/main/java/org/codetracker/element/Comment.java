@@ -5,7 +5,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.codetracker.api.Version;
-import org.codetracker.util.Util;
+import org.codetracker.util.Fingerprint;
 
 import gr.uom.java.xmi.LocationInfo;
 import gr.uom.java.xmi.UMLAbstractClass;
@@ -74,7 +74,7 @@ public class Comment extends BaseCodeElement {
 		LocationInfo commentLocationInfo = comment.getLocationInfo();
 		String statementType = commentLocationInfo.getCodeElementType().name();
 		String name = String.format("%s$%s(%d-%d)", clazz.getName(), statementType, commentLocationInfo.getStartLine(), commentLocationInfo.getEndLine());
-		String sha512 = Util.getSHA512(comment.getText());
+		String sha512 = Fingerprint.digest(comment.getText());
 		String identifierExcludeVersion = String.format(
 				"%s$%s:{%s,%s}",
 				clazz.getIdentifierIgnoringVersion(),
@@ -89,7 +89,7 @@ public class Comment extends BaseCodeElement {
 		LocationInfo commentLocationInfo = comment.getLocationInfo();
 		String statementType = commentLocationInfo.getCodeElementType().name();
 		String name = String.format("%s$%s(%d-%d)", attribute.getName(), statementType, commentLocationInfo.getStartLine(), commentLocationInfo.getEndLine());
-		String sha512 = Util.getSHA512(comment.getText());
+		String sha512 = Fingerprint.digest(comment.getText());
 		String identifierExcludeVersion = String.format(
 				"%s$%s:{%s,%s}",
 				attribute.getIdentifierIgnoringVersion(),
@@ -104,7 +104,7 @@ public class Comment extends BaseCodeElement {
 		LocationInfo commentLocationInfo = comment.getLocationInfo();
 		String statementType = commentLocationInfo.getCodeElementType().name();
 		String name = String.format("%s$%s(%d-%d)", method.getName(), statementType, commentLocationInfo.getStartLine(), commentLocationInfo.getEndLine());
-		String sha512 = Util.getSHA512(comment.getText());
+		String sha512 = Fingerprint.digest(comment.getText());
 		String identifierExcludeVersion = String.format(
 				"%s$%s:{%s,%s}",
 				method.getIdentifierIgnoringVersion(),
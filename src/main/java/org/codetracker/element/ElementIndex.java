@@ -0,0 +1,135 @@
+package org.codetracker.element;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import gr.uom.java.xmi.*;
+import org.codetracker.api.Version;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The methods, classes and attributes of a model, by their identifiers ignoring version, so that finding the element
+ * with the identifier of another one is a probe instead of a scan of the whole model. When several elements have the
+ * same identifier, the index keeps the first one in the order the trackers scan the model.
+ * <p>
+ * The index of a model is built once, and kept as long as the model, in a cache holding the models weakly and
+ * comparing them by identity. It is built again if classes, operations or attributes were removed from the model.
+ */
+public class ElementIndex {
+    private static final Cache<UMLModel, ElementIndex> INDEXES = CacheBuilder.newBuilder().weakKeys().build();
+
+    private final int size;
+    private final Map<String, VariableDeclarationContainer> methods = new HashMap<>();
+    private final Map<String, VariableDeclarationContainer> methodsIgnoringDocumentationAndBody = new HashMap<>();
+    private final Map<String, VariableDeclarationContainer> methodsIgnoringAnnotation = new HashMap<>();
+    private final Map<String, UMLClass> classes = new HashMap<>();
+    private final Map<String, UMLAttribute> attributes = new HashMap<>();
+
+    private ElementIndex(UMLModel umlModel) {
+        this.size = size(umlModel);
+        for (UMLClass umlClass : umlModel.getClassList()) {
+            for (UMLAnonymousClass anonymousClass : umlClass.getAnonymousClassList()) {
+                addMethods(anonymousClass.getOperations());
+            }
+            addMethods(umlClass.getOperations());
+            addMethods(umlClass.getInitializers());
+            putIfAbsent(classes, Class.of(umlClass, null).getIdentifierIgnoringVersion(), umlClass);
+            addAttributes(umlClass.getAttributes());
+            addAttributes(umlClass.getEnumConstants());
+            for (UMLAnonymousClass anonymousClass : umlClass.getAnonymousClassList()) {
+                addAttributes(anonymousClass.getAttributes());
+                addAttributes(anonymousClass.getEnumConstants());
+            }
+        }
+    }
+
+    public static ElementIndex of(UMLModel umlModel) {
+        ElementIndex index = INDEXES.getIfPresent(umlModel);
+        if (index == null || index.size != size(umlModel)) {
+            index = new ElementIndex(umlModel);
+            INDEXES.put(umlModel, index);
+        }
+        return index;
+    }
+
+    private static int size(UMLModel umlModel) {
+        int size = umlModel.getClassList().size();
+        for (UMLClass umlClass : umlModel.getClassList()) {
+            size += umlClass.getOperations().size() + umlClass.getInitializers().size() + umlClass.getAttributes().size() + umlClass.getEnumConstants().size();
+            for (UMLAnonymousClass anonymousClass : umlClass.getAnonymousClassList()) {
+                size += 1 + anonymousClass.getOperations().size() + anonymousClass.getAttributes().size() + anonymousClass.getEnumConstants().size();
+            }
+        }
+        return size;
+    }
+
+    private void addMethods(List<? extends VariableDeclarationContainer> operations) {
+        for (VariableDeclarationContainer operation : operations) {
+            Method method = Method.of(operation, null);
+            putIfAbsent(methods, method.getIdentifierIgnoringVersion(), operation);
+            putIfAbsent(methodsIgnoringDocumentationAndBody, method.getIdentifierIgnoringVersionAndDocumentationAndBody(), operation);
+            putIfAbsent(methodsIgnoringAnnotation, method.getIdentifierIgnoringVersionAndAnnotation(), operation);
+        }
+    }
+
+    private void addAttributes(List<? extends UMLAttribute> umlAttributes) {
+        for (UMLAttribute umlAttribute : umlAttributes) {
+            putIfAbsent(attributes, Attribute.of(umlAttribute, null).getIdentifierIgnoringVersion(), umlAttribute);
+        }
+    }
+
+    private static <T> void putIfAbsent(Map<String, T> map, String identifier, T element) {
+        if (identifier != null)
+            map.putIfAbsent(identifier, element);
+    }
+
+    /**
+     * @return the method with the identifier ignoring version of {@code method}, at {@code version}, or null
+     */
+    public Method getMethod(Version version, Method method) {
+        return method(methods.get(method.getIdentifierIgnoringVersion()), version);
+    }
+
+    /**
+     * @return the method with the given identifier ignoring version, at {@code version}, or null
+     */
+    public Method getMethod(Version version, String identifierIgnoringVersion) {
+        return method(methods.get(identifierIgnoringVersion), version);
+    }
+
+    /**
+     * @return the method with the identifier ignoring version, documentation and body of {@code method}, or null
+     */
+    public Method getMethodIgnoringDocumentationAndBody(Version version, Method method) {
+        return method(methodsIgnoringDocumentationAndBody.get(method.getIdentifierIgnoringVersionAndDocumentationAndBody()), version);
+    }
+
+    /**
+     * @return the method with the identifier ignoring version and annotations of {@code method}, or null
+     */
+    public Method getMethodIgnoringAnnotation(Version version, Method method) {
+        return method(methodsIgnoringAnnotation.get(method.getIdentifierIgnoringVersionAndAnnotation()), version);
+    }
+
+    /**
+     * @return the class with the identifier ignoring version of {@code clazz}, at {@code version}, or null
+     */
+    public Class getClass(Version version, Class clazz) {
+        UMLClass umlClass = classes.get(clazz.getIdentifierIgnoringVersion());
+        return umlClass != null ? Class.of(umlClass, version) : null;
+    }
+
+    /**
+     * @return the attribute with the identifier ignoring version of {@code attribute}, at {@code version}, or null
+     */
+    public Attribute getAttribute(Version version, Attribute attribute) {
+        UMLAttribute umlAttribute = attributes.get(attribute.getIdentifierIgnoringVersion());
+        return umlAttribute != null ? Attribute.of(umlAttribute, version) : null;
+    }
+
+    private static Method method(VariableDeclarationContainer operation, Version version) {
+        return operation != null ? Method.of(operation, version) : null;
+    }
+}
@@ -1,7 +1,7 @@
 package org.codetracker.element;
 
 import org.codetracker.api.Version;
-import org.codetracker.util.Util;
+import org.codetracker.util.Fingerprint;
 
 import gr.uom.java.xmi.LocationInfo;
 import gr.uom.java.xmi.UMLAbstractClass;
@@ -38,7 +38,7 @@ public class Import extends BaseCodeElement {
 		LocationInfo importLocationInfo = umlImport.getLocationInfo();
 		String statementType = importLocationInfo.getCodeElementType().name();
 		String name = String.format("%s$%s(%d-%d)", clazz.getName(), statementType, importLocationInfo.getStartLine(), importLocationInfo.getEndLine());
-		String sha512 = Util.getSHA512(umlImport.getName());
+		String sha512 = Fingerprint.digest(umlImport.getName());
 		String identifierExcludeVersion = String.format(
 				"%s$%s:{%s}",
 				clazz.getIdentifierIgnoringVersion(),
@@ -9,7 +9,10 @@ import gr.uom.java.xmi.decomposition.LambdaExpressionObject;
 import gr.uom.java.xmi.decomposition.StatementObject;
 import gr.uom.java.xmi.decomposition.VariableDeclaration;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.codetracker.api.Version;
+import org.codetracker.util.Fingerprint;
 import org.codetracker.util.Util;
 
 import java.util.*;
@@ -17,42 +20,90 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class Method extends BaseCodeElement {
+    /**
+     * The identifiers of the operations, computed once for each operation and shared by all the methods of its
+     * versions. The operations are weakly referenced, and compared by identity, so the identifiers of an operation
+     * live as long as the model it belongs to.
+     */
+    private static final Cache<VariableDeclarationContainer, Identifiers> IDENTIFIERS = CacheBuilder.newBuilder().weakKeys().build();
+
     private final VariableDeclarationContainer umlOperation;
-    private final String documentsHashCode;
-    private final String identifierIgnoringVersionAndDocumentationAndBody;
-    private final String identifierIgnoringVersionAndAnnotation;
+    private final Identifiers identifiers;
 
-    private Method(VariableDeclarationContainer umlOperation, String identifierIgnoringVersion, String identifierIgnoringVersionAndDocumentationAndBody, String identifierIgnoringVersionAndAnnotation, String name, String filePath, Version version) {
-        super(identifierIgnoringVersion, name, filePath, version);
+    private Method(VariableDeclarationContainer umlOperation, Identifiers identifiers, Version version) {
+        super(identifiers.identifierIgnoringVersion, identifiers.name, umlOperation.getLocationInfo().getFilePath(), version);
         this.umlOperation = umlOperation;
-        this.documentsHashCode = getDocumentsSha512(umlOperation);
-        this.identifierIgnoringVersionAndDocumentationAndBody = identifierIgnoringVersionAndDocumentationAndBody;
-        this.identifierIgnoringVersionAndAnnotation = identifierIgnoringVersionAndAnnotation;
+        this.identifiers = identifiers;
     }
 
     public BaseCodeElement of(Version version) {
-    	return of(this.umlOperation, version);
+    	return new Method(this.umlOperation, this.identifiers, version);
     }
 
     public static Method of(VariableDeclarationContainer umlOperation, Version version) {
-        String sourceFolder = umlOperation.getLocationInfo().getSourceFolder();
-        String identifierIgnoringVersion = null;
-        String identifierIgnoringVersionAndDocumentationAndBody = null;
-        String identifierIgnoringVersionAndAnnotation = null;
-        String name = null;
-        if (umlOperation instanceof UMLOperation) {
-            identifierIgnoringVersion = getIdentifierExcludeVersion((UMLOperation) umlOperation, true, true, true);
-            identifierIgnoringVersionAndDocumentationAndBody = getIdentifierExcludeVersion((UMLOperation) umlOperation, false, false, true);
-            identifierIgnoringVersionAndAnnotation = getIdentifierExcludeVersion((UMLOperation) umlOperation, true, true, false);
-            name = String.format("%s%s", sourceFolder, ((UMLOperation) umlOperation).getKey());
-        }
-        else if (umlOperation instanceof UMLInitializer) {
-            identifierIgnoringVersion = getIdentifierExcludeVersion((UMLInitializer) umlOperation, true, true);
-            identifierIgnoringVersionAndDocumentationAndBody = getIdentifierExcludeVersion((UMLInitializer) umlOperation, false, false);
-            identifierIgnoringVersionAndAnnotation = identifierIgnoringVersion;
-            name = String.format("%s%s", sourceFolder, umlOperation.getName());
-        }
-        return new Method(umlOperation, identifierIgnoringVersion, identifierIgnoringVersionAndDocumentationAndBody, identifierIgnoringVersionAndAnnotation, name, umlOperation.getLocationInfo().getFilePath(), version);
+        Identifiers identifiers = IDENTIFIERS.getIfPresent(umlOperation);
+        if (identifiers == null) {
+            identifiers = Identifiers.of(umlOperation);
+            IDENTIFIERS.put(umlOperation, identifiers);
+        }
+        return new Method(umlOperation, identifiers, version);
+    }
+
+    private static final class Identifiers {
+        private final String identifierIgnoringVersion;
+        private final String identifierIgnoringVersionAndDocumentationAndBody;
+        private final String identifierIgnoringVersionAndAnnotation;
+        private final String name;
+        private final String documentsHashCode;
+        private final Fingerprint fingerprint;
+        private final Fingerprint fingerprintIgnoringDocumentationAndBody;
+        private final Fingerprint fingerprintIgnoringAnnotation;
+
+        private Identifiers(String identifierIgnoringVersion, String identifierIgnoringVersionAndDocumentationAndBody, String identifierIgnoringVersionAndAnnotation, String name, String documentsHashCode) {
+            this.identifierIgnoringVersion = identifierIgnoringVersion;
+            this.identifierIgnoringVersionAndDocumentationAndBody = identifierIgnoringVersionAndDocumentationAndBody;
+            this.identifierIgnoringVersionAndAnnotation = identifierIgnoringVersionAndAnnotation;
+            this.name = name;
+            this.documentsHashCode = documentsHashCode;
+            this.fingerprint = fingerprint(identifierIgnoringVersion);
+            this.fingerprintIgnoringDocumentationAndBody = fingerprint(identifierIgnoringVersionAndDocumentationAndBody);
+            this.fingerprintIgnoringAnnotation = fingerprint(identifierIgnoringVersionAndAnnotation);
+        }
+
+        private static Fingerprint fingerprint(String identifier) {
+            return identifier != null ? Fingerprint.of(identifier) : null;
+        }
+
+        /**
+         * Compares two identifiers by their fingerprints, falling back to the identifiers themselves when a fingerprint
+         * is missing
+         */
+        private static boolean equal(Fingerprint fingerprint, String identifier, Fingerprint otherFingerprint, String otherIdentifier) {
+            if (fingerprint != null && otherFingerprint != null)
+                return fingerprint.equals(otherFingerprint);
+            return identifier.equals(otherIdentifier);
+        }
+
+        private static Identifiers of(VariableDeclarationContainer umlOperation) {
+            String sourceFolder = umlOperation.getLocationInfo().getSourceFolder();
+            String identifierIgnoringVersion = null;
+            String identifierIgnoringVersionAndDocumentationAndBody = null;
+            String identifierIgnoringVersionAndAnnotation = null;
+            String name = null;
+            if (umlOperation instanceof UMLOperation) {
+                identifierIgnoringVersion = getIdentifierExcludeVersion((UMLOperation) umlOperation, true, true, true);
+                identifierIgnoringVersionAndDocumentationAndBody = getIdentifierExcludeVersion((UMLOperation) umlOperation, false, false, true);
+                identifierIgnoringVersionAndAnnotation = getIdentifierExcludeVersion((UMLOperation) umlOperation, true, true, false);
+                name = String.format("%s%s", sourceFolder, ((UMLOperation) umlOperation).getKey());
+            }
+            else if (umlOperation instanceof UMLInitializer) {
+                identifierIgnoringVersion = getIdentifierExcludeVersion((UMLInitializer) umlOperation, true, true);
+                identifierIgnoringVersionAndDocumentationAndBody = getIdentifierExcludeVersion((UMLInitializer) umlOperation, false, false);
+                identifierIgnoringVersionAndAnnotation = identifierIgnoringVersion;
+                name = String.format("%s%s", sourceFolder, umlOperation.getName());
+            }
+            return new Identifiers(identifierIgnoringVersion, identifierIgnoringVersionAndDocumentationAndBody, identifierIgnoringVersionAndAnnotation, name, getDocumentsSha512(umlOperation));
+        }
     }
 
     public boolean differInFormatting(Method other) {
@@ -337,21 +388,41 @@ public class Method extends BaseCodeElement {
         return umlOperation;
     }
 
+    String getIdentifierIgnoringVersionAndDocumentationAndBody() {
+        return identifiers.identifierIgnoringVersionAndDocumentationAndBody;
+    }
+
+    String getIdentifierIgnoringVersionAndAnnotation() {
+        return identifiers.identifierIgnoringVersionAndAnnotation;
+    }
+
+    @Override
+    public boolean equalIdentifierIgnoringVersion(BaseCodeElement codeElement) {
+        if (!(codeElement instanceof Method))
+            return super.equalIdentifierIgnoringVersion(codeElement);
+        Identifiers other = ((Method) codeElement).identifiers;
+        return Identifiers.equal(identifiers.fingerprint, identifiers.identifierIgnoringVersion, other.fingerprint, other.identifierIgnoringVersion);
+    }
+
     public boolean equalIdentifierIgnoringVersionAndDocumentAndBody(Method method) {
-        return this.identifierIgnoringVersionAndDocumentationAndBody.equals(method.identifierIgnoringVersionAndDocumentationAndBody);
+        Identifiers other = method.identifiers;
+        return Identifiers.equal(identifiers.fingerprintIgnoringDocumentationAndBody, identifiers.identifierIgnoringVersionAndDocumentationAndBody, other.fingerprintIgnoringDocumentationAndBody, other.identifierIgnoringVersionAndDocumentationAndBody);
     }
 
     public boolean equalIdentifierIgnoringVersionAndAnnotation(Method method) {
-        return this.identifierIgnoringVersionAndAnnotation.equals(method.identifierIgnoringVersionAndAnnotation);
+        Identifiers other = method.identifiers;
+        return Identifiers.equal(identifiers.fingerprintIgnoringAnnotation, identifiers.identifierIgnoringVersionAndAnnotation, other.fingerprintIgnoringAnnotation, other.identifierIgnoringVersionAndAnnotation);
     }
 
     public boolean equalDocuments(Method method) {
-        if (this.documentsHashCode == null && method.documentsHashCode == null) return true;
+        String documentsHashCode = identifiers.documentsHashCode;
+        String otherDocumentsHashCode = method.identifiers.documentsHashCode;
+        if (documentsHashCode == null && otherDocumentsHashCode == null) return true;
 
-        if (this.documentsHashCode == null || method.documentsHashCode == null) {
+        if (documentsHashCode == null || otherDocumentsHashCode == null) {
             return false;
         }
-        return this.documentsHashCode.equals(method.documentsHashCode);
+        return documentsHashCode.equals(otherDocumentsHashCode);
     }
 
     public boolean equalBody(Method method) {
@@ -447,7 +518,7 @@ public class Method extends BaseCodeElement {
     public static String getDocumentsSha512(VariableDeclarationContainer info) {
         if (info.getComments().isEmpty())
             return null;
-        return Util.getSHA512(info.getComments().stream().map(UMLComment::getFullText).collect(Collectors.joining(";")));
+        return Fingerprint.digest(info.getComments().stream().map(UMLComment::getFullText).collect(Collectors.joining(";")));
     }
 
 	public void checkClosingBracket(int lineNumber) {
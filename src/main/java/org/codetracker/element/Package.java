@@ -1,7 +1,7 @@
 package org.codetracker.element;
 
 import org.codetracker.api.Version;
-import org.codetracker.util.Util;
+import org.codetracker.util.Fingerprint;
 
 import gr.uom.java.xmi.LocationInfo;
 import gr.uom.java.xmi.UMLAbstractClass;
@@ -38,7 +38,7 @@ public class Package extends BaseCodeElement {
 		LocationInfo packageLocationInfo = umlPackage.getLocationInfo();
 		String statementType = packageLocationInfo.getCodeElementType().name();
 		String name = String.format("%s$%s(%d-%d)", clazz.getName(), statementType, packageLocationInfo.getStartLine(), packageLocationInfo.getEndLine());
-		String sha512 = Util.getSHA512(umlPackage.getName());
+		String sha512 = Fingerprint.digest(umlPackage.getName());
 		String identifierExcludeVersion = String.format(
 				"%s$%s:{%s}",
 				clazz.getIdentifierIgnoringVersion(),
@@ -6,6 +6,7 @@ import gr.uom.java.xmi.decomposition.AbstractCodeFragment;
 import gr.uom.java.xmi.decomposition.LambdaExpressionObject;
 import gr.uom.java.xmi.decomposition.VariableDeclaration;
 import org.codetracker.api.Version;
+import org.codetracker.util.Fingerprint;
 import org.codetracker.util.Util;
 
 import java.util.stream.Collectors;
@@ -46,7 +47,7 @@ public class Variable extends BaseCodeElement {
     		}
     	}
         String name = String.format("%s$%s(%d)", method.getName(), variableDeclaration.toString().replace(" ", ""), variableDeclaration.getLocationInfo().getStartLine());
-        String sha512 = Util.getSHA512(variableDeclaration.getScope().getStatementsInScopeUsingVariable().stream().map(AbstractCodeFragment::toString).collect(Collectors.joining()));
+        String sha512 = Fingerprint.digest(variableDeclaration.getScope().getStatementsInScopeUsingVariable().stream().map(AbstractCodeFragment::toString).collect(Collectors.joining()));
         String identifierExcludeVersion = null;
         if(lambdaStatement != null) {
         	identifierExcludeVersion = String.format(
@@ -59,7 +60,7 @@ public class Variable extends BaseCodeElement {
                 Util.annotationsToString(variableDeclaration.getAnnotations()),
                 sha512,
                 variableDeclaration.getScope().getParentSignature(),
-                Util.getSHA512(lambdaStatement.getString())
+                Fingerprint.digest(lambdaStatement.getString())
             );
         }
         else {
@@ -0,0 +1,126 @@
+package org.codetracker.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import gr.uom.java.xmi.UMLModel;
+import org.eclipse.jgit.lib.ObjectId;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link UMLModelCache} evicting the least recently used models once a maximum number of entries, or a maximum
+ * total weight (the summed size of the parsed blobs), is reached.
+ */
+public class BoundedUMLModelCache implements UMLModelCache {
+  public static final long DEFAULT_MAXIMUM_WEIGHT = 8L * 1024 * 1024;
+  private final Cache<Key, Entry> cache;
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+
+  private BoundedUMLModelCache(Cache<Key, Entry> cache) {
+    this.cache = cache;
+  }
+
+  public BoundedUMLModelCache() {
+    this(newWeightedCache(DEFAULT_MAXIMUM_WEIGHT));
+  }
+
+  /**
+   * @param maximumSize maximum number of models kept in the cache
+   * @return a cache bounded by the number of models
+   */
+  public static BoundedUMLModelCache withMaximumSize(long maximumSize) {
+    return new BoundedUMLModelCache(CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build());
+  }
+
+  /**
+   * @param maximumWeight maximum summed size of the blobs whose models are kept in the cache
+   * @return a cache bounded by the size of the parsed files
+   */
+  public static BoundedUMLModelCache withMaximumWeight(long maximumWeight) {
+    return new BoundedUMLModelCache(newWeightedCache(maximumWeight));
+  }
+
+  private static Cache<Key, Entry> newWeightedCache(long maximumWeight) {
+    return CacheBuilder.newBuilder()
+        .maximumWeight(maximumWeight)
+        .weigher((Key key, Entry entry) -> entry.weight)
+        .recordStats()
+        .build();
+  }
+
+  @Override
+  public UMLModel take(String filePath, ObjectId blobId) {
+    Entry entry = cache.asMap().remove(new Key(filePath, blobId));
+    if (entry == null) {
+      missCount.increment();
+      return null;
+    }
+    hitCount.increment();
+    return entry.umlModel;
+  }
+
+  @Override
+  public boolean contains(String filePath, ObjectId blobId) {
+    return cache.asMap().containsKey(new Key(filePath, blobId));
+  }
+
+  @Override
+  public void put(String filePath, ObjectId blobId, UMLModel umlModel, long weight) {
+    cache.asMap().putIfAbsent(new Key(filePath, blobId), new Entry(umlModel, (int) Math.min(Integer.MAX_VALUE, Math.max(1, weight))));
+  }
+
+  @Override
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  @Override
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return cache.stats().evictionCount();
+  }
+
+  @Override
+  public void clear() {
+    cache.invalidateAll();
+  }
+
+  private static final class Key {
+    private final String filePath;
+    private final ObjectId blobId;
+
+    private Key(String filePath, ObjectId blobId) {
+      this.filePath = filePath;
+      this.blobId = blobId.copy();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key) o;
+      return filePath.equals(key.filePath) && blobId.equals(key.blobId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(filePath, blobId);
+    }
+  }
+
+  private static final class Entry {
+    private final UMLModel umlModel;
+    private final int weight;
+
+    private Entry(UMLModel umlModel, int weight) {
+      this.umlModel = umlModel;
+      this.weight = weight;
+    }
+  }
+}
@@ -0,0 +1,439 @@
+package org.codetracker.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A persistent index of the commit graph of a repository: for each commit its tree, parents, commit and authored
+ * times, author name, and the paths changed with respect to each parent (with respect to the empty tree for root commits).
+ * <p>
+ * The index is stored in an append-only file and filled incrementally: a commit that is not indexed yet is read
+ * from the repository once, then appended to the file, so later tracking sessions never parse it again. The file can
+ * be shared by several instances, in one or several processes: records are appended, and the file read, under a
+ * file lock, and a file that is corrupt or of another format version is rebuilt rather than failing.
+ * {@link #update(String)} indexes all the ancestors of a commit at once, e.g., after fetching new commits.
+ * <p>
+ * Only the position of each record in the file is kept in memory with the metadata of the commit. The changed paths,
+ * which make up most of a record, are read from the file when first needed and kept in a bounded cache; they are
+ * computed from the repository again if the record is no longer found where it was.
+ */
+public class CommitGraphIndex implements AutoCloseable {
+  private static final int MAGIC = 0x43544347;
+  private static final int FORMAT_VERSION = 2;
+  private static final String DEFAULT_FILE = "codetracker/commit-graph";
+  private static final long MAXIMUM_CHANGED_PATHS = 4096;
+  private static final ConcurrentMap<String, Object> LOCKS = new ConcurrentHashMap<>();
+
+  private final Repository repository;
+  private final File file;
+  private final Map<ObjectId, Commit> commits = new HashMap<>();
+  private final Cache<ObjectId, Set<String>[]> changedPaths = CacheBuilder.newBuilder().maximumSize(MAXIMUM_CHANGED_PATHS).build();
+  private final File lockFile;
+  private final ByteArrayOutputStream unflushed = new ByteArrayOutputStream();
+  private final DataOutputStream unflushedOut = new DataOutputStream(unflushed);
+  private final Map<Commit, Integer> unflushedCommits = new LinkedHashMap<>();
+
+  public CommitGraphIndex(Repository repository, File file) throws IOException {
+    this.repository = repository;
+    this.file = file;
+    this.lockFile = new File(file.getPath() + ".lock");
+    load();
+  }
+
+  /**
+   * @return the index stored in the git directory of the repository, created if it does not exist
+   */
+  public static CommitGraphIndex open(Repository repository) throws IOException {
+    return new CommitGraphIndex(repository, new File(repository.getDirectory(), DEFAULT_FILE));
+  }
+
+  public synchronized Commit get(String commitId) throws IOException {
+    return get(ObjectId.fromString(commitId));
+  }
+
+  /**
+   * @return the indexed commit, read from the repository and appended to the index if it was not indexed yet
+   */
+  public synchronized Commit get(ObjectId commitId) throws IOException {
+    Commit commit = commits.get(commitId);
+    if (commit == null) {
+      try (RevWalk walk = new RevWalk(repository)) {
+        commit = index(walk, walk.parseCommit(commitId));
+      }
+      flush();
+    }
+    return commit;
+  }
+
+  /**
+   * Indexes the commit and all its ancestors that are not indexed yet. The ancestry of the commits already indexed
+   * is followed through the index, as some of their ancestors may be missing, e.g., after an incomplete record was
+   * dropped.
+   */
+  public synchronized void update(String commitId) throws IOException {
+    try (RevWalk walk = new RevWalk(repository)) {
+      Deque<ObjectId> pending = new ArrayDeque<>();
+      Set<ObjectId> seen = new HashSet<>();
+      pending.push(ObjectId.fromString(commitId));
+      while (!pending.isEmpty()) {
+        ObjectId id = pending.pop();
+        if (!seen.add(id)) continue;
+        Commit commit = commits.get(id);
+        if (commit == null) commit = index(walk, walk.parseCommit(id));
+        for (ObjectId parentId : commit.parentIds) {
+          if (!seen.contains(parentId)) pending.push(parentId);
+        }
+      }
+    }
+    flush();
+  }
+
+  public synchronized int size() {
+    return commits.size();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    flush();
+  }
+
+  private Commit index(RevWalk walk, RevCommit revCommit) throws IOException {
+    walk.parseHeaders(revCommit);
+    RevCommit[] parents = revCommit.getParents();
+    ObjectId[] parentIds = new ObjectId[parents.length];
+    for (int i = 0; i < parents.length; i++)
+      parentIds[i] = parents[i].copy();
+    Set<String>[] changed = changedPaths(walk, revCommit);
+    Commit commit = new Commit(this, revCommit.copy(), revCommit.getTree().copy(), parentIds, revCommit.getCommitTime(),
+        revCommit.getAuthorIdent().getWhen().getTime() / 1000L, revCommit.getAuthorIdent().getName());
+    commits.put(commit.id, commit);
+    changedPaths.put(commit.id, changed);
+    write(commit, changed);
+    return commit;
+  }
+
+  /**
+   * @return the paths changed by the commit, read from the file, or computed from the repository if its record is
+   * not in the file
+   */
+  private synchronized Set<String>[] changedPaths(Commit commit) throws IOException {
+    try {
+      return changedPaths.get(commit.id, () -> {
+        Set<String>[] changed = commit.offset >= 0 ? readChangedPaths(commit) : null;
+        if (changed != null) return changed;
+        try (RevWalk walk = new RevWalk(repository)) {
+          return changedPaths(walk, walk.parseCommit(commit.id));
+        }
+      });
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException)
+        throw (IOException) e.getCause();
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private Set<String>[] changedPaths(RevWalk walk, RevCommit revCommit) throws IOException {
+    walk.parseHeaders(revCommit);
+    RevCommit[] parents = revCommit.getParents();
+    Set<String>[] changed = newChangedPaths(Math.max(1, parents.length));
+    if (parents.length == 0) {
+      changed[0] = changedPaths(walk.getObjectReader(), null, revCommit);
+    }
+    for (int i = 0; i < parents.length; i++) {
+      walk.parseHeaders(parents[i]);
+      changed[i] = changedPaths(walk.getObjectReader(), parents[i], revCommit);
+    }
+    return changed;
+  }
+
+  private Set<String> changedPaths(ObjectReader reader, RevCommit parent, RevCommit revCommit) throws IOException {
+    Set<String> changed = new HashSet<>();
+    try (TreeWalk treeWalk = new TreeWalk(reader)) {
+      if (parent != null) treeWalk.addTree(parent.getTree());
+      else treeWalk.addTree(new EmptyTreeIterator());
+      treeWalk.addTree(revCommit.getTree());
+      treeWalk.setRecursive(true);
+      treeWalk.setFilter(TreeFilter.ANY_DIFF);
+      while (treeWalk.next()) {
+        changed.add(treeWalk.getPathString());
+      }
+    }
+    return changed;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Set<String>[] newChangedPaths(int length) {
+    return new Set[length];
+  }
+
+  /**
+   * Reads the records of the file. A record is written whole while the lock is held, so an incomplete or invalid
+   * record read under the lock is left by a crash or is corrupt, like a file of another format: the file is then
+   * rebuilt from the valid records, instead of being truncated in place. The valid records are the ones before the
+   * first invalid one, so they keep their positions in the rebuilt file.
+   */
+  private void load() throws IOException {
+    withLock(() -> {
+      if (!file.exists()) return;
+      long length = file.length();
+      long validLength = 8;
+      boolean valid = false;
+      try (CountingInputStream counting = new CountingInputStream(new BufferedInputStream(new FileInputStream(file)));
+           DataInputStream in = new DataInputStream(counting)) {
+        if (in.readInt() == MAGIC && in.readInt() == FORMAT_VERSION) {
+          while (true) {
+            long offset = counting.getCount();
+            Commit commit = read(in, offset, length - offset);
+            if (commit == null) break;
+            commits.put(commit.id, commit);
+            validLength = counting.getCount();
+          }
+          valid = true;
+        }
+      } catch (EOFException | CorruptIndexException | UTFDataFormatException e) {
+        // the records read so far are kept, the file is rebuilt below
+      }
+      if (!valid) rebuild(validLength);
+    });
+  }
+
+  /**
+   * Reads the next record, skipping its changed paths.
+   *
+   * @param offset the position of the record in the file
+   * @param remaining the number of bytes left in the file, bounding the counts read
+   * @return the next commit, or null at the end of the file
+   */
+  private Commit read(DataInputStream in, long offset, long remaining) throws IOException {
+    int marker = in.read();
+    if (marker == -1) return null;
+    if (marker != 1) throw new CorruptIndexException();
+    ObjectId id = readId(in);
+    ObjectId treeId = readId(in);
+    int parentCount = in.readUnsignedByte();
+    ObjectId[] parentIds = new ObjectId[parentCount];
+    for (int i = 0; i < parentCount; i++) parentIds[i] = readId(in);
+    int commitTime = in.readInt();
+    long authoredTime = in.readLong();
+    String authorName = in.readUTF();
+    for (int i = 0; i < Math.max(1, parentCount); i++) {
+      int count = readCount(in, remaining);
+      for (int j = 0; j < count; j++) ByteStreams.skipFully(in, in.readUnsignedShort());
+    }
+    Commit commit = new Commit(this, id, treeId, parentIds, commitTime, authoredTime, authorName);
+    commit.offset = offset;
+    return commit;
+  }
+
+  /**
+   * @return the changed paths of the record of the commit, or null if the file no longer holds it at its position
+   */
+  private Set<String>[] readChangedPaths(Commit commit) throws IOException {
+    try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+      long remaining = in.length() - commit.offset;
+      if (remaining <= 0) return null;
+      in.seek(commit.offset);
+      if (in.read() != 1) return null;
+      byte[] raw = new byte[20];
+      in.readFully(raw);
+      if (!commit.id.equals(ObjectId.fromRaw(raw))) return null;
+      // the tree and parents, the commit and authored times
+      in.seek(in.getFilePointer() + 20 + 1 + 20L * commit.parentIds.length + 4 + 8);
+      in.readUTF();
+      Set<String>[] changed = newChangedPaths(Math.max(1, commit.parentIds.length));
+      for (int i = 0; i < changed.length; i++) {
+        int count = readCount(in, remaining);
+        changed[i] = new HashSet<>(count * 2);
+        for (int j = 0; j < count; j++) changed[i].add(in.readUTF());
+      }
+      return changed;
+    } catch (EOFException | CorruptIndexException | UTFDataFormatException | FileNotFoundException e) {
+      return null;
+    }
+  }
+
+  private static int readCount(DataInput in, long remaining) throws IOException {
+    int count = in.readInt();
+    // each path takes at least the two bytes of its length
+    if (count < 0 || count > remaining / 2) throw new CorruptIndexException();
+    return count;
+  }
+
+  private static ObjectId readId(DataInputStream in) throws IOException {
+    byte[] raw = new byte[20];
+    in.readFully(raw);
+    return ObjectId.fromRaw(raw);
+  }
+
+  private static void write(DataOutputStream out, Commit commit, Set<String>[] changedPaths) throws IOException {
+    byte[] raw = new byte[20];
+    out.write(1);
+    commit.id.copyRawTo(raw, 0);
+    out.write(raw);
+    commit.treeId.copyRawTo(raw, 0);
+    out.write(raw);
+    out.writeByte(commit.parentIds.length);
+    for (ObjectId parentId : commit.parentIds) {
+      parentId.copyRawTo(raw, 0);
+      out.write(raw);
+    }
+    out.writeInt(commit.commitTime);
+    out.writeLong(commit.authoredTime);
+    out.writeUTF(commit.authorName);
+    for (Set<String> changed : changedPaths) {
+      out.writeInt(changed.size());
+      for (String path : changed) out.writeUTF(path);
+    }
+  }
+
+  private void write(Commit commit, Set<String>[] changedPaths) throws IOException {
+    unflushedCommits.put(commit, unflushed.size());
+    write(unflushedOut, commit, changedPaths);
+  }
+
+  /**
+   * Appends the records of the commits indexed since the last flush, at once while holding the lock, so that other
+   * instances, in this process or another one, never read or write a record half written.
+   */
+  private void flush() throws IOException {
+    if (unflushed.size() == 0) return;
+    withLock(() -> {
+      boolean created = !file.exists() || file.length() == 0;
+      long offset = created ? 8 : file.length();
+      try (OutputStream out = new FileOutputStream(file, true)) {
+        if (created) {
+          DataOutputStream header = new DataOutputStream(out);
+          header.writeInt(MAGIC);
+          header.writeInt(FORMAT_VERSION);
+        }
+        unflushed.writeTo(out);
+      }
+      for (Map.Entry<Commit, Integer> entry : unflushedCommits.entrySet()) entry.getKey().offset = offset + entry.getValue();
+    });
+    unflushed.reset();
+    unflushedCommits.clear();
+  }
+
+  /**
+   * Replaces the file by one holding its valid records, written to a temporary file first, then renamed atomically.
+   * Called with the lock held.
+   *
+   * @param validLength the length of the header and the valid records at the start of the file
+   */
+  private void rebuild(long validLength) throws IOException {
+    File temporary = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(), ".tmp").toFile();
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+         InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      ByteStreams.skipFully(in, 8);
+      ByteStreams.copy(ByteStreams.limit(in, validLength - 8), out);
+    }
+    Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Runs the action holding the lock of the index file, taken on a separate lock file, as the index file itself is
+   * replaced when rebuilt. The file lock excludes other processes, and the monitor of the path the other instances of
+   * this process, since a file lock is held on behalf of the whole process.
+   */
+  private void withLock(IOAction action) throws IOException {
+    Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+    synchronized (LOCKS.computeIfAbsent(file.getCanonicalPath(), k -> new Object())) {
+      try (FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+           FileLock ignored = channel.lock()) {
+        action.run();
+      }
+    }
+  }
+
+  private interface IOAction {
+    void run() throws IOException;
+  }
+
+  private static final class CorruptIndexException extends IOException {
+  }
+
+  /**
+   * The indexed information of one commit.
+   */
+  public static final class Commit {
+    private final CommitGraphIndex index;
+    private final ObjectId id;
+    private final ObjectId treeId;
+    private final ObjectId[] parentIds;
+    private final int commitTime;
+    private final long authoredTime;
+    private final String authorName;
+    // the position of the record in the file, -1 until it is written there; guarded by the index
+    private long offset = -1;
+
+    private Commit(CommitGraphIndex index, ObjectId id, ObjectId treeId, ObjectId[] parentIds, int commitTime, long authoredTime, String authorName) {
+      this.index = index;
+      this.id = id;
+      this.treeId = treeId;
+      this.parentIds = parentIds;
+      this.commitTime = commitTime;
+      this.authoredTime = authoredTime;
+      this.authorName = authorName;
+    }
+
+    public ObjectId getId() {
+      return id;
+    }
+
+    public ObjectId getTreeId() {
+      return treeId;
+    }
+
+    public int getParentCount() {
+      return parentIds.length;
+    }
+
+    public ObjectId getParentId(int index) {
+      return parentIds[index];
+    }
+
+    public int getCommitTime() {
+      return commitTime;
+    }
+
+    public long getAuthoredTime() {
+      return authoredTime;
+    }
+
+    public String getAuthorName() {
+      return authorName;
+    }
+
+    /**
+     * @param parentIndex the index of the parent; 0 for root commits, for which paths are compared with the empty tree
+     * @param filePath the path of a file in the repository
+     * @return true if the file differs between the parent and the commit
+     */
+    public boolean isChanged(int parentIndex, String filePath) throws IOException {
+      return index.changedPaths(this)[parentIndex].contains(filePath);
+    }
+  }
+}
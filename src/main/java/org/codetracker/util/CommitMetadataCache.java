@@ -0,0 +1,103 @@
+package org.codetracker.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.eclipse.jgit.lib.ObjectId;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A thread-safe cache of the commit metadata needed by the trackers, bounded by the number of commits.
+ * Only compact {@link CommitMetadata} records are kept, not the parsed {@code RevCommit}s with their raw buffers,
+ * so one instance can be shared by all the trackers, and threads, working on the same repository.
+ */
+public class CommitMetadataCache {
+  public static final long DEFAULT_MAXIMUM_SIZE = 100_000;
+  private final Cache<ObjectId, CommitMetadata> cache;
+
+  public CommitMetadataCache() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  public CommitMetadataCache(long maximumSize) {
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  /**
+   * @param commitId the commit whose metadata is requested
+   * @param loader reads the metadata when it is not cached; it runs at most once per commit at a time
+   * @return the metadata of the commit
+   */
+  public CommitMetadata get(ObjectId commitId, Callable<CommitMetadata> loader) {
+    try {
+      return cache.get(commitId, loader);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof IOException) throw new UncheckedIOException((IOException) e.getCause());
+      if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public void clear() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * The metadata of one commit.
+   */
+  public static final class CommitMetadata {
+    private final ObjectId parentId;
+    private final ObjectId treeId;
+    private final int commitTime;
+    private final long authoredTime;
+    private final String authorName;
+
+    /**
+     * @param parentId the first parent, or null for root commits
+     * @param treeId the tree of the commit
+     */
+    public CommitMetadata(ObjectId parentId, ObjectId treeId, int commitTime, long authoredTime, String authorName) {
+      this.parentId = parentId;
+      this.treeId = treeId;
+      this.commitTime = commitTime;
+      this.authoredTime = authoredTime;
+      this.authorName = authorName;
+    }
+
+    public ObjectId getParentId() {
+      return parentId;
+    }
+
+    public ObjectId getTreeId() {
+      return treeId;
+    }
+
+    public int getCommitTime() {
+      return commitTime;
+    }
+
+    public long getAuthoredTime() {
+      return authoredTime;
+    }
+
+    public String getAuthorName() {
+      return authorName;
+    }
+  }
+}
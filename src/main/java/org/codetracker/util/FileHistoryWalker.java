@@ -0,0 +1,273 @@
+package org.codetracker.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Lists the commits modifying a file, like {@code git log <start> -- <path>} does, using a single {@link RevWalk}
+ * for all the requests made during a tracking session.
+ * <p>
+ * Commits are walked lazily, while the returned list is iterated, so a tracker that stops early never walks the
+ * rest of the history. The outcome of comparing a commit with its parents is remembered per file path, so restarting
+ * from another commit of the same file does not compare again the trees of the ancestry already visited.
+ * A commit modifies the file when the blob id or the mode of the file differ from its parent, as for {@code git log},
+ * whether the walk reads the trees or a {@link CommitGraphIndex}. Merge commits are simplified like JGit does when a
+ * path filter is used: a merge leaving the file identical to one of its parents is skipped and only that parent is
+ * followed.
+ * <p>
+ * When a {@link CommitGraphIndex} is given, the walk is answered from the index and commits are not parsed at all.
+ * <p>
+ * The outcomes and the lists are kept for the {@value #MAXIMUM_PATHS} file paths, and the {@value #MAXIMUM_COMMIT_LISTS}
+ * start commits and file paths, used most recently, so a walker kept for a whole session does not grow with every
+ * file tracked.
+ */
+public class FileHistoryWalker implements AutoCloseable {
+  private static final int MAXIMUM_PATHS = 256;
+  private static final int MAXIMUM_COMMIT_LISTS = 1024;
+  private final RevWalk revWalk;
+  private final CommitGraphIndex commitGraphIndex;
+  private final Cache<String, Map<ObjectId, Step>> steps;
+  private final Cache<String, CommitList> commitLists;
+  private final boolean owner;
+
+  public FileHistoryWalker(Repository repository) {
+    this(repository, null);
+  }
+
+  public FileHistoryWalker(Repository repository, CommitGraphIndex commitGraphIndex) {
+    this.revWalk = new RevWalk(repository);
+    this.commitGraphIndex = commitGraphIndex;
+    this.steps = CacheBuilder.newBuilder().maximumSize(MAXIMUM_PATHS).build();
+    this.commitLists = CacheBuilder.newBuilder().maximumSize(MAXIMUM_COMMIT_LISTS).build();
+    this.owner = true;
+  }
+
+  private FileHistoryWalker(FileHistoryWalker shared) {
+    this.revWalk = shared.revWalk;
+    this.commitGraphIndex = shared.commitGraphIndex;
+    this.steps = shared.steps;
+    this.commitLists = shared.commitLists;
+    this.owner = false;
+  }
+
+  /**
+   * Creates a walker sharing the walk and all the commits already visited by {@code shared}. Closing it does not
+   * close {@code shared}, so it can be handed to a tracker while its owner keeps using the shared walker.
+   */
+  public static FileHistoryWalker view(FileHistoryWalker shared) {
+    return new FileHistoryWalker(shared);
+  }
+
+  /**
+   * @param startCommitId the commit from which the history is walked backwards
+   * @param filePath the path of the file in the repository
+   * @return the commits modifying the file, starting from {@code startCommitId}, newest first
+   */
+  public List<String> getCommits(String startCommitId, String filePath) throws IOException {
+    if ("0".equals(startCommitId)) return Collections.emptyList();
+    String key = startCommitId + ":" + filePath;
+    CommitList commitList = commitLists.getIfPresent(key);
+    if (commitList == null) {
+      commitList = new CommitList(ObjectId.fromString(startCommitId), filePath);
+      commitLists.put(key, commitList);
+    }
+    return commitList;
+  }
+
+  @Override
+  public void close() {
+    if (owner) revWalk.close();
+  }
+
+  private Step step(ObjectId commitId, String filePath) throws IOException {
+    Map<ObjectId, Step> pathSteps = steps.getIfPresent(filePath);
+    if (pathSteps == null) {
+      pathSteps = new HashMap<>();
+      steps.put(filePath, pathSteps);
+    }
+    Step step = pathSteps.get(commitId);
+    if (step != null) return step;
+    step = commitGraphIndex != null ? indexedStep(commitGraphIndex.get(commitId), filePath) : step(revWalk.parseCommit(commitId), filePath);
+    pathSteps.put(commitId, step);
+    return step;
+  }
+
+  private Step step(RevCommit commit, String filePath) throws IOException {
+    Step step;
+    Entry entry = entry(commit, filePath);
+    RevCommit[] parents = commit.getParents();
+    if (parents.length == 0) {
+      step = new Step(entry != null, parents);
+    } else if (parents.length == 1) {
+      step = new Step(!Objects.equals(entry, entry(parents[0], filePath)), parents);
+    } else {
+      step = new Step(true, parents);
+      for (RevCommit parent : parents) {
+        if (Objects.equals(entry, entry(parent, filePath))) {
+          step = new Step(false, new ObjectId[]{parent});
+          break;
+        }
+      }
+    }
+    return step;
+  }
+
+  private static Step indexedStep(CommitGraphIndex.Commit commit, String filePath) throws IOException {
+    int parentCount = commit.getParentCount();
+    ObjectId[] parents = new ObjectId[parentCount];
+    for (int i = 0; i < parentCount; i++)
+      parents[i] = commit.getParentId(i);
+    if (parentCount <= 1)
+      return new Step(commit.isChanged(0, filePath), parents);
+    for (int i = 0; i < parentCount; i++) {
+      if (!commit.isChanged(i, filePath))
+        return new Step(false, new ObjectId[]{parents[i]});
+    }
+    return new Step(true, parents);
+  }
+
+  private int commitTime(ObjectId commitId) throws IOException {
+    if (commitGraphIndex != null)
+      return commitGraphIndex.get(commitId).getCommitTime();
+    return revWalk.parseCommit(commitId).getCommitTime();
+  }
+
+  private Entry entry(RevCommit commit, String filePath) throws IOException {
+    revWalk.parseHeaders(commit);
+    try (TreeWalk treeWalk = TreeWalk.forPath(revWalk.getObjectReader(), filePath, commit.getTree())) {
+      return treeWalk != null ? new Entry(treeWalk.getObjectId(0), treeWalk.getRawMode(0)) : null;
+    }
+  }
+
+  /**
+   * The blob id and the mode of a file at a commit; a change of either modifies the file.
+   */
+  private static final class Entry {
+    private final ObjectId blobId;
+    private final int mode;
+
+    private Entry(ObjectId blobId, int mode) {
+      this.blobId = blobId;
+      this.mode = mode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Entry)) return false;
+      Entry entry = (Entry) o;
+      return mode == entry.mode && blobId.equals(entry.blobId);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * blobId.hashCode() + mode;
+    }
+  }
+
+  private static final class Step {
+    private final boolean modified;
+    private final ObjectId[] parents;
+
+    private Step(boolean modified, ObjectId[] parents) {
+      this.modified = modified;
+      this.parents = parents;
+    }
+  }
+
+  /**
+   * The commits found so far for one start commit and file path, extended on demand. Commits are visited newest
+   * first, as the default date ordering of {@link RevWalk} does.
+   */
+  private final class CommitList extends AbstractList<String> {
+    private final String filePath;
+    private final List<String> found = new ArrayList<>();
+    private final PriorityQueue<Pending> pending = new PriorityQueue<>();
+    private final Set<ObjectId> seen = new HashSet<>();
+    private long sequence;
+
+    private CommitList(ObjectId start, String filePath) throws IOException {
+      this.filePath = filePath;
+      enqueue(start);
+    }
+
+    private void enqueue(ObjectId commitId) throws IOException {
+      if (seen.add(commitId)) {
+        pending.add(new Pending(commitId, commitTime(commitId), sequence++));
+      }
+    }
+
+    private boolean walkTo(int index) {
+      try {
+        while (found.size() <= index && !pending.isEmpty()) {
+          ObjectId commitId = pending.poll().commitId;
+          Step step = step(commitId, filePath);
+          for (ObjectId parent : step.parents)
+            enqueue(parent);
+          if (step.modified)
+            found.add(commitId.getName());
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return index < found.size();
+    }
+
+    @Override
+    public String get(int index) {
+      if (!walkTo(index)) throw new IndexOutOfBoundsException("Index: " + index);
+      return found.get(index);
+    }
+
+    @Override
+    public int size() {
+      walkTo(Integer.MAX_VALUE);
+      return found.size();
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+      return new Iterator<String>() {
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+          return walkTo(index);
+        }
+
+        @Override
+        public String next() {
+          if (!hasNext()) throw new NoSuchElementException();
+          return found.get(index++);
+        }
+      };
+    }
+  }
+
+  private static final class Pending implements Comparable<Pending> {
+    private final ObjectId commitId;
+    private final int commitTime;
+    private final long sequence;
+
+    private Pending(ObjectId commitId, int commitTime, long sequence) {
+      this.commitId = commitId;
+      this.commitTime = commitTime;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public int compareTo(Pending o) {
+      int byTime = Integer.compare(o.commitTime, commitTime);
+      return byTime != 0 ? byTime : Long.compare(sequence, o.sequence);
+    }
+  }
+}
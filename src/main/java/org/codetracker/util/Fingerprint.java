@@ -0,0 +1,131 @@
+package org.codetracker.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A 128-bit fingerprint of a text, computed with a fast non-cryptographic hash function, which is collision-resistant
+ * enough to identify code elements by the texts of their statements, documentation or annotations.
+ * <p>
+ * {@link #digest(String)} returns the hexadecimal fingerprint put in the identifiers of the code elements. It can be
+ * switched back to the SHA-512 digest the identifiers used to contain, to compare them with histories computed before,
+ * and its results can be kept in a bounded cache shared by all the threads. The algorithm can only be switched before
+ * the first digest, since the identifiers computed with the previous one are kept by the code elements and their
+ * indexes.
+ */
+public final class Fingerprint {
+  public enum Algorithm {
+    MURMUR3_128,
+    SHA_512
+  }
+
+  public static final long DEFAULT_CACHE_SIZE = 100_000;
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+  private static volatile Algorithm algorithm = Algorithm.MURMUR3_128;
+  private static volatile Cache<String, String> cache;
+  private static volatile boolean digested;
+
+  private final long high;
+  private final long low;
+
+  private Fingerprint(long high, long low) {
+    this.high = high;
+    this.low = low;
+  }
+
+  public static Fingerprint of(String text) {
+    ByteBuffer bytes = ByteBuffer.wrap(HASH_FUNCTION.hashString(text, StandardCharsets.UTF_8).asBytes());
+    return new Fingerprint(bytes.getLong(), bytes.getLong());
+  }
+
+  /**
+   * @return the hexadecimal fingerprint of the text, or its SHA-512 digest if {@link Algorithm#SHA_512} is used
+   */
+  public static String digest(String text) {
+    digested = true;
+    Cache<String, String> cache = Fingerprint.cache;
+    String digest = cache != null ? cache.getIfPresent(text) : null;
+    if (digest == null) {
+      digest = algorithm == Algorithm.SHA_512 ? sha512(text) : of(text).toString();
+      if (cache != null)
+        cache.put(text, digest);
+    }
+    return digest;
+  }
+
+  public static String sha512(String text) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-512");
+      digest.update(text.getBytes(StandardCharsets.UTF_8));
+      return String.format("%0128x", new BigInteger(1, digest.digest()));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static Algorithm getAlgorithm() {
+    return algorithm;
+  }
+
+  /**
+   * Sets the algorithm of {@link #digest(String)}, and clears the cache. The identifiers computed with different
+   * algorithms are different, so it has to be set before tracking.
+   *
+   * @throws IllegalStateException if a digest was already computed with another algorithm
+   */
+  public static synchronized void setAlgorithm(Algorithm algorithm) {
+    if (algorithm == Fingerprint.algorithm)
+      return;
+    if (digested)
+      throw new IllegalStateException("The algorithm cannot be changed once identifiers were computed with " + Fingerprint.algorithm);
+    Fingerprint.algorithm = algorithm;
+    clearCache();
+  }
+
+  public static void enableCache() {
+    enableCache(DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * @param maximumSize maximum number of digests kept in the cache
+   */
+  public static void enableCache(long maximumSize) {
+    cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+  }
+
+  public static void disableCache() {
+    cache = null;
+  }
+
+  public static void clearCache() {
+    Cache<String, String> cache = Fingerprint.cache;
+    if (cache != null)
+      cache.invalidateAll();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    Fingerprint that = (Fingerprint) o;
+    return high == that.high && low == that.low;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(high) * 31 + Long.hashCode(low);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%016x%016x", high, low);
+  }
+}
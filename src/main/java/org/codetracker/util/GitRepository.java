@@ -1,58 +1,131 @@
 package org.codetracker.util;
 
+import org.codetracker.VersionImpl;
+import org.codetracker.api.Version;
+import org.codetracker.util.CommitMetadataCache.CommitMetadata;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.PersonIdent;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Reads the commits and the blob ids of a repository, through caches that can be used by several threads at once.
+ */
 public class GitRepository implements IRepository {
+  // files missing at a commit are cached too, with the zero id, as the map does not hold nulls
+  private static final ObjectId MISSING = ObjectId.zeroId();
   private final Repository repository;
-  private final HashMap<String, RevCommit> revCommitCache = new HashMap<>();
+  private final CommitGraphIndex commitGraphIndex;
+  private final CommitMetadataCache commitMetadataCache;
+  private final ConcurrentMap<String, ObjectId> blobIdCache = new ConcurrentHashMap<>();
 
   public GitRepository(Repository repository) {
+    this(repository, null, null);
+  }
+
+  /**
+   * @param commitGraphIndex if not null, commit metadata is read from the index instead of parsing commits
+   * @param commitMetadataCache the cache of commit metadata, possibly shared with other instances; a new one is
+   *                            created if null
+   */
+  public GitRepository(Repository repository, CommitGraphIndex commitGraphIndex, CommitMetadataCache commitMetadataCache) {
     this.repository = repository;
+    this.commitGraphIndex = commitGraphIndex;
+    this.commitMetadataCache = commitMetadataCache != null ? commitMetadataCache : new CommitMetadataCache();
+  }
+
+  public CommitGraphIndex getCommitGraphIndex() {
+    return commitGraphIndex;
+  }
+
+  public CommitMetadataCache getCommitMetadataCache() {
+    return commitMetadataCache;
   }
 
   public Repository getRepository() {
     return repository;
   }
 
-  protected RevCommit getRevCommit(String commitId) {
-    RevCommit revCommit = null;
-    try {
-      revCommitCache.putIfAbsent(commitId, repository.parseCommit(ObjectId.fromString(commitId)));
-      revCommit = revCommitCache.get(commitId);
+  protected CommitMetadata getCommitMetadata(String commitId) {
+    ObjectId id = ObjectId.fromString(commitId);
+    return commitMetadataCache.get(id, () -> commitGraphIndex != null ? readIndexedCommit(id) : readCommit(id));
+  }
+
+  private CommitMetadata readCommit(ObjectId commitId) throws IOException {
+    try (RevWalk walk = new RevWalk(repository)) {
+      RevCommit revCommit = walk.parseCommit(commitId);
+      ObjectId parentId = revCommit.getParentCount() > 0 ? revCommit.getParent(0).copy() : null;
+      PersonIdent author = revCommit.getAuthorIdent();
+      // convert time to Unix epoch
+      return new CommitMetadata(parentId, revCommit.getTree().copy(), revCommit.getCommitTime(), author.getWhen().getTime() / 1000L, author.getName());
+    }
+  }
+
+  private CommitMetadata readIndexedCommit(ObjectId commitId) throws IOException {
+    CommitGraphIndex.Commit commit = commitGraphIndex.get(commitId);
+    ObjectId parentId = commit.getParentCount() > 0 ? commit.getParentId(0) : null;
+    return new CommitMetadata(parentId, commit.getTreeId(), commit.getCommitTime(), commit.getAuthoredTime(), commit.getAuthorName());
+  }
+
+  /**
+   * @param commitId the commit ID at which the file is looked up
+   * @param filePath the path of the file in the repository
+   * @return the id of the blob holding the contents of the file at the given commit, or null if the file does not
+   * exist in that commit
+   * @throws UncheckedIOException if the commit or its tree cannot be read
+   */
+  public ObjectId getBlobId(String commitId, String filePath) {
+    if ("0".equals(commitId)) return null;
+    String key = commitId + ":" + filePath;
+    ObjectId cached = blobIdCache.get(key);
+    if (cached != null) return cached != MISSING ? cached : null;
+    ObjectId blobId = null;
+    try (ObjectReader reader = repository.newObjectReader();
+         TreeWalk treeWalk = TreeWalk.forPath(reader, filePath, getCommitMetadata(commitId).getTreeId())) {
+      if (treeWalk != null) blobId = treeWalk.getObjectId(0);
     } catch (IOException e) {
-      e.printStackTrace();
+      throw new UncheckedIOException(e);
     }
-    return revCommit;
+    blobIdCache.put(key, blobId != null ? blobId : MISSING);
+    return blobId;
   }
 
   @Override
   public String getParentId(String commitId) {
-    RevCommit revCommit = getRevCommit(commitId);
-    if (revCommit.getParentCount() > 0) return revCommit.getParent(0).getId().getName();
-    return "0";
+    ObjectId parentId = getCommitMetadata(commitId).getParentId();
+    return parentId != null ? parentId.getName() : "0";
   }
 
   @Override
   public long getCommitTime(String commitId) {
     if ("0".equals(commitId)) return 0;
-    return getRevCommit(commitId).getCommitTime();
+    return getCommitMetadata(commitId).getCommitTime();
   }
 
   @Override
   public long getAuthoredTime(String commitId) {
     if ("0".equals(commitId)) return 0;
-    // convert time to Unix epoch
-    return getRevCommit(commitId).getAuthorIdent().getWhen().getTime() / 1000L;
+    return getCommitMetadata(commitId).getAuthoredTime();
   }
 
   @Override
   public String getCommitAuthorName(String commitId) {
     if ("0".equals(commitId)) return "";
-    return getRevCommit(commitId).getAuthorIdent().getName();
+    return getCommitMetadata(commitId).getAuthorName();
+  }
+
+  @Override
+  public Version getVersion(String commitId) {
+    if ("0".equals(commitId)) return IRepository.super.getVersion(commitId);
+    CommitMetadata commitMetadata = getCommitMetadata(commitId);
+    return new VersionImpl(commitId, commitMetadata.getCommitTime(), commitMetadata.getAuthoredTime(), commitMetadata.getAuthorName());
   }
 }
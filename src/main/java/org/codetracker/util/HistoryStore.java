@@ -0,0 +1,478 @@
+package org.codetracker.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.graph.EndpointPair;
+import org.codetracker.VersionImpl;
+import org.codetracker.api.Edge;
+import org.codetracker.api.Graph;
+import org.codetracker.api.Version;
+import org.codetracker.change.Change;
+import org.codetracker.element.BaseCodeElement;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.util.sha1.SHA1;
+import org.refactoringminer.api.RefactoringType;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A persistent store of the histories computed by the method trackers, one file per history. Only
+ * {@code MethodTrackerImpl.track()} reads and writes it: the other trackers, and the blame of a method, ignore it.
+ * <p>
+ * A history is stored under the identifier ignoring version of its start element and its frontier commit, the newest
+ * commit modifying the file of the element at or before the start commit. Its frontier and each of its nodes are also
+ * indexed by identifier ignoring version and commit, so that tracking any element whose history reaches a stored node
+ * analyses the commits newer than that node only, then splices in the part of the stored history leading to it.
+ * <p>
+ * There is one index per file, holding the nodes of the elements in that file. An index is read once, then kept in
+ * memory for the lookups of all the trackers sharing the store, so looking up a commit with no stored node reads
+ * nothing from disk.
+ * <p>
+ * The code elements are stored by identifier and restored from the models of their commits. The changes are stored
+ * with their type and description, and the type of their refactoring, and read back as
+ * {@link org.codetracker.change.StoredChange}s.
+ * <p>
+ * Each file is written to its own temporary file, then atomically moved in place, so one store can be shared by
+ * trackers running concurrently: a reader sees either the previous or the new version of a file. The indexes are
+ * updated by one tracker at a time.
+ */
+public class HistoryStore {
+  private static final int MAGIC = 0x43544853;
+  private static final int FORMAT_VERSION = 3;
+  private static final int INDEX_MAGIC = 0x43544849;
+  private static final String DEFAULT_DIRECTORY = "codetracker/histories";
+  private static final String INDEX_DIRECTORY = "index";
+  private static final long MAXIMUM_INDEXES = 1024;
+
+  private final File directory;
+  private final Cache<String, Map<String, IndexEntry>> indexes = CacheBuilder.newBuilder().maximumSize(MAXIMUM_INDEXES).build();
+
+  public HistoryStore(File directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return the store kept in the git directory of the repository
+   */
+  public static HistoryStore open(Repository repository) {
+    return new HistoryStore(new File(repository.getDirectory(), DEFAULT_DIRECTORY));
+  }
+
+  /**
+   * @return the history stored for the element at the frontier commit, or null if there is none or it cannot be read
+   */
+  public StoredHistory load(String identifierIgnoringVersion, String frontierCommitId) throws IOException {
+    File file = file(identifierIgnoringVersion, frontierCommitId);
+    if (!file.isFile()) return null;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) return null;
+      if (!identifierIgnoringVersion.equals(readString(in)) || !frontierCommitId.equals(readString(in))) return null;
+      int nodeCount = in.readInt();
+      List<Node> nodes = new ArrayList<>(nodeCount);
+      for (int i = 0; i < nodeCount; i++) {
+        nodes.add(readNode(in));
+      }
+      int start = in.readInt();
+      int edgeCount = in.readInt();
+      List<StoredEdge> edges = new ArrayList<>(edgeCount);
+      for (int i = 0; i < edgeCount; i++) {
+        int source = in.readInt();
+        int target = in.readInt();
+        int changeCount = in.readInt();
+        List<StoredEdge.ChangeRecord> changes = new ArrayList<>(changeCount);
+        for (int j = 0; j < changeCount; j++) {
+          Change.Type type = Change.Type.valueOf(readString(in));
+          String description = readString(in);
+          String refactoringType = readString(in);
+          changes.add(new StoredEdge.ChangeRecord(type, description, refactoringType != null ? RefactoringType.valueOf(refactoringType) : null));
+        }
+        edges.add(new StoredEdge(source, target, changes));
+      }
+      return new StoredHistory(nodes, start, edges);
+    } catch (EOFException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Looks up a stored node of the element at the commit, the frontier of a stored history or one of its nodes, in the
+   * index of its file.
+   *
+   * @param filePath the file of the element at the commit
+   * @return the part of the stored history leading to the node, the node being its start, or null if there is none
+   */
+  public StoredHistory lookup(String identifierIgnoringVersion, String filePath, String commitId) throws IOException {
+    IndexEntry indexEntry = index(filePath).get(indexKey(identifierIgnoringVersion, commitId));
+    if (indexEntry == null) return null;
+    StoredHistory storedHistory = load(indexEntry.historyIdentifier, indexEntry.historyFrontierCommitId);
+    if (storedHistory == null || indexEntry.nodeIndex < 0 || indexEntry.nodeIndex >= storedHistory.getNodes().size()) return null;
+    Node node = storedHistory.getNodes().get(indexEntry.nodeIndex);
+    // the history may have been stored again since the index was written
+    if (!identifierIgnoringVersion.equals(node.getIdentifierIgnoringVersion()) || !commitId.equals(node.getVersion().getId()))
+      return null;
+    return storedHistory.leadingTo(indexEntry.nodeIndex);
+  }
+
+  /**
+   * Stores the history of {@code start}, replacing the history already stored for the element at the frontier commit.
+   */
+  public <N extends BaseCodeElement> void save(N start, String frontierCommitId, Graph<N, Edge> graph) throws IOException {
+    String identifierIgnoringVersion = start.getIdentifierIgnoringVersion();
+    List<N> nodes = new ArrayList<>(graph.getNodeList());
+    Map<N, Integer> indexes = new HashMap<>();
+    for (int i = 0; i < nodes.size(); i++) {
+      indexes.put(nodes.get(i), i);
+    }
+    Integer startIndex = indexes.get(start);
+    if (startIndex == null) return;
+    File file = file(identifierIgnoringVersion, frontierCommitId);
+    Files.createDirectories(file.getParentFile().toPath());
+    File temporary = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp").toFile();
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      writeString(out, identifierIgnoringVersion);
+      writeString(out, frontierCommitId);
+      out.writeInt(nodes.size());
+      for (N node : nodes) {
+        N model = node;
+        if (node.isAdded() && !graph.successors(node).isEmpty()) model = graph.successors(node).iterator().next();
+        else if (node.isRemoved() && !graph.predecessors(node).isEmpty()) model = graph.predecessors(node).iterator().next();
+        writeNode(out, node, model);
+      }
+      out.writeInt(startIndex);
+      Set<EndpointPair<N>> edges = graph.getEdges();
+      out.writeInt(edges.size());
+      for (EndpointPair<N> edge : edges) {
+        out.writeInt(indexes.get(edge.source()));
+        out.writeInt(indexes.get(edge.target()));
+        Set<Change> changes = graph.getEdgeValue(edge).map(Edge::getChangeList).orElse(Collections.emptySet());
+        out.writeInt(changes.size());
+        for (Change change : changes) {
+          writeString(out, change.getType().name());
+          writeString(out, String.valueOf(change));
+          writeString(out, change.getRefactoringType().map(RefactoringType::name).orElse(null));
+        }
+      }
+    }
+    Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    Map<String, Map<String, IndexEntry>> indexEntries = new LinkedHashMap<>();
+    indexEntries.computeIfAbsent(start.getFilePath(), k -> new HashMap<>())
+        .put(indexKey(identifierIgnoringVersion, frontierCommitId), new IndexEntry(identifierIgnoringVersion, frontierCommitId, startIndex));
+    for (int i = 0; i < nodes.size(); i++) {
+      N node = nodes.get(i);
+      // added nodes are in the parent commit, where the element does not exist yet
+      if (!node.isAdded())
+        indexEntries.computeIfAbsent(node.getFilePath(), k -> new HashMap<>())
+            .put(indexKey(node.getIdentifierIgnoringVersion(), node.getVersion().getId()), new IndexEntry(identifierIgnoringVersion, frontierCommitId, i));
+    }
+    for (Map.Entry<String, Map<String, IndexEntry>> entry : indexEntries.entrySet())
+      updateIndex(entry.getKey(), entry.getValue());
+  }
+
+  private Map<String, IndexEntry> index(String filePath) throws IOException {
+    try {
+      return indexes.get(filePath, () -> readIndex(filePath));
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException)
+        throw (IOException) e.getCause();
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private Map<String, IndexEntry> readIndex(String filePath) throws IOException {
+    Map<String, IndexEntry> index = new ConcurrentHashMap<>();
+    File file = indexFile(filePath);
+    if (!file.isFile()) return index;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != INDEX_MAGIC || in.readInt() != FORMAT_VERSION || !filePath.equals(readString(in))) return index;
+      int entryCount = in.readInt();
+      for (int i = 0; i < entryCount; i++) {
+        String key = readString(in);
+        String historyIdentifier = readString(in);
+        String historyFrontierCommitId = readString(in);
+        int nodeIndex = in.readInt();
+        index.put(key, new IndexEntry(historyIdentifier, historyFrontierCommitId, nodeIndex));
+      }
+    } catch (EOFException e) {
+      index.clear();
+    }
+    return index;
+  }
+
+  /**
+   * Adds the entries to the index of the file, in memory and on disk.
+   */
+  private synchronized void updateIndex(String filePath, Map<String, IndexEntry> entries) throws IOException {
+    Map<String, IndexEntry> index = index(filePath);
+    index.putAll(entries);
+    File file = indexFile(filePath);
+    Files.createDirectories(file.getParentFile().toPath());
+    File temporary = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp").toFile();
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+      out.writeInt(INDEX_MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      writeString(out, filePath);
+      out.writeInt(index.size());
+      for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+        writeString(out, entry.getKey());
+        writeString(out, entry.getValue().historyIdentifier);
+        writeString(out, entry.getValue().historyFrontierCommitId);
+        out.writeInt(entry.getValue().nodeIndex);
+      }
+    }
+    Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static String indexKey(String identifierIgnoringVersion, String commitId) {
+    return identifierIgnoringVersion + "@" + commitId;
+  }
+
+  private File file(String identifierIgnoringVersion, String frontierCommitId) {
+    return file(directory, indexKey(identifierIgnoringVersion, frontierCommitId));
+  }
+
+  private File indexFile(String filePath) {
+    return file(new File(directory, INDEX_DIRECTORY), filePath);
+  }
+
+  private static File file(File directory, String name) {
+    SHA1 sha1 = SHA1.newInstance();
+    sha1.update(name.getBytes(StandardCharsets.UTF_8));
+    String key = ObjectId.fromRaw(sha1.digest()).getName();
+    return new File(new File(directory, key.substring(0, 2)), key.substring(2));
+  }
+
+  private static void writeNode(DataOutputStream out, BaseCodeElement node, BaseCodeElement model) throws IOException {
+    writeString(out, node.getIdentifierIgnoringVersion());
+    writeString(out, node.getFilePath());
+    Version version = node.getVersion();
+    writeString(out, version.getId());
+    out.writeLong(version.getTime());
+    out.writeLong(version.getAuthoredTime());
+    writeString(out, version.getAuthorName());
+    out.writeBoolean(node.isAdded());
+    out.writeBoolean(node.isRemoved());
+    writeString(out, model.getVersion().getId());
+    writeString(out, model.getFilePath());
+  }
+
+  private static Node readNode(DataInputStream in) throws IOException {
+    String identifierIgnoringVersion = readString(in);
+    String filePath = readString(in);
+    String id = readString(in);
+    long time = in.readLong();
+    long authoredTime = in.readLong();
+    String authorName = readString(in);
+    boolean added = in.readBoolean();
+    boolean removed = in.readBoolean();
+    String modelCommitId = readString(in);
+    String modelFilePath = readString(in);
+    return new Node(identifierIgnoringVersion, filePath, new VersionImpl(id, time, authoredTime, authorName), added, removed, modelCommitId, modelFilePath);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) return null;
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static final class IndexEntry {
+    private final String historyIdentifier;
+    private final String historyFrontierCommitId;
+    private final int nodeIndex;
+
+    private IndexEntry(String historyIdentifier, String historyFrontierCommitId, int nodeIndex) {
+      this.historyIdentifier = historyIdentifier;
+      this.historyFrontierCommitId = historyFrontierCommitId;
+      this.nodeIndex = nodeIndex;
+    }
+  }
+
+  /**
+   * A stored history: its nodes, the index of its start node and its edges.
+   */
+  public static final class StoredHistory {
+    private final List<Node> nodes;
+    private final int start;
+    private final List<StoredEdge> edges;
+
+    private StoredHistory(List<Node> nodes, int start, List<StoredEdge> edges) {
+      this.nodes = nodes;
+      this.start = start;
+      this.edges = edges;
+    }
+
+    public List<Node> getNodes() {
+      return nodes;
+    }
+
+    public int getStart() {
+      return start;
+    }
+
+    public List<StoredEdge> getEdges() {
+      return edges;
+    }
+
+    /**
+     * @return the nodes from which the node at the given index can be reached, with the edges between them, the node
+     * at the given index being the start
+     */
+    StoredHistory leadingTo(int nodeIndex) {
+      Map<Integer, List<StoredEdge>> incomingEdges = new HashMap<>();
+      for (StoredEdge edge : edges) {
+        incomingEdges.computeIfAbsent(edge.getTarget(), k -> new ArrayList<>()).add(edge);
+      }
+      Map<Integer, Integer> newIndexes = new LinkedHashMap<>();
+      Deque<Integer> toVisit = new ArrayDeque<>();
+      newIndexes.put(nodeIndex, 0);
+      toVisit.add(nodeIndex);
+      while (!toVisit.isEmpty()) {
+        for (StoredEdge edge : incomingEdges.getOrDefault(toVisit.poll(), Collections.emptyList())) {
+          if (!newIndexes.containsKey(edge.getSource())) {
+            newIndexes.put(edge.getSource(), newIndexes.size());
+            toVisit.add(edge.getSource());
+          }
+        }
+      }
+      List<Node> subNodes = new ArrayList<>(newIndexes.size());
+      for (Integer index : newIndexes.keySet()) {
+        subNodes.add(nodes.get(index));
+      }
+      List<StoredEdge> subEdges = new ArrayList<>();
+      for (StoredEdge edge : edges) {
+        Integer source = newIndexes.get(edge.getSource());
+        Integer target = newIndexes.get(edge.getTarget());
+        if (source != null && target != null)
+          subEdges.add(new StoredEdge(source, target, edge.getChanges()));
+      }
+      return new StoredHistory(subNodes, 0, subEdges);
+    }
+  }
+
+  /**
+   * A stored code element. Its model commit and file are those of the model declaring it: its own commit and file,
+   * except for added elements, taken from their successor, and removed elements, taken from their predecessor.
+   */
+  public static final class Node {
+    private final String identifierIgnoringVersion;
+    private final String filePath;
+    private final Version version;
+    private final boolean added;
+    private final boolean removed;
+    private final String modelCommitId;
+    private final String modelFilePath;
+
+    private Node(String identifierIgnoringVersion, String filePath, Version version, boolean added, boolean removed, String modelCommitId, String modelFilePath) {
+      this.identifierIgnoringVersion = identifierIgnoringVersion;
+      this.filePath = filePath;
+      this.version = version;
+      this.added = added;
+      this.removed = removed;
+      this.modelCommitId = modelCommitId;
+      this.modelFilePath = modelFilePath;
+    }
+
+    public String getIdentifierIgnoringVersion() {
+      return identifierIgnoringVersion;
+    }
+
+    public String getFilePath() {
+      return filePath;
+    }
+
+    public Version getVersion() {
+      return version;
+    }
+
+    public boolean isAdded() {
+      return added;
+    }
+
+    public boolean isRemoved() {
+      return removed;
+    }
+
+    public String getModelCommitId() {
+      return modelCommitId;
+    }
+
+    public String getModelFilePath() {
+      return modelFilePath;
+    }
+  }
+
+  /**
+   * A stored edge, between the nodes at the given indexes.
+   */
+  public static final class StoredEdge {
+    private final int source;
+    private final int target;
+    private final List<ChangeRecord> changes;
+
+    private StoredEdge(int source, int target, List<ChangeRecord> changes) {
+      this.source = source;
+      this.target = target;
+      this.changes = changes;
+    }
+
+    public int getSource() {
+      return source;
+    }
+
+    public int getTarget() {
+      return target;
+    }
+
+    public List<ChangeRecord> getChanges() {
+      return changes;
+    }
+
+    public static final class ChangeRecord {
+      private final Change.Type type;
+      private final String description;
+      private final RefactoringType refactoringType;
+
+      private ChangeRecord(Change.Type type, String description, RefactoringType refactoringType) {
+        this.type = type;
+        this.description = description;
+        this.refactoringType = refactoringType;
+      }
+
+      public Change.Type getType() {
+        return type;
+      }
+
+      public String getDescription() {
+        return description;
+      }
+
+      /**
+       * @return the type of the refactoring the change was built from, or null if there is none
+       */
+      public RefactoringType getRefactoringType() {
+        return refactoringType;
+      }
+    }
+  }
+}
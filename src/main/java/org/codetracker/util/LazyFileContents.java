@@ -0,0 +1,188 @@
+package org.codetracker.util;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The contents of some files of a commit, by file path, backed by the ids of their blobs. The contents of a file are
+ * read from its blob when they are first asked for, and kept softly, so the garbage collector can reclaim them and
+ * they are read again if needed. Building a map only walks the tree of the commit, and files can be compared by
+ * the ids of their blobs without reading them, see {@link #getBlobId}.
+ * <p>
+ * The map built by {@link #of} cannot be modified. Its {@link #copy() copies} are views sharing its blob ids and the
+ * contents already read, holding only their own set of file paths: files can be removed from them, e.g., when trimming
+ * the files identical in the parent commit and the commit, but not added.
+ */
+public class LazyFileContents extends AbstractMap<String, String> {
+  private final Repository repository;
+  private final Map<String, ObjectId> blobIds;
+  private final Set<String> filePaths;
+  private final Map<ObjectId, SoftReference<String>> contents;
+
+  private LazyFileContents(Repository repository, Map<String, ObjectId> blobIds, Set<String> filePaths, Map<ObjectId, SoftReference<String>> contents) {
+    this.repository = repository;
+    this.blobIds = blobIds;
+    this.filePaths = filePaths;
+    this.contents = contents;
+  }
+
+  /**
+   * Walks the whole tree of the commit, like {@code GitHistoryRefactoringMinerImpl.populateFileContents}.
+   *
+   * @param filePaths the files of the commit to include; the others are ignored
+   * @param repositoryDirectories collects the directories of all the Java files of the commit, and their parent
+   *                              directories, whether they are included or not
+   */
+  public static LazyFileContents of(Repository repository, RevCommit commit, Set<String> filePaths, Set<String> repositoryDirectories) throws IOException {
+    Map<String, ObjectId> blobIds = new LinkedHashMap<>();
+    try (TreeWalk treeWalk = new TreeWalk(repository)) {
+      treeWalk.addTree(commit.getTree());
+      treeWalk.setRecursive(true);
+      while (treeWalk.next()) {
+        String pathString = treeWalk.getPathString();
+        if (filePaths.contains(pathString))
+          blobIds.put(pathString, treeWalk.getObjectId(0));
+        if (pathString.endsWith(".java") && pathString.contains("/")) {
+          String directory = pathString.substring(0, pathString.lastIndexOf('/'));
+          repositoryDirectories.add(directory);
+          while (directory.contains("/")) {
+            directory = directory.substring(0, directory.lastIndexOf('/'));
+            repositoryDirectories.add(directory);
+          }
+        }
+      }
+    }
+    return new LazyFileContents(repository, blobIds, Collections.unmodifiableSet(blobIds.keySet()), new ConcurrentHashMap<>());
+  }
+
+  /**
+   * @return a view of the files of this map, sharing its contents, whose files can be removed independently
+   */
+  public LazyFileContents copy() {
+    return new LazyFileContents(repository, blobIds, new HashSet<>(filePaths), contents);
+  }
+
+  /**
+   * @return a copy of {@code fileContents}: a {@link #copy() view} if it is lazy, a new map otherwise
+   */
+  public static Map<String, String> copyOf(Map<String, String> fileContents) {
+    if (fileContents instanceof LazyFileContents)
+      return ((LazyFileContents) fileContents).copy();
+    return new HashMap<>(fileContents);
+  }
+
+  /**
+   * @return the id of the blob holding the contents of the file, or null if the file is not in this map
+   */
+  public ObjectId getBlobId(String filePath) {
+    return filePaths.contains(filePath) ? blobIds.get(filePath) : null;
+  }
+
+  @Override
+  public String get(Object key) {
+    return filePaths.contains(key) ? read(blobIds.get(key)) : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return filePaths.contains(key);
+  }
+
+  @Override
+  public String remove(Object key) {
+    return filePaths.remove(key) ? read(blobIds.get(key)) : null;
+  }
+
+  @Override
+  public int size() {
+    return filePaths.size();
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return filePaths;
+  }
+
+  @Override
+  public Set<Entry<String, String>> entrySet() {
+    return new AbstractSet<Entry<String, String>>() {
+      @Override
+      public Iterator<Entry<String, String>> iterator() {
+        Iterator<String> iterator = filePaths.iterator();
+        return new Iterator<Entry<String, String>>() {
+          @Override
+          public boolean hasNext() {
+            return iterator.hasNext();
+          }
+
+          @Override
+          public Entry<String, String> next() {
+            String filePath = iterator.next();
+            return new Entry<String, String>() {
+              @Override
+              public String getKey() {
+                return filePath;
+              }
+
+              @Override
+              public String getValue() {
+                return read(blobIds.get(filePath));
+              }
+
+              @Override
+              public String setValue(String value) {
+                throw new UnsupportedOperationException();
+              }
+
+              @Override
+              public boolean equals(Object o) {
+                if (!(o instanceof Entry)) return false;
+                Entry<?, ?> other = (Entry<?, ?>) o;
+                return getKey().equals(other.getKey()) && getValue().equals(other.getValue());
+              }
+
+              @Override
+              public int hashCode() {
+                return getKey().hashCode() ^ getValue().hashCode();
+              }
+            };
+          }
+
+          @Override
+          public void remove() {
+            iterator.remove();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return filePaths.size();
+      }
+    };
+  }
+
+  private String read(ObjectId blobId) {
+    SoftReference<String> reference = contents.get(blobId);
+    String content = reference != null ? reference.get() : null;
+    if (content == null) {
+      try {
+        content = new String(repository.open(blobId, Constants.OBJ_BLOB).getBytes(), Charset.defaultCharset());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      contents.put(blobId, new SoftReference<>(content));
+    }
+    return content;
+  }
+}
@@ -0,0 +1,126 @@
+package org.codetracker.util;
+
+import gr.uom.java.xmi.UMLClass;
+import gr.uom.java.xmi.UMLGeneralization;
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.UMLRealization;
+import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Opt-in configuration for parsing the files of a model on a pool of worker threads, used when the trackers build the
+ * models of all the files changed by a commit.
+ * <p>
+ * The files are split, in the iteration order of their contents, into one contiguous slice per worker, and each slice
+ * is parsed into its own model. The classes, generalizations, realizations and comments of the slices are then merged
+ * in the order of the slices, so that the merged model is the one a single thread would have built. Files are parsed
+ * independently of each other, without resolving bindings, so this does not change the parsing itself.
+ * One instance, and its pool, can be shared by several trackers.
+ */
+public class ParallelUMLModelBuilder implements AutoCloseable {
+  public static final int DEFAULT_MINIMUM_FILES = 8;
+  private final ExecutorService executor;
+  private final int workers;
+  private final int minimumFiles;
+  private final boolean ownsExecutor;
+
+  /**
+   * @param executor the pool parsing the files
+   * @param workers number of slices the files are split into
+   */
+  public ParallelUMLModelBuilder(ExecutorService executor, int workers) {
+    this(executor, workers, DEFAULT_MINIMUM_FILES, false);
+  }
+
+  /**
+   * @param executor the pool parsing the files
+   * @param workers number of slices the files are split into
+   * @param minimumFiles number of files below which they are parsed by the calling thread
+   */
+  public ParallelUMLModelBuilder(ExecutorService executor, int workers, int minimumFiles) {
+    this(executor, workers, minimumFiles, false);
+  }
+
+  private ParallelUMLModelBuilder(ExecutorService executor, int workers, int minimumFiles, boolean ownsExecutor) {
+    if (workers < 1) throw new IllegalArgumentException("workers must be positive");
+    this.executor = executor;
+    this.workers = workers;
+    this.minimumFiles = minimumFiles;
+    this.ownsExecutor = ownsExecutor;
+  }
+
+  /**
+   * @param threads number of worker threads, shut down by {@link #close()}, and of slices the files are split into
+   */
+  public static ParallelUMLModelBuilder withThreads(int threads) {
+    return new ParallelUMLModelBuilder(TrackingExecutors.newFixedThreadPool(threads, "uml-model-builder"), threads, DEFAULT_MINIMUM_FILES, true);
+  }
+
+  public int getWorkers() {
+    return workers;
+  }
+
+  /**
+   * @return the model of the files, parsed on the pool if there are enough of them
+   */
+  public UMLModel createModel(Map<String, String> fileContents, Set<String> repositoryDirectories) throws Exception {
+    int slices = Math.min(workers, fileContents.size());
+    if (slices < 2 || fileContents.size() < minimumFiles)
+      return GitHistoryRefactoringMinerImpl.createModel(fileContents, repositoryDirectories);
+    List<String> filePaths = new ArrayList<>(fileContents.keySet());
+    List<Future<UMLModel>> futures = new ArrayList<>(slices);
+    try {
+      for (int i = 0; i < slices; i++) {
+        List<String> slice = filePaths.subList(i * filePaths.size() / slices, (i + 1) * filePaths.size() / slices);
+        futures.add(executor.submit(() -> {
+          Map<String, String> sliceContents = new LinkedHashMap<>();
+          for (String filePath : slice) {
+            sliceContents.put(filePath, fileContents.get(filePath));
+          }
+          return GitHistoryRefactoringMinerImpl.createModel(sliceContents, repositoryDirectories);
+        }));
+      }
+      UMLModel umlModel = new UMLModel(repositoryDirectories);
+      for (Future<UMLModel> future : futures) {
+        merge(umlModel, get(future));
+      }
+      return umlModel;
+    } finally {
+      for (Future<UMLModel> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  private static UMLModel get(Future<UMLModel> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) throw (Exception) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw e;
+    }
+  }
+
+  private static void merge(UMLModel umlModel, UMLModel slice) {
+    for (UMLClass umlClass : slice.getClassList()) {
+      umlModel.addClass(umlClass);
+    }
+    for (UMLGeneralization generalization : slice.getGeneralizationList()) {
+      umlModel.addGeneralization(generalization);
+    }
+    for (UMLRealization realization : slice.getRealizationList()) {
+      umlModel.addRealization(realization);
+    }
+    umlModel.getCommentMap().putAll(slice.getCommentMap());
+    umlModel.getTreeContextMap().putAll(slice.getTreeContextMap());
+  }
+
+  @Override
+  public void close() {
+    if (ownsExecutor) executor.shutdownNow();
+  }
+}
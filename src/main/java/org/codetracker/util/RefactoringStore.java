@@ -0,0 +1,160 @@
+package org.codetracker.util;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.util.sha1.SHA1;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * A persistent store of the refactorings detected in a commit, restricted to the files the trackers diffed, one file
+ * per commit and file set.
+ * <p>
+ * The refactorings of RefactoringMiner refer to the parsed models, so they are stored as records: their type, their
+ * description and, for the refactorings moving an operation or an attribute, the identifier ignoring version of the
+ * moved element and the file it was moved from. Knowing these files in advance, a later run diffs the commit once,
+ * instead of diffing it again after finding that the tracked element was moved from another file.
+ * <p>
+ * A file is replaced atomically, through a temporary file of its own, so concurrent trackers can save the same commit.
+ */
+public class RefactoringStore {
+  private static final int MAGIC = 0x43545253;
+  private static final int FORMAT_VERSION = 1;
+  private static final String DEFAULT_DIRECTORY = "codetracker/refactorings";
+
+  private final File directory;
+
+  public RefactoringStore(File directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return the store kept in the git directory of the repository
+   */
+  public static RefactoringStore open(Repository repository) {
+    return new RefactoringStore(new File(repository.getDirectory(), DEFAULT_DIRECTORY));
+  }
+
+  /**
+   * @param rightSideFileName the file the model pair was built for
+   * @param rightSideFileNames the files whose classes were kept in the model of the commit, or null for all of them
+   * @return the refactorings stored for the commit and the files, or null if there are none or they cannot be read
+   */
+  public List<Record> load(String parentCommitId, String commitId, String rightSideFileName, Set<String> rightSideFileNames) throws IOException {
+    File file = file(parentCommitId, commitId, rightSideFileName, rightSideFileNames);
+    if (!file.isFile()) return null;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) return null;
+      int count = in.readInt();
+      List<Record> records = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        records.add(new Record(readString(in), readString(in), readString(in), readString(in)));
+      }
+      return records;
+    } catch (EOFException e) {
+      return null;
+    }
+  }
+
+  public void save(String parentCommitId, String commitId, String rightSideFileName, Set<String> rightSideFileNames, List<Record> records) throws IOException {
+    File file = file(parentCommitId, commitId, rightSideFileName, rightSideFileNames);
+    Files.createDirectories(file.getParentFile().toPath());
+    File temporary = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp").toFile();
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(records.size());
+      for (Record record : records) {
+        writeString(out, record.type);
+        writeString(out, record.description);
+        writeString(out, record.movedElement);
+        writeString(out, record.originalFilePath);
+      }
+    }
+    Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * @return the files the element, given by its identifier ignoring version, was moved from
+   */
+  public static Set<String> originalFilePaths(List<Record> records, String movedElement) {
+    Set<String> filePaths = new LinkedHashSet<>();
+    for (Record record : records) {
+      if (movedElement.equals(record.movedElement) && record.originalFilePath != null)
+        filePaths.add(record.originalFilePath);
+    }
+    return filePaths;
+  }
+
+  private File file(String parentCommitId, String commitId, String rightSideFileName, Set<String> rightSideFileNames) {
+    StringBuilder key = new StringBuilder();
+    key.append(parentCommitId).append('@').append(commitId).append('@').append(rightSideFileName);
+    if (rightSideFileNames == null) {
+      key.append("@*");
+    } else {
+      for (String fileName : new TreeSet<>(rightSideFileNames)) {
+        key.append('@').append(fileName);
+      }
+    }
+    SHA1 sha1 = SHA1.newInstance();
+    sha1.update(key.toString().getBytes(StandardCharsets.UTF_8));
+    String name = ObjectId.fromRaw(sha1.digest()).getName();
+    return new File(new File(directory, name.substring(0, 2)), name.substring(2));
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) return null;
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * A stored refactoring. The moved element and its original file are null, except for the refactorings moving an
+   * operation or an attribute.
+   */
+  public static final class Record {
+    private final String type;
+    private final String description;
+    private final String movedElement;
+    private final String originalFilePath;
+
+    public Record(String type, String description, String movedElement, String originalFilePath) {
+      this.type = type;
+      this.description = description;
+      this.movedElement = movedElement;
+      this.originalFilePath = originalFilePath;
+    }
+
+    public String getType() {
+      return type;
+    }
+
+    public String getDescription() {
+      return description;
+    }
+
+    public String getMovedElement() {
+      return movedElement;
+    }
+
+    public String getOriginalFilePath() {
+      return originalFilePath;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package org.codetracker.util;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.*;
+
+import java.util.*;
+
+/**
+ * The skeleton of a Java file: the methods and initializers declared by its types, parsed without their bodies, which
+ * is much cheaper than building its model.
+ * <p>
+ * Each declaration is keyed by the package, the kinds and names of its enclosing types, and its raw text, from its
+ * documentation to the end of its body. Two declarations with the same key have the same identifier ignoring version
+ * in the models of their files, so a tracker can tell that a method did not change in a commit without building the
+ * models of the commit. The declarations of anonymous classes are left out.
+ */
+public class SkeletonModel {
+  private final Map<Integer, String> keysByStartOffset = new HashMap<>();
+  private final Set<String> keys = new HashSet<>();
+
+  private SkeletonModel() {
+  }
+
+  public static SkeletonModel parse(String fileContents) {
+    ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+    Map<String, String> options = JavaCore.getOptions();
+    JavaCore.setComplianceOptions(JavaCore.latestSupportedJavaVersion(), options);
+    parser.setCompilerOptions(options);
+    parser.setKind(ASTParser.K_COMPILATION_UNIT);
+    parser.setResolveBindings(false);
+    parser.setIgnoreMethodBodies(true);
+    parser.setSource(fileContents.toCharArray());
+    CompilationUnit compilationUnit = (CompilationUnit) parser.createAST(null);
+    SkeletonModel skeletonModel = new SkeletonModel();
+    String packageName = compilationUnit.getPackage() != null ? compilationUnit.getPackage().getName().getFullyQualifiedName() : "";
+    Deque<String> types = new ArrayDeque<>();
+    compilationUnit.accept(new ASTVisitor() {
+      @Override
+      public boolean preVisit2(ASTNode node) {
+        if (node instanceof AbstractTypeDeclaration) {
+          types.addLast(kind((AbstractTypeDeclaration) node) + " " + ((AbstractTypeDeclaration) node).getName().getIdentifier());
+          return true;
+        }
+        if (node instanceof MethodDeclaration || node instanceof Initializer) {
+          if (node.getParent() instanceof AbstractTypeDeclaration) {
+            String text = fileContents.substring(node.getStartPosition(), node.getStartPosition() + node.getLength());
+            String key = packageName + "|" + String.join(".", types) + "|" + text;
+            skeletonModel.keysByStartOffset.put(node.getStartPosition(), key);
+            skeletonModel.keys.add(key);
+          }
+          return false;
+        }
+        return true;
+      }
+
+      @Override
+      public void postVisit(ASTNode node) {
+        if (node instanceof AbstractTypeDeclaration)
+          types.removeLast();
+      }
+    });
+    return skeletonModel;
+  }
+
+  private static String kind(AbstractTypeDeclaration typeDeclaration) {
+    if (typeDeclaration instanceof TypeDeclaration)
+      return ((TypeDeclaration) typeDeclaration).isInterface() ? "interface" : "class";
+    if (typeDeclaration instanceof EnumDeclaration)
+      return "enum";
+    if (typeDeclaration instanceof AnnotationTypeDeclaration)
+      return "@interface";
+    return typeDeclaration.getClass().getSimpleName();
+  }
+
+  /**
+   * @return the key of the method or initializer declared at the offset, or null if there is none
+   */
+  public String getKey(int startOffset) {
+    return keysByStartOffset.get(startOffset);
+  }
+
+  /**
+   * @return whether the file declares a method or initializer with the key
+   */
+  public boolean contains(String key) {
+    return keys.contains(key);
+  }
+}
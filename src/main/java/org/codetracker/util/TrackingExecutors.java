@@ -0,0 +1,39 @@
+package org.codetracker.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory of the pools running independent tracking tasks concurrently.
+ */
+public final class TrackingExecutors {
+  private TrackingExecutors() {
+  }
+
+  /**
+   * @return a pool starting a virtual thread per task when the runtime supports them, or else
+   * {@link #newFixedThreadPool(int, String)} with one thread per available processor
+   */
+  public static ExecutorService newExecutor(String name) {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return newFixedThreadPool(Runtime.getRuntime().availableProcessors(), name);
+    }
+  }
+
+  /**
+   * @return a pool of {@code threads} daemon threads, named after {@code name}
+   */
+  public static ExecutorService newFixedThreadPool(int threads, String name) {
+    AtomicInteger count = new AtomicInteger();
+    return Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+}
@@ -0,0 +1,54 @@
+package org.codetracker.util;
+
+import gr.uom.java.xmi.UMLModel;
+import org.eclipse.jgit.lib.ObjectId;
+
+/**
+ * A cache for the partial {@link UMLModel}s that trackers build for a single file revision.
+ * Entries are keyed by the file path and the id of the blob holding its contents, so a file revision
+ * is parsed once, no matter how many commits or trackers refer to it.
+ * One instance can be shared by all the trackers working on the same repository, including trackers running
+ * concurrently.
+ * <p>
+ * Refactoring detection updates the models it diffs, so a model is used by one tracker at a time: {@link #take}
+ * removes the model from the cache, and the tracker puts it back with {@link #put} once it is done with it. A tracker
+ * asking for a model another tracker has taken parses a copy of its own.
+ */
+public interface UMLModelCache {
+  /**
+   * Removes the model from the cache, leaving it to the caller until it is put back.
+   *
+   * @param filePath the path of the file in the repository
+   * @param blobId the id of the blob holding the contents of the file
+   * @return the cached model, or null if there is none, or it is taken by another caller
+   */
+  UMLModel take(String filePath, ObjectId blobId);
+
+  /**
+   * @return true if a model is cached for the blob; unlike {@link #take(String, ObjectId)} it is not counted as a lookup
+   */
+  boolean contains(String filePath, ObjectId blobId);
+
+  /**
+   * Adds a model to the cache, or puts back a model taken from it. When a copy put back by another caller is
+   * already cached, that copy is kept.
+   *
+   * @param filePath the path of the file in the repository
+   * @param blobId the id of the blob holding the contents of the file
+   * @param umlModel the model built from the blob, which the caller no longer uses
+   * @param weight the size of the blob, used by implementations evicting entries by weight
+   */
+  void put(String filePath, ObjectId blobId, UMLModel umlModel, long weight);
+
+  /** @return number of lookups that found a cached model */
+  long getHitCount();
+
+  /** @return number of lookups that did not find a cached model */
+  long getMissCount();
+
+  /** @return number of models evicted to respect the bounds of the cache */
+  long getEvictionCount();
+
+  /** Removes all the cached models */
+  void clear();
+}
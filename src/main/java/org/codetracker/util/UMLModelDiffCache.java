@@ -0,0 +1,144 @@
+package org.codetracker.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.diff.UMLModelDiff;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache for the {@link UMLModelDiff}s that trackers compute to detect the refactorings of a commit, keyed by the
+ * parent commit, the commit and the files the diff covers, so that tracking several elements of the same file over
+ * the same commit pays for refactoring detection once.
+ * <p>
+ * Besides the maximum number of entries, the diffs are softly referenced: the garbage collector evicts them when memory
+ * runs low. Like the models of a {@link UMLModelCache}, a diff is used by one tracker at a time: {@link #take} removes
+ * it from the cache, and the tracker puts it back with {@link #put} once it is done with it. A diff is also bound to
+ * the models it was computed from, so it is only handed out to a tracker holding these very models.
+ */
+public class UMLModelDiffCache {
+  public static final long DEFAULT_MAXIMUM_SIZE = 64;
+  private final Cache<Key, Entry> cache;
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+
+  public UMLModelDiffCache() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * @param maximumSize maximum number of diffs kept in the cache
+   */
+  public UMLModelDiffCache(long maximumSize) {
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).softValues().recordStats().build();
+  }
+
+  /**
+   * Removes the diff from the cache, leaving it to the caller until it is put back.
+   *
+   * @param leftModel the model of the parent commit the caller holds, or null for a diff built from models of its own
+   * @param rightModel the model of the commit the caller holds, or null for a diff built from models of its own
+   * @return the cached diff, or null if there is none, it is taken by another caller, or it was computed from other
+   * models
+   */
+  public UMLModelDiff take(Key key, UMLModel leftModel, UMLModel rightModel) {
+    Entry entry = cache.asMap().get(key);
+    if (entry == null || entry.leftModel != leftModel || entry.rightModel != rightModel || !cache.asMap().remove(key, entry)) {
+      missCount.increment();
+      return null;
+    }
+    hitCount.increment();
+    return entry.umlModelDiff;
+  }
+
+  /**
+   * Adds a diff to the cache, or puts back a diff taken from it, replacing the diff cached for other models.
+   *
+   * @param leftModel the model of the parent commit the diff was computed from, or null if it was built for the diff
+   * @param rightModel the model of the commit the diff was computed from, or null if it was built for the diff
+   */
+  public void put(Key key, UMLModel leftModel, UMLModel rightModel, UMLModelDiff umlModelDiff) {
+    cache.put(key, new Entry(leftModel, rightModel, umlModelDiff));
+  }
+
+  /** @return number of lookups that found a cached diff */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /** @return number of lookups that did not find a cached diff */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /** @return number of diffs evicted, to respect the maximum size or reclaimed by the garbage collector */
+  public long getEvictionCount() {
+    return cache.stats().evictionCount();
+  }
+
+  /** Removes all the cached diffs */
+  public void clear() {
+    cache.invalidateAll();
+  }
+
+  public static final class Key {
+    private final String parentCommitId;
+    private final String commitId;
+    private final String scope;
+    private final SortedSet<String> filePaths;
+
+    private Key(String parentCommitId, String commitId, String scope, Set<String> filePaths) {
+      this.parentCommitId = parentCommitId;
+      this.commitId = commitId;
+      this.scope = scope;
+      this.filePaths = filePaths != null ? Collections.unmodifiableSortedSet(new TreeSet<>(filePaths)) : null;
+    }
+
+    /**
+     * @return the key of the diff between the models of a single file at the parent commit and at the commit
+     */
+    public static Key local(String parentCommitId, String commitId, String filePath) {
+      return new Key(parentCommitId, commitId, "local", Collections.singleton(filePath));
+    }
+
+    /**
+     * @param rightSideFileName the file the model pair is built for
+     * @param rightSideFileNames the files whose classes are kept in the model of the commit, or null for all of them
+     * @return the key of the diff between the models of all the files changed by the commit
+     */
+    public static Key all(String parentCommitId, String commitId, String rightSideFileName, Set<String> rightSideFileNames) {
+      return new Key(parentCommitId, commitId, "all:" + rightSideFileName, rightSideFileNames);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key) o;
+      return Objects.equals(parentCommitId, key.parentCommitId) && commitId.equals(key.commitId) && scope.equals(key.scope) && Objects.equals(filePaths, key.filePaths);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(parentCommitId, commitId, scope, filePaths);
+    }
+  }
+
+  private static final class Entry {
+    private final UMLModel leftModel;
+    private final UMLModel rightModel;
+    private final UMLModelDiff umlModelDiff;
+
+    private Entry(UMLModel leftModel, UMLModel rightModel, UMLModelDiff umlModelDiff) {
+      this.leftModel = leftModel;
+      this.rightModel = rightModel;
+      this.umlModelDiff = umlModelDiff;
+    }
+  }
+}
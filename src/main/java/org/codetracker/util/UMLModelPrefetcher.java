@@ -0,0 +1,53 @@
+package org.codetracker.util;
+
+import java.util.concurrent.*;
+
+/**
+ * Opt-in configuration for parsing, on a pool of worker threads, the models of the next commits a tracker is going
+ * to analyse while it is still comparing the current one.
+ * The method trackers, batches included, tell from the skeletons of the file that a commit did not change the tracked
+ * method without building its models, so they do not prefetch the models of such commits. This shortcut is specific to
+ * method tracking: the other trackers build, and prefetch, the models of every commit modifying the file.
+ * One instance, and its pool, can be shared by several trackers.
+ */
+public class UMLModelPrefetcher implements AutoCloseable {
+  private final ExecutorService executor;
+  private final int depth;
+  private final boolean ownsExecutor;
+
+  /**
+   * @param executor the pool parsing the models
+   * @param depth number of upcoming commits whose models are parsed in advance
+   */
+  public UMLModelPrefetcher(ExecutorService executor, int depth) {
+    this(executor, depth, false);
+  }
+
+  private UMLModelPrefetcher(ExecutorService executor, int depth, boolean ownsExecutor) {
+    if (depth < 1) throw new IllegalArgumentException("depth must be positive");
+    this.executor = executor;
+    this.depth = depth;
+    this.ownsExecutor = ownsExecutor;
+  }
+
+  /**
+   * @param threads number of worker threads, shut down by {@link #close()}
+   * @param depth number of upcoming commits whose models are parsed in advance
+   */
+  public static UMLModelPrefetcher withThreads(int threads, int depth) {
+    return new UMLModelPrefetcher(TrackingExecutors.newFixedThreadPool(threads, "uml-model-prefetch"), depth, true);
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public <T> Future<T> submit(Callable<T> task) {
+    return executor.submit(task);
+  }
+
+  @Override
+  public void close() {
+    if (ownsExecutor) executor.shutdownNow();
+  }
+}
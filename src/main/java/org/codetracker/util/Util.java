@@ -2,17 +2,10 @@ package org.codetracker.util;
 
 import gr.uom.java.xmi.UMLAnnotation;
 
-import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 public class Util {
-	private static boolean enableCache;
-	private static Map<String, String> shaCache = new HashMap<>();
     private Util() {
     }
 
@@ -22,32 +15,27 @@ public class Util {
                 : "";
     }
 
+    /** @deprecated use {@link Fingerprint#enableCache()} */
+    @Deprecated
     public static void enableSHACache() {
-    	enableCache = true;
+    	Fingerprint.enableCache();
     }
 
+    /** @deprecated use {@link Fingerprint#disableCache()} */
+    @Deprecated
     public static void disableSHACache() {
-    	enableCache = false;
+    	Fingerprint.disableCache();
     }
 
+    /** @deprecated use {@link Fingerprint#clearCache()} */
+    @Deprecated
     public static void clearSHACache() {
-    	shaCache.clear();
+    	Fingerprint.clearCache();
     }
 
+    /** @deprecated the identifiers use {@link Fingerprint#digest(String)}, which can be switched back to SHA-512 */
+    @Deprecated
     public static String getSHA512(String input) {
-    	if(shaCache.containsKey(input))
-    		return shaCache.get(input);
-    	String toReturn = null;
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-512");
-            digest.reset();
-            digest.update(input.getBytes(StandardCharsets.UTF_8));
-            toReturn = String.format("%0128x", new BigInteger(1, digest.digest()));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        if(enableCache)
-        	shaCache.put(input, toReturn);
-        return toReturn;
+        return Fingerprint.sha512(input);
     }
 }
@@ -0,0 +1,146 @@
+package org.codetracker;
+
+import org.codetracker.api.CodeTracker;
+import org.codetracker.api.History;
+import org.codetracker.change.Change;
+import org.codetracker.element.Method;
+import org.codetracker.util.TemporaryRepository;
+import org.codetracker.util.TrackingExecutors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs hundreds of method trackers of one session concurrently against one repository, and checks each history is
+ * the one a tracker run alone finds.
+ */
+public class TrackingSessionStressTest {
+    private static final String[] FILE_PATHS = {"src/main/java/calc/Calculator.java", "src/main/java/calc/Formatter.java"};
+    private static final int METHODS = 12;
+    private static final int VERSIONS = 6;
+    private static final int RUNS_PER_METHOD = 12;
+    private static final int THREADS = 8;
+
+    @TempDir
+    File directory;
+    private TemporaryRepository repository;
+    private String head;
+
+    @BeforeEach
+    public void createHistory() throws Exception {
+        repository = TemporaryRepository.init(new File(directory, "repository"));
+        for (int version = 0; version < VERSIONS; version++) {
+            for (String filePath : FILE_PATHS)
+                repository.write(filePath, source(className(filePath), version));
+            head = repository.commit("version " + version);
+        }
+    }
+
+    @AfterEach
+    public void close() {
+        repository.close();
+    }
+
+    @Test
+    public void testConcurrentTrackersFindSameHistories() throws Exception {
+        List<String[]> selectors = new ArrayList<>();
+        for (String filePath : FILE_PATHS) {
+            String[] lines = source(className(filePath), VERSIONS - 1).split("\n");
+            for (int i = 0; i < lines.length; i++) {
+                String line = lines[i].trim();
+                if (line.startsWith("int "))
+                    selectors.add(new String[]{filePath, line.substring(4, line.indexOf('(')), String.valueOf(i + 1)});
+            }
+        }
+
+        Map<String, String> expected = new HashMap<>();
+        for (String[] selector : selectors) {
+            try (TrackingSession session = CodeTracker.session(repository.getRepository())) {
+                expected.put(key(selector), describe(track(session, selector)));
+            }
+        }
+
+        ExecutorService executor = TrackingExecutors.newFixedThreadPool(THREADS, "stress");
+        try (TrackingSession session = CodeTracker.session(repository.getRepository())) {
+            List<String[]> runs = new ArrayList<>();
+            for (int run = 0; run < RUNS_PER_METHOD; run++)
+                runs.addAll(selectors);
+            Collections.shuffle(runs, new Random(42));
+            List<Future<String>> histories = new ArrayList<>();
+            for (String[] selector : runs)
+                histories.add(executor.submit(() -> describe(track(session, selector))));
+            for (int i = 0; i < runs.size(); i++)
+                assertEquals(expected.get(key(runs.get(i))), histories.get(i).get(), key(runs.get(i)));
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+    }
+
+    private History<Method> track(TrackingSession session, String[] selector) throws Exception {
+        return session.methodTracker()
+                .startCommitId(head)
+                .filePath(selector[0])
+                .methodName(selector[1])
+                .methodDeclarationLineNumber(Integer.parseInt(selector[2]))
+                .build()
+                .track();
+    }
+
+    private static String key(String[] selector) {
+        return selector[0] + "#" + selector[1];
+    }
+
+    private static String describe(History<Method> history) {
+        StringBuilder description = new StringBuilder();
+        List<History.HistoryInfo<Method>> historyInfos = new ArrayList<>(history.getHistoryInfoList());
+        Collections.sort(historyInfos);
+        for (History.HistoryInfo<Method> historyInfo : historyInfos) {
+            List<String> changes = new ArrayList<>();
+            for (Change change : historyInfo.getChangeList())
+                changes.add(change.getType() + ": " + change);
+            Collections.sort(changes);
+            description.append(historyInfo.getCommitId()).append(' ')
+                    .append(historyInfo.getElementBefore().getIdentifier()).append(" -> ")
+                    .append(historyInfo.getElementAfter().getIdentifier()).append(' ')
+                    .append(changes).append('\n');
+        }
+        return description.toString();
+    }
+
+    private static String className(String filePath) {
+        return filePath.substring(filePath.lastIndexOf('/') + 1, filePath.length() - ".java".length());
+    }
+
+    /**
+     * A class whose methods change from one version to the next: some bodies change, a method is renamed, another
+     * gets a parameter, and methods are added.
+     */
+    private static String source(String className, int version) {
+        StringBuilder source = new StringBuilder("package calc;\n\npublic class " + className + " {\n");
+        for (int i = 0; i < METHODS; i++) {
+            String name = i == 3 && version >= 2 ? "renamed3" : "m" + i;
+            String parameters = i == 5 && version >= 3 ? "int x, int y" : "int x";
+            int increment = i % (version + 1) == 0 ? i + version : i;
+            source.append("\n    int ").append(name).append('(').append(parameters).append(") {\n")
+                    .append("        int result = x + ").append(increment).append(";\n")
+                    .append("        return result;\n")
+                    .append("    }\n");
+        }
+        for (int i = 0; i < version; i++) {
+            source.append("\n    int added").append(i).append("(int x) {\n")
+                    .append("        return x * ").append(i + 2).append(";\n")
+                    .append("    }\n");
+        }
+        return source.append("}\n").toString();
+    }
+}
@@ -0,0 +1,89 @@
+package org.codetracker.blame.impl;
+
+import org.codetracker.blame.model.LineBlameResult;
+import org.codetracker.blame.util.BlameSnapshotStore;
+import org.codetracker.util.TemporaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalBlameTest {
+    private static final String FILE_PATH = "src/main/java/calc/Calculator.java";
+    private static final int VERSIONS = 5;
+
+    @TempDir
+    File directory;
+    private TemporaryRepository repository;
+    private final List<String> commits = new ArrayList<>();
+
+    @BeforeEach
+    public void createHistory() throws Exception {
+        repository = TemporaryRepository.init(new File(directory, "repository"));
+        for (int version = 0; version < VERSIONS; version++)
+            commits.add(repository.commit(FILE_PATH, source(version), "version " + version));
+    }
+
+    @AfterEach
+    public void close() {
+        repository.close();
+    }
+
+    @Test
+    public void testBlamesAsUnderlyingBlamer() throws Exception {
+        BlameSnapshotStore snapshotStore = new BlameSnapshotStore(new File(directory, "blame"));
+        IncrementalBlame incrementalBlame = new IncrementalBlame(new JGitBlame(), snapshotStore);
+        for (int version = 0; version < VERSIONS; version++) {
+            String commitId = commits.get(version);
+            List<LineBlameResult> expected = new JGitBlame().blameFile(repository.getRepository(), commitId, FILE_PATH);
+            assertSameBlame(version, expected, incrementalBlame.blameFile(repository.getRepository(), commitId, FILE_PATH));
+            assertTrue(snapshotStore.contains(JGitBlame.class.getName(), FILE_PATH, commitId));
+            assertSameBlame(version, expected, incrementalBlame.blameFile(repository.getRepository(), commitId, FILE_PATH));
+        }
+    }
+
+    @Test
+    public void testBlamesFromOlderSnapshot() throws Exception {
+        BlameSnapshotStore snapshotStore = new BlameSnapshotStore(new File(directory, "blame"));
+        IncrementalBlame incrementalBlame = new IncrementalBlame(new JGitBlame(), snapshotStore);
+        incrementalBlame.blameFile(repository.getRepository(), commits.get(0), FILE_PATH);
+        String head = commits.get(VERSIONS - 1);
+        List<LineBlameResult> expected = new JGitBlame().blameFile(repository.getRepository(), head, FILE_PATH);
+        assertSameBlame(VERSIONS - 1, expected, incrementalBlame.blameFile(repository.getRepository(), head, FILE_PATH));
+        assertFalse(snapshotStore.contains(JGitBlame.class.getName(), FILE_PATH, commits.get(1)));
+    }
+
+    private static void assertSameBlame(int version, List<LineBlameResult> expected, List<LineBlameResult> actual) {
+        String[] lines = source(version).split("\n");
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            if (lines[i].trim().isEmpty())
+                continue;
+            assertNotNull(actual.get(i), "line " + (i + 1));
+            assertEquals(expected.get(i).getCommitId(), actual.get(i).getCommitId(), "line " + (i + 1));
+            assertEquals(expected.get(i).getResultLineNumber(), actual.get(i).getResultLineNumber(), "line " + (i + 1));
+            assertEquals(i + 1, actual.get(i).getOriginalLineNumber());
+        }
+    }
+
+    /**
+     * A class where each version adds a method and changes the body of an earlier one.
+     */
+    private static String source(int version) {
+        StringBuilder source = new StringBuilder("package calc;\n\npublic class Calculator {\n");
+        for (int i = 0; i <= version; i++) {
+            int factor = i == version - 1 ? 10 * version : i + 1;
+            source.append("\n    int m").append(i).append("(int x) {\n")
+                    .append("        int y = x * ").append(factor).append(";\n")
+                    .append("        return y + ").append(i).append(";\n")
+                    .append("    }\n");
+        }
+        return source.append("}\n").toString();
+    }
+}
@@ -0,0 +1,55 @@
+package org.codetracker.blame.util;
+
+import org.codetracker.blame.model.LineBlameResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlameSnapshotStoreTest {
+    private static final String BLAMER = "blamer";
+    private static final String FILE_PATH = "src/Foo.java";
+    private static final String COMMIT_ID = "119fd4fb33bef9f5c66fc950396669af842c21a3";
+
+    @TempDir
+    File directory;
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        BlameSnapshotStore store = new BlameSnapshotStore(directory);
+        assertFalse(store.contains(BLAMER, FILE_PATH, COMMIT_ID));
+        assertNull(store.load(BLAMER, FILE_PATH, COMMIT_ID));
+        List<LineBlameResult> lines = Arrays.asList(
+                new LineBlameResult(COMMIT_ID, FILE_PATH, "src/Old.java", "committer", 1234L, 7, 1),
+                null,
+                new LineBlameResult(COMMIT_ID, FILE_PATH, null, null, 5678L, 9, 3));
+        store.save(BLAMER, FILE_PATH, COMMIT_ID, lines);
+        assertTrue(store.contains(BLAMER, FILE_PATH, COMMIT_ID));
+        assertFalse(store.contains("other", FILE_PATH, COMMIT_ID));
+        List<LineBlameResult> loaded = store.load(BLAMER, FILE_PATH, COMMIT_ID);
+        assertEquals(lines.size(), loaded.size());
+        assertNull(loaded.get(1));
+        for (int i : new int[]{0, 2}) {
+            assertEquals(lines.get(i).getCommitId(), loaded.get(i).getCommitId());
+            assertEquals(lines.get(i).getFilePath(), loaded.get(i).getFilePath());
+            assertEquals(lines.get(i).getBeforeFilePath(), loaded.get(i).getBeforeFilePath());
+            assertEquals(lines.get(i).getCommitter(), loaded.get(i).getCommitter());
+            assertEquals(lines.get(i).getCommitDate(), loaded.get(i).getCommitDate());
+            assertEquals(lines.get(i).getResultLineNumber(), loaded.get(i).getResultLineNumber());
+            assertEquals(i + 1, loaded.get(i).getOriginalLineNumber());
+        }
+    }
+
+    @Test
+    public void testSaveReplacesSnapshot() throws Exception {
+        BlameSnapshotStore store = new BlameSnapshotStore(directory);
+        store.save(BLAMER, FILE_PATH, COMMIT_ID, Arrays.asList(null, null));
+        store.save(BLAMER, FILE_PATH, COMMIT_ID, Collections.singletonList(null));
+        assertEquals(1, store.load(BLAMER, FILE_PATH, COMMIT_ID).size());
+    }
+}
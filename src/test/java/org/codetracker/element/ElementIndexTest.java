@@ -0,0 +1,125 @@
+package org.codetracker.element;
+
+import gr.uom.java.xmi.UMLAttribute;
+import gr.uom.java.xmi.UMLClass;
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.UMLOperation;
+import org.codetracker.BaseTracker;
+import org.codetracker.api.Version;
+import org.codetracker.util.GitRepository;
+import org.codetracker.util.TemporaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ElementIndexTest {
+    private static final String FILE_PATH = "src/main/java/calc/Calculator.java";
+    private static final String SOURCE = "package calc;\n" +
+            "\n" +
+            "public class Calculator {\n" +
+            "    private int total;\n" +
+            "    private String name = \"calc\";\n" +
+            "\n" +
+            "    /** Adds x. */\n" +
+            "    public int add(int x) {\n" +
+            "        total += x;\n" +
+            "        return total;\n" +
+            "    }\n" +
+            "\n" +
+            "    public int add(int x, int y) {\n" +
+            "        return add(x) + add(y);\n" +
+            "    }\n" +
+            "\n" +
+            "    @Deprecated\n" +
+            "    int reset() {\n" +
+            "        total = 0;\n" +
+            "        return total;\n" +
+            "    }\n" +
+            "\n" +
+            "    static class Memory {\n" +
+            "        private int value;\n" +
+            "\n" +
+            "        int recall() {\n" +
+            "            return value;\n" +
+            "        }\n" +
+            "    }\n" +
+            "}\n";
+
+    @TempDir
+    File directory;
+    private TemporaryRepository repository;
+    private UMLModel umlModel;
+    private Version version;
+
+    @BeforeEach
+    public void createModel() throws Exception {
+        repository = TemporaryRepository.init(new File(directory, "repository"));
+        String commitId = repository.commit(FILE_PATH, SOURCE, "add Calculator");
+        umlModel = BaseTracker.getUMLModel(repository.getRepository(), commitId, Collections.singleton(FILE_PATH));
+        version = new GitRepository(repository.getRepository()).getVersion(commitId);
+    }
+
+    @AfterEach
+    public void close() {
+        repository.close();
+    }
+
+    @Test
+    public void testIndexIsReused() {
+        assertSame(ElementIndex.of(umlModel), ElementIndex.of(umlModel));
+    }
+
+    @Test
+    public void testFindsEveryElement() {
+        ElementIndex index = ElementIndex.of(umlModel);
+        int methods = 0;
+        for (UMLClass umlClass : umlModel.getClassList()) {
+            Class clazz = Class.of(umlClass, version);
+            assertEquals(clazz, index.getClass(version, clazz));
+            for (UMLOperation operation : umlClass.getOperations()) {
+                Method method = Method.of(operation, version);
+                Method found = index.getMethod(version, method);
+                assertEquals(method, found);
+                assertSame(operation, found.getUmlOperation());
+                assertEquals(method, index.getMethod(version, method.getIdentifierIgnoringVersion()));
+                assertEquals(method, index.getMethodIgnoringDocumentationAndBody(version, method));
+                assertEquals(method, index.getMethodIgnoringAnnotation(version, method));
+                methods++;
+            }
+            for (UMLAttribute umlAttribute : umlClass.getAttributes()) {
+                Attribute attribute = Attribute.of(umlAttribute, version);
+                assertEquals(attribute, index.getAttribute(version, attribute));
+            }
+        }
+        assertEquals(4, methods);
+    }
+
+    @Test
+    public void testMissingElements() throws Exception {
+        String commitId = repository.commit(FILE_PATH, SOURCE.replace("int reset()", "int clear()").replace("private int total;", "private long total;"), "rename reset");
+        UMLModel otherModel = BaseTracker.getUMLModel(repository.getRepository(), commitId, Collections.singleton(FILE_PATH));
+        Version otherVersion = new GitRepository(repository.getRepository()).getVersion(commitId);
+        ElementIndex index = ElementIndex.of(umlModel);
+        int missingMethods = 0;
+        int missingAttributes = 0;
+        for (UMLClass umlClass : otherModel.getClassList()) {
+            for (UMLOperation operation : umlClass.getOperations()) {
+                if (index.getMethod(version, Method.of(operation, otherVersion)) == null)
+                    missingMethods++;
+            }
+            for (UMLAttribute umlAttribute : umlClass.getAttributes()) {
+                if (index.getAttribute(version, Attribute.of(umlAttribute, otherVersion)) == null)
+                    missingAttributes++;
+            }
+        }
+        assertEquals(1, missingMethods);
+        assertEquals(1, missingAttributes);
+        assertNull(index.getMethod(version, "unknown"));
+    }
+}
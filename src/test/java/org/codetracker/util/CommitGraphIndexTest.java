@@ -0,0 +1,178 @@
+package org.codetracker.util;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommitGraphIndexTest {
+    private static final String FILE_PATH = "src/Foo.java";
+
+    @TempDir
+    File directory;
+    private TemporaryRepository repository;
+    private File file;
+    private final List<String> commits = new ArrayList<>();
+
+    @BeforeEach
+    public void createHistory() throws Exception {
+        repository = TemporaryRepository.init(new File(directory, "repository"));
+        file = new File(directory, "index/commit-graph");
+        commits.add(repository.commit(FILE_PATH, "class Foo {\n}\n", "add Foo"));
+        commits.add(repository.commit("src/Bar.java", "class Bar {\n}\n", "add Bar"));
+        commits.add(repository.commit(FILE_PATH, "class Foo {\n  void a() {}\n}\n", "add a"));
+    }
+
+    @AfterEach
+    public void close() {
+        repository.close();
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            index.update(commits.get(2));
+            assertEquals(3, index.size());
+        }
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            assertEquals(3, index.size());
+            CommitGraphIndex.Commit commit = index.get(commits.get(2));
+            assertEquals(ObjectId.fromString(commits.get(1)), commit.getParentId(0));
+            try (RevWalk walk = new RevWalk(repository.getRepository())) {
+                assertEquals(walk.parseCommit(commit.getId()).getTree().getId(), commit.getTreeId());
+            }
+            assertEquals("Tester", commit.getAuthorName());
+            assertTrue(commit.isChanged(0, FILE_PATH));
+            assertFalse(index.get(commits.get(1)).isChanged(0, FILE_PATH));
+            assertTrue(index.get(commits.get(0)).isChanged(0, FILE_PATH));
+        }
+    }
+
+    @Test
+    public void testInstancesSharingTheFile() throws Exception {
+        try (CommitGraphIndex first = new CommitGraphIndex(repository.getRepository(), file);
+             CommitGraphIndex second = new CommitGraphIndex(repository.getRepository(), file)) {
+            first.get(commits.get(0));
+            second.get(commits.get(1));
+            first.get(commits.get(2));
+        }
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            assertEquals(3, index.size());
+        }
+    }
+
+    @Test
+    public void testConcurrentInstances() throws Exception {
+        for (int i = 0; i < 20; i++)
+            commits.add(repository.commit(FILE_PATH, "class Foo {\n  int i = " + i + ";\n}\n", "set i to " + i));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> sizes = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                String commitId = commits.get(i % commits.size());
+                sizes.add(executor.submit(() -> {
+                    try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+                        index.update(commitId);
+                        return index.size();
+                    }
+                }));
+            }
+            for (Future<Integer> size : sizes)
+                assertTrue(size.get() > 0);
+        } finally {
+            executor.shutdown();
+        }
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            index.update(commits.get(commits.size() - 1));
+            assertEquals(commits.size(), index.size());
+        }
+        long length = file.length();
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            assertEquals(commits.size(), index.size());
+        }
+        assertEquals(length, file.length());
+    }
+
+    @Test
+    public void testChangedPathsOfMissingRecordAreComputed() throws Exception {
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            index.update(commits.get(2));
+        }
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            assertTrue(file.delete());
+            assertTrue(index.get(commits.get(2)).isChanged(0, FILE_PATH));
+            assertFalse(index.get(commits.get(1)).isChanged(0, FILE_PATH));
+        }
+    }
+
+    @Test
+    public void testIncompleteRecordIsDropped() throws Exception {
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            index.update(commits.get(2));
+        }
+        long length = file.length();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length - 3);
+        }
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            assertEquals(2, index.size());
+            assertTrue(index.get(commits.get(0)).isChanged(0, FILE_PATH));
+            assertFalse(index.get(commits.get(1)).isChanged(0, FILE_PATH));
+            index.update(commits.get(2));
+        }
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            assertEquals(3, index.size());
+        }
+    }
+
+    @Test
+    public void testCorruptCountIsRebuilt() throws Exception {
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            index.get(commits.get(0));
+        }
+        // the count of changed paths is the last int before the single path of the root commit
+        long countOffset = file.length() - (2 + FILE_PATH.length()) - 4;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(countOffset);
+            raf.writeInt(-7);
+        }
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            assertEquals(0, index.size());
+            assertTrue(index.get(commits.get(0)).isChanged(0, FILE_PATH));
+        }
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            assertEquals(1, index.size());
+        }
+    }
+
+    @Test
+    public void testUnknownFormatIsRebuilt() throws Exception {
+        file.getParentFile().mkdirs();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(0x43544347);
+            out.writeInt(99);
+            out.writeLong(42);
+        }
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            assertEquals(0, index.size());
+            index.update(commits.get(2));
+        }
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), file)) {
+            assertEquals(3, index.size());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.codetracker.util;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommitMetadataCacheTest {
+    private static final ObjectId COMMIT_ID = ObjectId.fromString("119fd4fb33bef9f5c66fc950396669af842c21a3");
+    private static final ObjectId PARENT_ID = ObjectId.fromString("5d2c5e6a0b19e0a2f0b5e2c1f6e2b0a5a8c1d3e4");
+
+    @Test
+    public void testLoadsOnce() {
+        CommitMetadataCache cache = new CommitMetadataCache();
+        AtomicInteger loads = new AtomicInteger();
+        CommitMetadataCache.CommitMetadata metadata = cache.get(COMMIT_ID, () -> {
+            loads.incrementAndGet();
+            return new CommitMetadataCache.CommitMetadata(PARENT_ID, null, 10, 20L, "author");
+        });
+        assertSame(metadata, cache.get(COMMIT_ID, () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertEquals(1, loads.get());
+        assertEquals(PARENT_ID, metadata.getParentId());
+        assertEquals(10, metadata.getCommitTime());
+        assertEquals(20L, metadata.getAuthoredTime());
+        assertEquals("author", metadata.getAuthorName());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testBoundedSize() {
+        CommitMetadataCache cache = new CommitMetadataCache(2);
+        for (int i = 0; i < 10; i++) {
+            int commitTime = i;
+            cache.get(ObjectId.fromRaw(new int[]{i, 0, 0, 0, 0}), () -> new CommitMetadataCache.CommitMetadata(null, null, commitTime, 0, null));
+        }
+        assertTrue(cache.size() <= 2);
+    }
+
+    @Test
+    public void testLoaderExceptions() {
+        CommitMetadataCache cache = new CommitMetadataCache();
+        assertThrows(UncheckedIOException.class, () -> cache.get(COMMIT_ID, () -> {
+            throw new IOException("missing commit");
+        }));
+        assertThrows(IllegalArgumentException.class, () -> cache.get(COMMIT_ID, () -> {
+            throw new IllegalArgumentException();
+        }));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testConcurrentLoadsOnce() throws Exception {
+        CommitMetadataCache cache = new CommitMetadataCache();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CommitMetadataCache.CommitMetadata>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(COMMIT_ID, () -> {
+                        loads.incrementAndGet();
+                        return new CommitMetadataCache.CommitMetadata(PARENT_ID, null, 10, 20L, "author");
+                    });
+                }));
+            }
+            start.countDown();
+            CommitMetadataCache.CommitMetadata metadata = results.get(0).get();
+            for (Future<CommitMetadataCache.CommitMetadata> result : results)
+                assertSame(metadata, result.get());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,114 @@
+package org.codetracker.util;
+
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileHistoryWalkerTest {
+    private static final String FILE_PATH = "src/Foo.java";
+    private static final String OTHER_FILE_PATH = "src/Bar.java";
+
+    @TempDir
+    File directory;
+    private TemporaryRepository repository;
+    private String head;
+
+    /**
+     * A history with a mode change, a delete and re-add, a merge leaving the file as on one side, which git log
+     * simplifies, and a merge of changes made to the file on both sides.
+     */
+    @BeforeEach
+    public void createHistory() throws Exception {
+        repository = TemporaryRepository.init(new File(directory, "repository"));
+        repository.commit(FILE_PATH, "class Foo {\n}\n", "add Foo");
+        repository.commit(OTHER_FILE_PATH, "class Bar {\n}\n", "add Bar");
+        repository.changeMode(FILE_PATH, FileMode.EXECUTABLE_FILE, "make Foo executable");
+        repository.commit(FILE_PATH, "class Foo {\n  void a() {}\n}\n", "add a");
+        repository.delete(FILE_PATH, "delete Foo");
+        repository.commit(FILE_PATH, "class Foo {\n  void a() {}\n}\n", "restore Foo");
+
+        repository.branch("side");
+        repository.checkout("side");
+        repository.commit(FILE_PATH, "class Foo {\n  void a() {}\n  void b() {}\n}\n", "add b on side");
+        repository.checkout("master");
+        repository.commit(OTHER_FILE_PATH, "class Bar {\n  void c() {}\n}\n", "add c on master");
+        repository.merge("side", "merge side");
+
+        repository.branch("top");
+        repository.checkout("top");
+        repository.commit(FILE_PATH, "// Foo\nclass Foo {\n  void a() {}\n  void b() {}\n}\n", "comment Foo on top");
+        repository.checkout("master");
+        repository.commit(FILE_PATH, "class Foo {\n  void a() {}\n  void b() {}\n}\n// end\n", "comment end of Foo on master");
+        head = repository.merge("top", "merge top");
+    }
+
+    @AfterEach
+    public void close() {
+        repository.close();
+    }
+
+    @Test
+    public void testCommitsAsLogCommand() throws Exception {
+        try (FileHistoryWalker walker = new FileHistoryWalker(repository.getRepository())) {
+            assertEquals(log(head, FILE_PATH), new ArrayList<>(walker.getCommits(head, FILE_PATH)));
+            assertEquals(log(head, OTHER_FILE_PATH), new ArrayList<>(walker.getCommits(head, OTHER_FILE_PATH)));
+        }
+    }
+
+    @Test
+    public void testCommitsAsLogCommandWithIndex() throws Exception {
+        try (CommitGraphIndex index = new CommitGraphIndex(repository.getRepository(), new File(directory, "commit-graph"));
+             FileHistoryWalker walker = new FileHistoryWalker(repository.getRepository(), index)) {
+            assertEquals(log(head, FILE_PATH), new ArrayList<>(walker.getCommits(head, FILE_PATH)));
+            assertEquals(log(head, OTHER_FILE_PATH), new ArrayList<>(walker.getCommits(head, OTHER_FILE_PATH)));
+        }
+    }
+
+    @Test
+    public void testModeChangeModifiesFile() throws Exception {
+        List<String> messages = new ArrayList<>();
+        try (FileHistoryWalker walker = new FileHistoryWalker(repository.getRepository())) {
+            for (String commitId : walker.getCommits(head, FILE_PATH))
+                messages.add(repository.getRepository().parseCommit(repository.getRepository().resolve(commitId)).getShortMessage());
+        }
+        assertTrue(messages.contains("make Foo executable"));
+        assertTrue(messages.contains("delete Foo"));
+        assertTrue(messages.contains("merge top"));
+        assertFalse(messages.contains("merge side"));
+    }
+
+    @Test
+    public void testRestartFromOlderCommit() throws Exception {
+        try (FileHistoryWalker walker = new FileHistoryWalker(repository.getRepository())) {
+            List<String> commits = new ArrayList<>(walker.getCommits(head, FILE_PATH));
+            String older = commits.get(3);
+            assertEquals(log(older, FILE_PATH), new ArrayList<>(walker.getCommits(older, FILE_PATH)));
+        }
+    }
+
+    @Test
+    public void testViewDoesNotCloseSharedWalker() throws Exception {
+        try (FileHistoryWalker walker = new FileHistoryWalker(repository.getRepository())) {
+            try (FileHistoryWalker view = FileHistoryWalker.view(walker)) {
+                assertEquals(log(head, FILE_PATH), new ArrayList<>(view.getCommits(head, FILE_PATH)));
+            }
+            assertEquals(log(head, OTHER_FILE_PATH), new ArrayList<>(walker.getCommits(head, OTHER_FILE_PATH)));
+        }
+    }
+
+    private List<String> log(String startCommitId, String filePath) throws Exception {
+        List<String> commits = new ArrayList<>();
+        for (RevCommit commit : repository.getGit().log().add(repository.getRepository().resolve(startCommitId)).addPath(filePath).call())
+            commits.add(commit.getName());
+        return commits;
+    }
+}
@@ -0,0 +1,55 @@
+package org.codetracker.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FingerprintTest {
+
+    @AfterEach
+    public void disableCache() {
+        Fingerprint.disableCache();
+    }
+
+    @Test
+    public void testDigestIsStable() {
+        String digest = Fingerprint.digest("return a + b;");
+        assertEquals(digest, Fingerprint.digest("return a + b;"));
+        assertNotEquals(digest, Fingerprint.digest("return a - b;"));
+        if (Fingerprint.getAlgorithm() == Fingerprint.Algorithm.MURMUR3_128)
+            assertEquals(Fingerprint.of("return a + b;").toString(), digest);
+        else
+            assertEquals(Fingerprint.sha512("return a + b;"), digest);
+    }
+
+    @Test
+    public void testCachedDigest() {
+        String digest = Fingerprint.digest("int x = 0;");
+        Fingerprint.enableCache(2);
+        assertEquals(digest, Fingerprint.digest("int x = 0;"));
+        assertEquals(digest, Fingerprint.digest("int x = 0;"));
+        Fingerprint.clearCache();
+        assertEquals(digest, Fingerprint.digest("int x = 0;"));
+    }
+
+    @Test
+    public void testAlgorithmCannotChangeOnceDigested() {
+        Fingerprint.digest("x++;");
+        Fingerprint.Algorithm algorithm = Fingerprint.getAlgorithm();
+        Fingerprint.Algorithm other = algorithm == Fingerprint.Algorithm.MURMUR3_128 ? Fingerprint.Algorithm.SHA_512 : Fingerprint.Algorithm.MURMUR3_128;
+        assertThrows(IllegalStateException.class, () -> Fingerprint.setAlgorithm(other));
+        assertEquals(algorithm, Fingerprint.getAlgorithm());
+        Fingerprint.setAlgorithm(algorithm);
+        assertEquals(algorithm, Fingerprint.getAlgorithm());
+    }
+
+    @Test
+    public void testFingerprintEquality() {
+        assertEquals(Fingerprint.of("a"), Fingerprint.of("a"));
+        assertEquals(Fingerprint.of("a").hashCode(), Fingerprint.of("a").hashCode());
+        assertNotEquals(Fingerprint.of("a"), Fingerprint.of("b"));
+        assertEquals(32, Fingerprint.of("a").toString().length());
+        assertEquals(128, Fingerprint.sha512("a").length());
+    }
+}
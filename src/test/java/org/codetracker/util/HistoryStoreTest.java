@@ -0,0 +1,125 @@
+package org.codetracker.util;
+
+import org.codetracker.TrackingSession;
+import org.codetracker.api.History;
+import org.codetracker.change.Change;
+import org.codetracker.element.Method;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistoryStoreTest {
+    private static final String FILE_PATH = "src/main/java/calc/Calculator.java";
+    private static final String METHOD_NAME = "compute";
+    private static final int METHOD_LINE = 5;
+
+    @TempDir
+    File directory;
+    private TemporaryRepository repository;
+    private HistoryStore historyStore;
+    private final List<String> commits = new ArrayList<>();
+
+    @BeforeEach
+    public void createHistory() throws Exception {
+        repository = TemporaryRepository.init(new File(directory, "repository"));
+        historyStore = new HistoryStore(new File(directory, "histories"));
+        for (int version = 0; version < 4; version++)
+            commits.add(repository.commit(FILE_PATH, source(version), "version " + version));
+    }
+
+    @AfterEach
+    public void close() {
+        repository.close();
+    }
+
+    @Test
+    public void testEmptyStore() throws Exception {
+        assertNull(historyStore.load("calc.Calculator#compute(int)", commits.get(0)));
+        assertNull(historyStore.lookup("calc.Calculator#compute(int)", FILE_PATH, commits.get(0)));
+    }
+
+    @Test
+    public void testStoredHistoryIsReused() throws Exception {
+        String head = commits.get(3);
+        String expected = describe(track(null, head));
+
+        History<Method> history = track(historyStore, head);
+        assertEquals(expected, describe(history));
+        Method start = at(history, head).getElementAfter();
+        HistoryStore.StoredHistory storedHistory = historyStore.load(start.getIdentifierIgnoringVersion(), head);
+        assertNotNull(storedHistory);
+        assertEquals(start.getIdentifierIgnoringVersion(), storedHistory.getNodes().get(storedHistory.getStart()).getIdentifierIgnoringVersion());
+        assertFalse(storedHistory.getEdges().isEmpty());
+        assertNotNull(historyStore.lookup(start.getIdentifierIgnoringVersion(), start.getFilePath(), head));
+
+        assertEquals(expected, describe(track(historyStore, head)));
+    }
+
+    @Test
+    public void testStoredHistoryIsExtended() throws Exception {
+        track(historyStore, commits.get(3));
+        commits.add(repository.commit(FILE_PATH, source(4), "version 4"));
+        String head = commits.get(4);
+        assertEquals(describe(track(null, head)), describe(track(historyStore, head)));
+    }
+
+    private History<Method> track(HistoryStore historyStore, String startCommitId) throws Exception {
+        try (TrackingSession session = TrackingSession.builder(repository.getRepository()).historyStore(historyStore).build()) {
+            return session.methodTracker()
+                    .startCommitId(startCommitId)
+                    .filePath(FILE_PATH)
+                    .methodName(METHOD_NAME)
+                    .methodDeclarationLineNumber(METHOD_LINE)
+                    .build()
+                    .track();
+        }
+    }
+
+    private static History.HistoryInfo<Method> at(History<Method> history, String commitId) {
+        for (History.HistoryInfo<Method> historyInfo : history.getHistoryInfoList()) {
+            if (historyInfo.getCommitId().equals(commitId))
+                return historyInfo;
+        }
+        return fail("no change at " + commitId);
+    }
+
+    private static String describe(History<Method> history) {
+        StringBuilder description = new StringBuilder();
+        List<History.HistoryInfo<Method>> historyInfos = new ArrayList<>(history.getHistoryInfoList());
+        Collections.sort(historyInfos);
+        for (History.HistoryInfo<Method> historyInfo : historyInfos) {
+            List<String> changes = new ArrayList<>();
+            for (Change change : historyInfo.getChangeList())
+                changes.add(change.getType() + ": " + change);
+            Collections.sort(changes);
+            description.append(historyInfo.getCommitId()).append(' ')
+                    .append(historyInfo.getElementBefore().getIdentifier()).append(" -> ")
+                    .append(historyInfo.getElementAfter().getIdentifier()).append(' ')
+                    .append(changes).append('\n');
+        }
+        return description.toString();
+    }
+
+    /**
+     * A method whose body changes at each version, and whose parameter is renamed at version 2.
+     */
+    private static String source(int version) {
+        String parameter = version >= 2 ? "value" : "x";
+        return "package calc;\n" +
+                "\n" +
+                "public class Calculator {\n" +
+                "\n" +
+                "    int " + METHOD_NAME + "(int " + parameter + ") {\n" +
+                "        return " + parameter + " * " + (version + 2) + ";\n" +
+                "    }\n" +
+                "}\n";
+    }
+}
@@ -0,0 +1,98 @@
+package org.codetracker.util;
+
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyFileContentsTest {
+    private static final String FOO = "src/main/java/foo/Foo.java";
+    private static final String BAR = "src/main/java/bar/Bar.java";
+    private static final String README = "README.md";
+    private static final String NOTES = "docs/notes/notes.txt";
+
+    @TempDir
+    File directory;
+    private TemporaryRepository repository;
+    private RevCommit commit;
+
+    @BeforeEach
+    public void createHistory() throws Exception {
+        repository = TemporaryRepository.init(new File(directory, "repository"));
+        repository.write(FOO, "class Foo {\n}\n");
+        repository.write(BAR, "class Bar {\n}\n");
+        repository.write(README, "readme\n");
+        repository.write(NOTES, "notes\n");
+        String commitId = repository.commit("add files");
+        try (RevWalk walk = new RevWalk(repository.getRepository())) {
+            commit = walk.parseCommit(repository.getRepository().resolve(commitId));
+        }
+    }
+
+    @AfterEach
+    public void close() {
+        repository.close();
+    }
+
+    @Test
+    public void testReadsRequestedFiles() throws Exception {
+        Set<String> repositoryDirectories = new HashSet<>();
+        LazyFileContents contents = LazyFileContents.of(repository.getRepository(), commit, new HashSet<>(Arrays.asList(FOO, BAR, "Missing.java")), repositoryDirectories);
+        assertEquals(new HashSet<>(Arrays.asList(FOO, BAR)), contents.keySet());
+        assertEquals("class Foo {\n}\n", contents.get(FOO));
+        assertEquals("class Bar {\n}\n", contents.get(BAR));
+        assertNull(contents.get(README));
+        assertFalse(contents.containsKey(README));
+        assertNotNull(contents.getBlobId(FOO));
+        assertNull(contents.getBlobId(README));
+        assertEquals(new HashSet<>(Arrays.asList("src", "src/main", "src/main/java", "src/main/java/foo", "src/main/java/bar")), repositoryDirectories);
+        Map<String, String> expected = new HashMap<>();
+        expected.put(FOO, "class Foo {\n}\n");
+        expected.put(BAR, "class Bar {\n}\n");
+        assertEquals(expected, contents);
+        assertEquals(expected, new HashMap<>(contents));
+    }
+
+    @Test
+    public void testCollectsDirectoriesOfAllJavaFiles() throws Exception {
+        Set<String> repositoryDirectories = new HashSet<>();
+        LazyFileContents contents = LazyFileContents.of(repository.getRepository(), commit, Collections.singleton(FOO), repositoryDirectories);
+        assertEquals(Collections.singleton(FOO), contents.keySet());
+        assertEquals(new HashSet<>(Arrays.asList("src", "src/main", "src/main/java", "src/main/java/foo", "src/main/java/bar")), repositoryDirectories);
+        repositoryDirectories.clear();
+        assertTrue(LazyFileContents.of(repository.getRepository(), commit, Collections.emptySet(), repositoryDirectories).isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("src", "src/main", "src/main/java", "src/main/java/foo", "src/main/java/bar")), repositoryDirectories);
+    }
+
+    @Test
+    public void testCannotBeModified() throws Exception {
+        LazyFileContents contents = LazyFileContents.of(repository.getRepository(), commit, Collections.singleton(FOO), new HashSet<>());
+        assertThrows(UnsupportedOperationException.class, () -> contents.remove(FOO));
+        assertThrows(UnsupportedOperationException.class, () -> contents.put(BAR, ""));
+    }
+
+    @Test
+    public void testCopiesRemoveFilesIndependently() throws Exception {
+        LazyFileContents contents = LazyFileContents.of(repository.getRepository(), commit, new HashSet<>(Arrays.asList(FOO, BAR)), new HashSet<>());
+        LazyFileContents copy = contents.copy();
+        assertEquals("class Foo {\n}\n", copy.remove(FOO));
+        assertFalse(copy.containsKey(FOO));
+        assertEquals(1, copy.size());
+        assertTrue(contents.containsKey(FOO));
+        assertEquals(2, contents.size());
+        Map<String, String> copyOfCopy = LazyFileContents.copyOf(copy);
+        assertTrue(copyOfCopy instanceof LazyFileContents);
+        assertEquals(copy, copyOfCopy);
+        Map<String, String> plain = LazyFileContents.copyOf(Collections.singletonMap(FOO, "class Foo {}"));
+        assertFalse(plain instanceof LazyFileContents);
+        plain.remove(FOO);
+        assertTrue(plain.isEmpty());
+    }
+}
@@ -0,0 +1,118 @@
+package org.codetracker.util;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheEditor;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * A git repository created in a temporary directory, to which the tests commit files one second apart, so that the
+ * order of the commits does not depend on how fast they are created.
+ */
+public class TemporaryRepository implements AutoCloseable {
+    private final Git git;
+    private long time = 1_600_000_000_000L;
+
+    private TemporaryRepository(Git git) {
+        this.git = git;
+    }
+
+    public static TemporaryRepository init(File directory) throws GitAPIException {
+        return new TemporaryRepository(Git.init().setDirectory(directory).setInitialBranch("master").call());
+    }
+
+    public Repository getRepository() {
+        return git.getRepository();
+    }
+
+    public Git getGit() {
+        return git;
+    }
+
+    /**
+     * Writes the file and commits it.
+     *
+     * @return the id of the commit
+     */
+    public String commit(String filePath, String content, String message) throws IOException, GitAPIException {
+        write(filePath, content);
+        return commit(message);
+    }
+
+    public void write(String filePath, String content) throws IOException, GitAPIException {
+        File file = new File(getRepository().getWorkTree(), filePath);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        git.add().addFilepattern(filePath).call();
+    }
+
+    public String delete(String filePath, String message) throws GitAPIException {
+        git.rm().addFilepattern(filePath).call();
+        return commit(message);
+    }
+
+    /**
+     * Commits the file with the given mode, its contents unchanged.
+     */
+    public String changeMode(String filePath, FileMode fileMode, String message) throws IOException, GitAPIException {
+        DirCache dirCache = getRepository().lockDirCache();
+        try {
+            DirCacheEditor editor = dirCache.editor();
+            editor.add(new DirCacheEditor.PathEdit(filePath) {
+                @Override
+                public void apply(DirCacheEntry entry) {
+                    entry.setFileMode(fileMode);
+                }
+            });
+            editor.commit();
+        } finally {
+            dirCache.unlock();
+        }
+        return commit(message);
+    }
+
+    public void branch(String name) throws GitAPIException {
+        git.branchCreate().setName(name).call();
+    }
+
+    public void checkout(String name) throws GitAPIException {
+        git.checkout().setName(name).call();
+    }
+
+    /**
+     * Merges the branch into the current one with a merge commit, even if it could be fast-forwarded.
+     *
+     * @return the id of the merge commit
+     */
+    public String merge(String branch, String message) throws IOException, GitAPIException {
+        git.merge()
+                .include(getRepository().resolve(branch))
+                .setFastForward(MergeCommand.FastForwardMode.NO_FF)
+                .setCommit(false)
+                .call();
+        return commit(message);
+    }
+
+    public String commit(String message) throws GitAPIException {
+        time += 1000;
+        PersonIdent ident = new PersonIdent("Tester", "tester@example.com", new Date(time), TimeZone.getTimeZone("UTC"));
+        return git.commit().setMessage(message).setAuthor(ident).setCommitter(ident).call().getName();
+    }
+
+    @Override
+    public void close() {
+        git.close();
+    }
+}
@@ -0,0 +1,78 @@
+package org.codetracker.util;
+
+import gr.uom.java.xmi.UMLModel;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UMLModelCacheTest {
+    private static final String FILE_PATH = "src/Foo.java";
+
+    private static ObjectId blobId(int i) {
+        return ObjectId.fromRaw(new int[]{i, 0, 0, 0, 0});
+    }
+
+    private static UMLModel umlModel() {
+        return new UMLModel(Collections.emptySet());
+    }
+
+    @Test
+    public void testBoundedCacheStats() {
+        UMLModelCache cache = BoundedUMLModelCache.withMaximumSize(10);
+        UMLModel umlModel = umlModel();
+        assertNull(cache.take(FILE_PATH, blobId(1)));
+        cache.put(FILE_PATH, blobId(1), umlModel, 100);
+        assertTrue(cache.contains(FILE_PATH, blobId(1)));
+        assertFalse(cache.contains("src/Bar.java", blobId(1)));
+        assertSame(umlModel, cache.take(FILE_PATH, blobId(1)));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        cache.put(FILE_PATH, blobId(1), umlModel, 100);
+        cache.clear();
+        assertFalse(cache.contains(FILE_PATH, blobId(1)));
+    }
+
+    @Test
+    public void testTakenModelIsNotSharedUntilPutBack() {
+        UMLModelCache cache = new BoundedUMLModelCache();
+        UMLModel umlModel = umlModel();
+        cache.put(FILE_PATH, blobId(1), umlModel, 100);
+        assertSame(umlModel, cache.take(FILE_PATH, blobId(1)));
+        assertFalse(cache.contains(FILE_PATH, blobId(1)));
+        assertNull(cache.take(FILE_PATH, blobId(1)));
+        cache.put(FILE_PATH, blobId(1), umlModel, 100);
+        assertSame(umlModel, cache.take(FILE_PATH, blobId(1)));
+    }
+
+    @Test
+    public void testCopyPutBackLaterIsDropped() {
+        UMLModelCache cache = new BoundedUMLModelCache();
+        UMLModel umlModel = umlModel();
+        cache.put(FILE_PATH, blobId(1), umlModel, 100);
+        cache.put(FILE_PATH, blobId(1), umlModel(), 100);
+        assertSame(umlModel, cache.take(FILE_PATH, blobId(1)));
+        assertNull(cache.take(FILE_PATH, blobId(1)));
+    }
+
+    @Test
+    public void testBoundedCacheEvicts() {
+        UMLModelCache bySize = BoundedUMLModelCache.withMaximumSize(2);
+        UMLModelCache byWeight = BoundedUMLModelCache.withMaximumWeight(1000);
+        for (int i = 0; i < 10; i++) {
+            bySize.put(FILE_PATH, blobId(i), umlModel(), 1);
+            byWeight.put(FILE_PATH, blobId(i), umlModel(), 400);
+        }
+        assertTrue(bySize.getEvictionCount() >= 8);
+        assertTrue(byWeight.getEvictionCount() >= 8);
+        assertTrue(bySize.contains(FILE_PATH, blobId(9)));
+        int kept = 0;
+        for (int i = 0; i < 10; i++) {
+            if (byWeight.contains(FILE_PATH, blobId(i)))
+                kept++;
+        }
+        assertTrue(kept <= 2);
+    }
+}
@@ -0,0 +1,69 @@
+package org.codetracker.util;
+
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.diff.UMLModelDiff;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UMLModelDiffCacheTest {
+    private static final String PARENT_COMMIT_ID = "5d2c5e6a0b19e0a2f0b5e2c1f6e2b0a5a8c1d3e4";
+    private static final String COMMIT_ID = "119fd4fb33bef9f5c66fc950396669af842c21a3";
+
+    private static UMLModel umlModel() {
+        return new UMLModel(Collections.emptySet());
+    }
+
+    @Test
+    public void testKeys() {
+        assertEquals(UMLModelDiffCache.Key.local(PARENT_COMMIT_ID, COMMIT_ID, "src/Foo.java"), UMLModelDiffCache.Key.local(PARENT_COMMIT_ID, COMMIT_ID, "src/Foo.java"));
+        assertEquals(UMLModelDiffCache.Key.local(PARENT_COMMIT_ID, COMMIT_ID, "src/Foo.java").hashCode(), UMLModelDiffCache.Key.local(PARENT_COMMIT_ID, COMMIT_ID, "src/Foo.java").hashCode());
+        assertNotEquals(UMLModelDiffCache.Key.local(PARENT_COMMIT_ID, COMMIT_ID, "src/Foo.java"), UMLModelDiffCache.Key.local(PARENT_COMMIT_ID, COMMIT_ID, "src/Bar.java"));
+        assertNotEquals(UMLModelDiffCache.Key.local(PARENT_COMMIT_ID, COMMIT_ID, "src/Foo.java"), UMLModelDiffCache.Key.all(PARENT_COMMIT_ID, COMMIT_ID, "src/Foo.java", Collections.singleton("src/Foo.java")));
+        assertEquals(UMLModelDiffCache.Key.all(PARENT_COMMIT_ID, COMMIT_ID, "src/Foo.java", new HashSet<>(Arrays.asList("src/Foo.java", "src/Bar.java"))),
+                UMLModelDiffCache.Key.all(PARENT_COMMIT_ID, COMMIT_ID, "src/Foo.java", new HashSet<>(Arrays.asList("src/Bar.java", "src/Foo.java"))));
+        assertNotEquals(UMLModelDiffCache.Key.all(PARENT_COMMIT_ID, COMMIT_ID, "src/Foo.java", null), UMLModelDiffCache.Key.all(PARENT_COMMIT_ID, COMMIT_ID, "src/Bar.java", null));
+        assertEquals(UMLModelDiffCache.Key.all(null, COMMIT_ID, "src/Foo.java", null), UMLModelDiffCache.Key.all(null, COMMIT_ID, "src/Foo.java", null));
+    }
+
+    @Test
+    public void testTakenDiffIsNotSharedUntilPutBack() {
+        UMLModelDiffCache cache = new UMLModelDiffCache();
+        UMLModel leftModel = umlModel();
+        UMLModel rightModel = umlModel();
+        UMLModelDiff umlModelDiff = new UMLModelDiff();
+        UMLModelDiffCache.Key key = UMLModelDiffCache.Key.local(PARENT_COMMIT_ID, COMMIT_ID, "src/Foo.java");
+        assertNull(cache.take(key, leftModel, rightModel));
+        cache.put(key, leftModel, rightModel, umlModelDiff);
+        assertSame(umlModelDiff, cache.take(key, leftModel, rightModel));
+        assertNull(cache.take(key, leftModel, rightModel));
+        cache.put(key, leftModel, rightModel, umlModelDiff);
+        assertSame(umlModelDiff, cache.take(key, leftModel, rightModel));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        cache.put(key, leftModel, rightModel, umlModelDiff);
+        cache.clear();
+        assertNull(cache.take(key, leftModel, rightModel));
+    }
+
+    @Test
+    public void testDiffIsBoundToItsModels() {
+        UMLModelDiffCache cache = new UMLModelDiffCache();
+        UMLModel leftModel = umlModel();
+        UMLModel rightModel = umlModel();
+        UMLModelDiff umlModelDiff = new UMLModelDiff();
+        UMLModelDiffCache.Key key = UMLModelDiffCache.Key.local(PARENT_COMMIT_ID, COMMIT_ID, "src/Foo.java");
+        cache.put(key, leftModel, rightModel, umlModelDiff);
+        assertNull(cache.take(key, leftModel, umlModel()));
+        assertNull(cache.take(key, null, null));
+        assertSame(umlModelDiff, cache.take(key, leftModel, rightModel));
+
+        UMLModelDiffCache.Key allKey = UMLModelDiffCache.Key.all(PARENT_COMMIT_ID, COMMIT_ID, "src/Foo.java", null);
+        cache.put(allKey, null, null, umlModelDiff);
+        assertSame(umlModelDiff, cache.take(allKey, null, null));
+    }
+}